@@ -0,0 +1,98 @@
+/**
+ * <p><b>Copyright 2013 Juha Mäkilä and Sami Holck</b></p>
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at</p>
+ *
+ *     <a href="http://www.apache.org/licenses/LICENSE-2.0"
+ *     target="_new">http://www.apache.org/licenses/LICENSE-2.0</a>
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.</p>
+ */
+package edu.vserver.exercises.videoMcq;
+
+import java.util.Random;
+
+import sph.MicroBenchmark;
+
+/**
+ * Measures the checksum pass of {@link ItemStatisticsRegistry} over the
+ * stored submissions against rebuilding the item analysis from them.
+ *
+ * <p>The submissions are in their stored form: only the summaries have been
+ * decoded, as {@link VideoMcqSubmissionCodec#decodeSummary(byte[])} leaves
+ * them. The rebuild decodes the answers of every submission. Each operation
+ * is one pass over all the submissions. Run with the number of the
+ * submissions as the argument, by default 10000.</p>
+ *
+ * <p><strong>copyright &copy; Ville-Video 2013</strong></p>
+ *
+ * @version 0.1
+ * @since   17.10.2026
+ */
+public final class ItemStatisticsBenchmark {
+
+	private static final int QUESTIONS = 20;
+
+	private ItemStatisticsBenchmark() {
+
+	}
+
+	/**
+	 * Runs the benchmark.
+	 *
+	 * @param  args the number of the submissions.
+	 * @throws Exception if the benchmark fails.
+	 */
+	public static void main(String[] args) throws Exception {
+		int size = (args.length > 0) ? Integer.parseInt(args[0]) : 10000;
+		final CompiledExercise exercise = XMLLoadBenchmark.createExercise(QUESTIONS).getCompiledExercise();
+		final byte[][] stored = new byte[size][];
+		final VideoMcqSubmissionInfo[] summaries = new VideoMcqSubmissionInfo[size];
+		Random random = new Random(42);
+		for (int s = 0; s < size; s++) {
+			long[] answers = new long[QUESTIONS];
+			int[] times = new int[QUESTIONS];
+			int correct = 0;
+			for (int q = 0; q < QUESTIONS; q++) {
+				answers[q] = 1L << random.nextInt(exercise.getOptionCount(q));
+				times[q] = 1000 + random.nextInt(20000);
+				if (answers[q] == exercise.getCorrectMask(q)) {
+					correct++;
+				}
+			}
+			stored[s] = VideoMcqSubmissionCodec.encode(new VideoMcqSubmissionInfo(exercise.getFingerprint(), answers, times, 100.0 * correct / QUESTIONS));
+			summaries[s] = VideoMcqSubmissionCodec.decodeSummary(stored[s]);
+		}
+
+		MicroBenchmark.printHeader("ItemStatisticsRegistry, " + size + " submissions of " + QUESTIONS + " questions");
+		MicroBenchmark.measure("checksum pass", new MicroBenchmark.Operation() {
+			@Override
+			public Object run() {
+				long checksum = 0L;
+				for (VideoMcqSubmissionInfo subm : summaries) {
+					checksum += ItemStatisticsRegistry.checksumOf(subm);
+				}
+				return checksum;
+			}
+		});
+		MicroBenchmark.measure("rebuild", new MicroBenchmark.Operation() {
+			@Override
+			public Object run() {
+				ItemAnalysis analysis = new ItemAnalysis(exercise);
+				for (int s = 0; s < stored.length; s++) {
+					VideoMcqSubmissionInfo summary = summaries[s];
+					// a fresh stored submission, so the answers are decoded again
+					analysis.add(new VideoMcqSubmissionInfo(stored[s], summary.getFingerprint(), summary.getQuestionCount(),
+							summary.getAnsweredCount(), summary.getScore()));
+				}
+				return analysis.getStatistics();
+			}
+		});
+	}
+}
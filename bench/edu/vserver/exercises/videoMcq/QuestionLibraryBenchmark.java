@@ -0,0 +1,160 @@
+/**
+ * <p><b>Copyright 2013 Juha Mäkilä and Sami Holck</b></p>
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at</p>
+ *
+ *     <a href="http://www.apache.org/licenses/LICENSE-2.0"
+ *     target="_new">http://www.apache.org/licenses/LICENSE-2.0</a>
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.</p>
+ */
+package edu.vserver.exercises.videoMcq;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import sph.MicroBenchmark;
+
+/**
+ * Compares the index of {@link QuestionLibrary} to the lookups through a copy
+ * of all the questions that the library made before the index.
+ *
+ * <p>Run with the number of the questions as the argument, by default 500.</p>
+ *
+ * <p><strong>copyright &copy; Ville-Video 2013</strong></p>
+ *
+ * @version 0.1
+ * @since   17.10.2026
+ */
+public final class QuestionLibraryBenchmark {
+
+	private QuestionLibraryBenchmark() {
+
+	}
+
+	/**
+	 * Runs the benchmark.
+	 *
+	 * @param  args the number of the questions.
+	 * @throws Exception if the benchmark fails.
+	 */
+	public static void main(String[] args) throws Exception {
+		int size = (args.length > 0) ? Integer.parseInt(args[0]) : 500;
+		final QuestionLibrary library = new QuestionLibrary();
+		final CopyingLibrary copying = new CopyingLibrary();
+		for (int i = 0; i < size; i++) {
+			// two questions in every fifth time slot
+			Question question = new Question(10 * (i - i / 5), "question " + i, "correct " + i, "", Arrays.asList("false " + i));
+			library.add(question);
+			copying.add(question);
+		}
+		final Question middle = library.get(size / 2);
+
+		MicroBenchmark.printHeader("QuestionLibrary, " + size + " questions");
+		MicroBenchmark.measure("get(index), copy", new MicroBenchmark.Operation() {
+			@Override
+			public Object run() {
+				return copying.get(size / 2);
+			}
+		});
+		MicroBenchmark.measure("get(index), index", new MicroBenchmark.Operation() {
+			@Override
+			public Object run() {
+				return library.get(size / 2);
+			}
+		});
+		MicroBenchmark.measure("indexOf(question), copy", new MicroBenchmark.Operation() {
+			@Override
+			public Object run() {
+				return copying.indexOf(middle);
+			}
+		});
+		MicroBenchmark.measure("indexOf(question), index", new MicroBenchmark.Operation() {
+			@Override
+			public Object run() {
+				return library.indexOf(middle);
+			}
+		});
+		MicroBenchmark.measure("getNext(question), copy", new MicroBenchmark.Operation() {
+			@Override
+			public Object run() {
+				return copying.getNext(middle);
+			}
+		});
+		MicroBenchmark.measure("getNext(question), index", new MicroBenchmark.Operation() {
+			@Override
+			public Object run() {
+				return library.getNext(middle);
+			}
+		});
+		MicroBenchmark.measure("iteration, copy", new MicroBenchmark.Operation() {
+			@Override
+			public Object run() {
+				int sum = 0;
+				for (Question q : copying.getAllQuestions()) {
+					sum += q.getTime();
+				}
+				return sum;
+			}
+		});
+		MicroBenchmark.measure("iteration, index", new MicroBenchmark.Operation() {
+			@Override
+			public Object run() {
+				int sum = 0;
+				for (Question q : library) {
+					sum += q.getTime();
+				}
+				return sum;
+			}
+		});
+	}
+
+	/**
+	 * The lookups of the library before the index: every lookup copies all
+	 * the questions from the time slots to a new list.
+	 */
+	private static final class CopyingLibrary {
+
+		private final SortedMap<Integer, ArrayList<Question>> questions = Collections.synchronizedSortedMap(new TreeMap<Integer, ArrayList<Question>>());
+
+		void add(Question question) {
+			ArrayList<Question> questionList = this.questions.get(question.getTime());
+			if (questionList == null) {
+				questionList = new ArrayList<Question>();
+				this.questions.put(question.getTime(), questionList);
+			}
+			questionList.add(question);
+		}
+
+		ArrayList<Question> getAllQuestions() {
+			ArrayList<Question> all = new ArrayList<Question>();
+			for (ArrayList<Question> qlist : this.questions.values()) {
+				all.addAll(qlist);
+			}
+			return all;
+		}
+
+		Question get(int index) {
+			return getAllQuestions().get(index);
+		}
+
+		int indexOf(Question question) {
+			return getAllQuestions().indexOf(question);
+		}
+
+		Question getNext(Question question) {
+			ArrayList<Question> all = getAllQuestions();
+			int index = all.indexOf(question);
+			return (index >= 0 && index + 1 < all.size()) ? all.get(index + 1) : null;
+		}
+	}
+}
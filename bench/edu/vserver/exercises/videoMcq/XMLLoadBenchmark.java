@@ -0,0 +1,138 @@
+/**
+ * <p><b>Copyright 2013 Juha Mäkilä and Sami Holck</b></p>
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at</p>
+ *
+ *     <a href="http://www.apache.org/licenses/LICENSE-2.0"
+ *     target="_new">http://www.apache.org/licenses/LICENSE-2.0</a>
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.</p>
+ */
+package edu.vserver.exercises.videoMcq;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import sph.MicroBenchmark;
+
+/**
+ * Compares loading the exercise XML with the StAX reader of
+ * {@link VideoMcqXMLHandler} to loading it through a DOM as it was loaded
+ * before.
+ *
+ * <p>The cache of the parsed exercises is cleared before every load, so the
+ * StAX rows include digesting the data and compiling the exercise. Run with
+ * the number of the questions as the argument, by default 1000.</p>
+ *
+ * <p><strong>copyright &copy; Ville-Video 2013</strong></p>
+ *
+ * @version 0.1
+ * @since   17.10.2026
+ */
+public final class XMLLoadBenchmark {
+
+	private static final DocumentBuilderFactory DOCUMENT_FACTORY = DocumentBuilderFactory.newInstance();
+
+	private XMLLoadBenchmark() {
+
+	}
+
+	/**
+	 * Runs the benchmark.
+	 *
+	 * @param  args the number of the questions.
+	 * @throws Exception if the benchmark fails.
+	 */
+	public static void main(String[] args) throws Exception {
+		int size = (args.length > 0) ? Integer.parseInt(args[0]) : 1000;
+		final byte[] data = VideoMcqXMLHandler.INSTANCE.saveExerData(createExercise(size), null);
+		final VideoMcqXMLHandler handler = VideoMcqXMLHandler.INSTANCE;
+
+		MicroBenchmark.printHeader("loadExerData, " + size + " questions, " + data.length + " bytes");
+		MicroBenchmark.measure("DOM", new MicroBenchmark.Operation() {
+			@Override
+			public Object run() throws Exception {
+				return loadWithDom(data);
+			}
+		});
+		MicroBenchmark.measure("StAX", new MicroBenchmark.Operation() {
+			@Override
+			public Object run() throws Exception {
+				handler.getExerciseCache().clear();
+				return handler.loadExerData(data, null);
+			}
+		});
+		MicroBenchmark.measure("StAX, cached", new MicroBenchmark.Operation() {
+			@Override
+			public Object run() throws Exception {
+				return handler.loadExerData(data, null);
+			}
+		});
+	}
+
+	/**
+	 * Creates an exercise with the given number of questions.
+	 *
+	 * @param  size the number of the questions.
+	 * @return the exercise.
+	 */
+	static VideoMcqExerciseData createExercise(int size) {
+		QuestionLibrary library = new QuestionLibrary();
+		for (int i = 0; i < size; i++) {
+			ArrayList<String> falseAnswers = new ArrayList<String>();
+			for (int j = 1; j <= 3; j++) {
+				falseAnswers.add("False answer " + j + " to the question " + i);
+			}
+			library.add(new Question(5 * i, "What happens at " + i + " & why?", "The correct answer to " + i,
+					"The description of the answer <" + i + ">", falseAnswers));
+		}
+		VideoMcqExerciseData exerData = new VideoMcqExerciseData();
+		exerData.setVideoURL("http://example.com/lecture.mp4");
+		exerData.setMimeType("video/mp4");
+		exerData.setExerName("Lecture");
+		exerData.setQuestionLibrary(library);
+		return exerData;
+	}
+
+	/**
+	 * Loads the exercise through a DOM, as the handler loaded it before the
+	 * StAX reader.
+	 */
+	private static VideoMcqExerciseData loadWithDom(byte[] dataPres) throws Exception {
+		VideoMcqExerciseData exerData = new VideoMcqExerciseData();
+		Document doc = DOCUMENT_FACTORY.newDocumentBuilder().parse(new ByteArrayInputStream(dataPres));
+		doc.getDocumentElement().normalize();
+		exerData.setVideoURL(doc.getDocumentElement().getAttribute("videoURL"));
+		exerData.setMimeType(doc.getDocumentElement().getAttribute("mimetype"));
+		exerData.setExerName(doc.getDocumentElement().getAttribute("exerName"));
+		exerData.setSliderEnabled(Boolean.parseBoolean(doc.getDocumentElement().getAttribute("sliderEnabled")));
+		exerData.setInstantResponse(Boolean.parseBoolean(doc.getDocumentElement().getAttribute("instantResponse")));
+		QuestionLibrary questionLibrary = new QuestionLibrary();
+		NodeList questionNodes = doc.getElementsByTagName("timedQuestion");
+		for (int i = 0; i < questionNodes.getLength(); i++) {
+			NodeList questionData = questionNodes.item(i).getChildNodes();
+			ArrayList<String> falseAnswers = new ArrayList<String>();
+			NodeList falseData = questionData.item(4).getChildNodes();
+			for (int j = 0; j < falseData.getLength(); j++) {
+				falseAnswers.add(falseData.item(j).getTextContent());
+			}
+			Node time = questionData.item(0);
+			questionLibrary.add(new Question(Integer.parseInt(time.getTextContent()), questionData.item(1).getTextContent(),
+					questionData.item(2).getTextContent(), questionData.item(3).getTextContent(), falseAnswers));
+		}
+		exerData.setQuestionLibrary(questionLibrary);
+		return exerData;
+	}
+}
@@ -0,0 +1,118 @@
+/**
+ * <p><b>Copyright 2013 Juha Mäkilä and Sami Holck</b></p>
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at</p>
+ *
+ *     <a href="http://www.apache.org/licenses/LICENSE-2.0"
+ *     target="_new">http://www.apache.org/licenses/LICENSE-2.0</a>
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.</p>
+ */
+package edu.vserver.exercises.videoMcq;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import sph.MicroBenchmark;
+
+/**
+ * Compares saving the exercise XML with the streaming writer of
+ * {@link VideoMcqXMLHandler} to saving it through a DOM and a transformer as
+ * it was saved before.
+ *
+ * <p>Run with the number of the questions as the argument, by default 1000.</p>
+ *
+ * <p><strong>copyright &copy; Ville-Video 2013</strong></p>
+ *
+ * @version 0.1
+ * @since   17.10.2026
+ */
+public final class XMLSaveBenchmark {
+
+	private static final DocumentBuilderFactory DOCUMENT_FACTORY = DocumentBuilderFactory.newInstance();
+	private static final TransformerFactory TRANSFORMER_FACTORY = TransformerFactory.newInstance();
+
+	private XMLSaveBenchmark() {
+
+	}
+
+	/**
+	 * Runs the benchmark.
+	 *
+	 * @param  args the number of the questions.
+	 * @throws Exception if the benchmark fails.
+	 */
+	public static void main(String[] args) throws Exception {
+		int size = (args.length > 0) ? Integer.parseInt(args[0]) : 1000;
+		final VideoMcqExerciseData exerData = XMLLoadBenchmark.createExercise(size);
+		final VideoMcqXMLHandler handler = VideoMcqXMLHandler.INSTANCE;
+
+		MicroBenchmark.printHeader("saveExerData, " + size + " questions");
+		MicroBenchmark.measure("DOM and transformer", new MicroBenchmark.Operation() {
+			@Override
+			public Object run() throws Exception {
+				return saveWithDom(exerData);
+			}
+		});
+		MicroBenchmark.measure("streaming writer", new MicroBenchmark.Operation() {
+			@Override
+			public Object run() throws Exception {
+				return handler.saveExerData(exerData, null);
+			}
+		});
+	}
+
+	/**
+	 * Saves the exercise through a DOM and a transformer, as the handler
+	 * saved it before the streaming writer.
+	 */
+	private static byte[] saveWithDom(VideoMcqExerciseData toWrite) throws Exception {
+		ArrayList<Question> questions = toWrite.getQuestionLibrary().getAllQuestions();
+		Document doc = DOCUMENT_FACTORY.newDocumentBuilder().newDocument();
+		Element root = doc.createElement("videoMcq-exercise");
+		doc.appendChild(root);
+		root.setAttribute("videoURL", toWrite.getVideoURL());
+		root.setAttribute("mimetype", toWrite.getMimeType());
+		root.setAttribute("exerName", toWrite.getExerName());
+		root.setAttribute("sliderEnabled", Boolean.toString(toWrite.isSliderEnabled()));
+		root.setAttribute("instantResponse", Boolean.toString(toWrite.isInstantResponse()));
+		for (Question q : questions) {
+			Element timedQuestion = doc.createElement("timedQuestion");
+			root.appendChild(timedQuestion);
+			appendElement(doc, timedQuestion, "time", Integer.toString(q.getTime()));
+			appendElement(doc, timedQuestion, "question", q.getQuestion());
+			appendElement(doc, timedQuestion, "answer", q.getCorrectAnswer(0));
+			appendElement(doc, timedQuestion, "AnswerDescription", q.getAnswerDescription());
+			Element falseAnswers = doc.createElement("falseAnswers");
+			timedQuestion.appendChild(falseAnswers);
+			ArrayList<String> falseList = q.getIncorrectAnswers();
+			// the incorrect answers were copied on every pass of the loop
+			for (int j = 0; j < q.getIncorrectAnswers().size(); j++) {
+				appendElement(doc, falseAnswers, "false" + (j + 1), falseList.get(j));
+			}
+		}
+		ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
+		TRANSFORMER_FACTORY.newTransformer().transform(new DOMSource(doc), new StreamResult(bytesOut));
+		return bytesOut.toByteArray();
+	}
+
+	private static void appendElement(Document doc, Element parent, String name, String text) {
+		Element element = doc.createElement(name);
+		element.setTextContent(text);
+		parent.appendChild(element);
+	}
+}
@@ -0,0 +1,140 @@
+/**
+ * <p><b>Copyright 2013 Juha Mäkilä and Sami Holck</b></p>
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at</p>
+ *
+ *     <a href="http://www.apache.org/licenses/LICENSE-2.0"
+ *     target="_new">http://www.apache.org/licenses/LICENSE-2.0</a>
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.</p>
+ */
+package sph;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+
+/**
+ * A minimal harness for the standalone microbenchmarks in the <em>bench</em>
+ * source folder.
+ *
+ * <p>An operation is first run for a warm-up period so that it gets compiled,
+ * and then measured in a number of rounds. The time per operation of the
+ * best and the mean round is printed, and the bytes allocated per operation
+ * if the JVM can count the allocations of a thread. The results of the
+ * operations are consumed so that the work is not optimized away.</p>
+ *
+ * <p>The numbers are indicative only: run the benchmarks on an otherwise idle
+ * machine and compare the rows of the same run.</p>
+ *
+ * <p><strong>copyright &copy; Ville-Video 2013</strong></p>
+ *
+ * @version 0.1
+ * @since   17.10.2026
+ */
+public final class MicroBenchmark {
+
+	/**
+	 * An operation to measure.
+	 */
+	public interface Operation {
+
+		/**
+		 * Runs the operation once.
+		 *
+		 * @return a result of the operation, consumed by the harness.
+		 * @throws Exception if the operation fails.
+		 */
+		Object run() throws Exception;
+	}
+
+	private static final long WARMUP_NANOS = 1000000000L;
+	private static final long ROUND_NANOS = 200000000L;
+	private static final int ROUNDS = 10;
+
+	private static volatile int sink;
+
+	private MicroBenchmark() {
+
+	}
+
+	/**
+	 * Measures an operation and prints a result line.
+	 *
+	 * @param  name the name of the operation.
+	 * @param  operation the operation.
+	 * @throws Exception if the operation fails.
+	 */
+	public static void measure(String name, Operation operation) throws Exception {
+		long batch = 1;
+		long start = System.nanoTime();
+		while (System.nanoTime() - start < WARMUP_NANOS) {
+			long elapsed = runBatch(operation, batch);
+			if (elapsed < ROUND_NANOS / 10) {
+				batch *= 2;
+			}
+		}
+		double best = Double.MAX_VALUE;
+		double total = 0;
+		long allocated = 0;
+		long operations = 0;
+		for (int round = 0; round < ROUNDS; round++) {
+			long bytesBefore = allocatedBytes();
+			long elapsed = runBatch(operation, batch);
+			long bytesAfter = allocatedBytes();
+			double nanos = (double) elapsed / batch;
+			best = Math.min(best, nanos);
+			total += nanos;
+			allocated += bytesAfter - bytesBefore;
+			operations += batch;
+		}
+		String bytes = (allocatedBytes() < 0) ? "n/a" : String.format(Locale.ROOT, "%.1f", (double) allocated / operations);
+		System.out.println(String.format(Locale.ROOT, "%-48s %14.1f %14.1f %14s", name, best, total / ROUNDS, bytes));
+	}
+
+	/**
+	 * Prints the header of the result lines.
+	 *
+	 * @param title the title of the benchmark.
+	 */
+	public static void printHeader(String title) {
+		System.out.println(title);
+		System.out.println(String.format(Locale.ROOT, "%-48s %14s %14s %14s", "operation", "best ns/op", "mean ns/op", "bytes/op"));
+	}
+
+	/**
+	 * Runs an operation a number of times and returns the elapsed time.
+	 */
+	private static long runBatch(Operation operation, long count) throws Exception {
+		int hash = 0;
+		long start = System.nanoTime();
+		for (long i = 0; i < count; i++) {
+			Object result = operation.run();
+			hash += (result == null) ? 0 : System.identityHashCode(result);
+		}
+		long elapsed = System.nanoTime() - start;
+		sink += hash;
+		return elapsed;
+	}
+
+	/**
+	 * Returns the number of bytes allocated by the current thread, or -1 if
+	 * the JVM cannot count them.
+	 */
+	private static long allocatedBytes() {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if (threads instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean sunThreads = (com.sun.management.ThreadMXBean) threads;
+			if (sunThreads.isThreadAllocatedMemorySupported() && sunThreads.isThreadAllocatedMemoryEnabled()) {
+				return sunThreads.getThreadAllocatedBytes(Thread.currentThread().getId());
+			}
+		}
+		return -1;
+	}
+}
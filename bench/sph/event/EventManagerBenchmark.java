@@ -0,0 +1,94 @@
+/**
+ * <p><b>Copyright 2013 Juha Mäkilä and Sami Holck</b></p>
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at</p>
+ *
+ *     <a href="http://www.apache.org/licenses/LICENSE-2.0"
+ *     target="_new">http://www.apache.org/licenses/LICENSE-2.0</a>
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.</p>
+ */
+package sph.event;
+
+import sph.MicroBenchmark;
+
+/**
+ * Compares {@link CopyOnWriteEventManager} to {@link BasicEventManager}:
+ * calling the listeners of an event, and adding and removing a listener.
+ *
+ * <p>Run with the number of the listeners of the event as the argument, by
+ * default 4.</p>
+ *
+ * <p><strong>copyright &copy; Ville-Video 2013</strong></p>
+ *
+ * @version 0.1
+ * @since   17.10.2026
+ */
+public final class EventManagerBenchmark {
+
+	private static final String EVENT = "timeupdate";
+
+	private EventManagerBenchmark() {
+
+	}
+
+	/**
+	 * Runs the benchmark.
+	 *
+	 * @param  args the number of the listeners.
+	 * @throws Exception if the benchmark fails.
+	 */
+	public static void main(String[] args) throws Exception {
+		int size = (args.length > 0) ? Integer.parseInt(args[0]) : 4;
+		MicroBenchmark.printHeader("EventManager, " + size + " listeners");
+		measure("BasicEventManager", new BasicEventManager<String, Object, Object, CountingListener>(), size);
+		measure("CopyOnWriteEventManager", new CopyOnWriteEventManager<String, Object, Object, CountingListener>(), size);
+	}
+
+	private static void measure(String name, final EventManager<String, Object, Object, CountingListener> manager, int size) throws Exception {
+		final CountingListener[] listeners = new CountingListener[size + 1];
+		for (int i = 0; i < listeners.length; i++) {
+			listeners[i] = new CountingListener();
+		}
+		for (int i = 0; i < size; i++) {
+			manager.addListener(EVENT, listeners[i]);
+		}
+		final Object source = new Object();
+		MicroBenchmark.measure(name + ", callListeners", new MicroBenchmark.Operation() {
+			@Override
+			public Object run() {
+				manager.callListeners(EVENT, source, null);
+				return listeners[0];
+			}
+		});
+		MicroBenchmark.measure(name + ", add and remove", new MicroBenchmark.Operation() {
+			@Override
+			public Object run() {
+				manager.addListener(EVENT, listeners[listeners.length - 1]);
+				manager.removeListener(EVENT, listeners[listeners.length - 1]);
+				return listeners[0];
+			}
+		});
+	}
+
+	/**
+	 * Counts the calls.
+	 */
+	private static final class CountingListener implements EventListener<String, Object, Object> {
+
+		private static final long serialVersionUID = 1L;
+
+		int calls;
+
+		@Override
+		public void on(String event, Object source, Object data) {
+			this.calls++;
+		}
+	}
+}
@@ -0,0 +1,306 @@
+/**
+ * <p><b>Copyright 2013 Juha Mäkilä and Sami Holck</b></p>
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at</p>
+ * 
+ *     <a href="http://www.apache.org/licenses/LICENSE-2.0"
+ *     target="_new">http://www.apache.org/licenses/LICENSE-2.0</a>
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.</p>
+ */
+package edu.vserver.exercises.videoMcq;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * AnswerSheet holds the answers of a single student to a {@link CompiledExercise}.
+ *
+ * <p>The given answers are stored as bitmasks of the answer option numbers,
+ * one per question (see {@link CompiledExercise}). The sheet also keeps count
+ * of the unanswered questions of the whole exercise and of every time slot,
+ * so the unanswered queries are constant-time.</p>
+ *
+ * <p>The sheet also holds the time each question took to answer, from showing
+ * the question to the answer, when it is known.</p>
+ *
+ * <p><strong>copyright &copy; Ville-Video 2013</strong></p>
+ *
+ * @version 0.1
+ * @since   17.10.2026
+ */
+public final class AnswerSheet implements Serializable {
+
+	private static final long serialVersionUID = 2391064409838214077L;
+
+	private final CompiledExercise exercise;
+	private final long[] answers;
+	/**
+	 * the answer times in milliseconds by question position, 0 if unknown
+	 */
+	private final int[] answerTimes;
+	private final int[] slotUnanswered;
+	private int unanswered;
+
+	/**
+	 * Constructs an empty answer sheet for the given exercise.
+	 *
+	 * @param exercise the exercise to answer.
+	 */
+	public AnswerSheet(CompiledExercise exercise) {
+		this.exercise = exercise;
+		this.answers = new long[exercise.size()];
+		this.answerTimes = new int[exercise.size()];
+		this.slotUnanswered = new int[exercise.getTimeSlotCount()];
+		this.reset();
+	}
+
+	/**
+	 * Constructs an answer sheet for the given exercise holding the answers
+	 * given to the questions of a library.
+	 *
+	 * <p><strong class="Red">NOTE:</strong> The exercise must have been compiled
+	 * from the library (see {@link CompiledExercise#CompiledExercise(QuestionLibrary)}).</p>
+	 *
+	 * @param exercise the exercise to answer.
+	 * @param library the library holding the given answers.
+	 */
+	public AnswerSheet(CompiledExercise exercise, QuestionLibrary library) {
+		this(exercise);
+		for (int i = 0; i < exercise.size(); i++) {
+			long mask = 0L;
+			for (String answer : library.get(i).getGivenAnswers()) {
+				int option = exercise.indexOfOption(i, answer);
+				if (option >= 0) {
+					mask |= 1L << option;
+				}
+			}
+			this.setAnswer(i, mask);
+		}
+	}
+
+	/**
+	 * Constructs a copy of the given answer sheet.
+	 *
+	 * @param sheet the answer sheet to copy.
+	 */
+	private AnswerSheet(AnswerSheet sheet) {
+		this.exercise = sheet.exercise;
+		this.answers = sheet.answers.clone();
+		this.answerTimes = sheet.answerTimes.clone();
+		this.slotUnanswered = sheet.slotUnanswered.clone();
+		this.unanswered = sheet.unanswered;
+	}
+
+	/**
+	 * Returns the exercise this sheet answers.
+	 *
+	 * @return the exercise this sheet answers.
+	 */
+	public CompiledExercise getExercise() {
+		return this.exercise;
+	}
+
+	/**
+	 * Returns the given answer of the question at the given position.
+	 *
+	 * @param  index position of the question.
+	 * @return the bitmask of the given answer options, 0 if not answered.
+	 */
+	public long getAnswer(int index) {
+		return this.answers[index];
+	}
+
+	/**
+	 * Sets (Replaces) the given answer of the question at the given position.
+	 *
+	 * @param index position of the question.
+	 * @param mask the bitmask of the given answer options, 0 to clear the answer.
+	 */
+	public void setAnswer(int index, long mask) {
+		boolean wasAnswered = this.answers[index] != 0L;
+		this.answers[index] = mask;
+		boolean answered = mask != 0L;
+		if (!answered) {
+			this.answerTimes[index] = 0;
+		}
+		if (answered != wasAnswered) {
+			int delta = answered ? -1 : 1;
+			this.slotUnanswered[this.exercise.getSlotOf(index)] += delta;
+			this.unanswered += delta;
+		}
+	}
+
+	/**
+	 * Returns the time the question at the given position took to answer.
+	 *
+	 * @param  index position of the question.
+	 * @return the answer time in milliseconds, 0 if not known.
+	 */
+	public int getAnswerTime(int index) {
+		return this.answerTimes[index];
+	}
+
+	/**
+	 * Sets the time the question at the given position took to answer, from
+	 * showing the question to the answer. Clearing the answer clears the time.
+	 *
+	 * @param index position of the question.
+	 * @param millis the answer time in milliseconds, 0 if not known.
+	 */
+	public void setAnswerTime(int index, long millis) {
+		this.answerTimes[index] = (int) Math.max(0, Math.min(millis, Integer.MAX_VALUE));
+	}
+
+	/**
+	 * Indicates whether the question at the given position has been answered.
+	 *
+	 * @param  index position of the question.
+	 * @return true if the question has been answered.
+	 */
+	public boolean isAnswered(int index) {
+		return this.answers[index] != 0L;
+	}
+
+	/**
+	 * Indicates whether the given answer of the question at the given position
+	 * contains only correct answer options.
+	 *
+	 * @param  index position of the question.
+	 * @return true if no incorrect answer option was given.
+	 * @see    Question#isCorrectAnswer()
+	 */
+	public boolean isCorrectAnswer(int index) {
+		return (this.answers[index] & ~this.exercise.getCorrectMask(index)) == 0L;
+	}
+
+	/**
+	 * Returns the percentage of the correct given answers of the question at
+	 * the given position.
+	 *
+	 * @param  index position of the question.
+	 * @return the percentage of the correct given answers.
+	 * @see    Question#getQuestionScore()
+	 */
+	public double getQuestionScore(int index) {
+		long correct = this.exercise.getCorrectMask(index);
+		return (double) Long.bitCount(this.answers[index] & correct) / Long.bitCount(correct);
+	}
+
+	/**
+	 * Returns the percentage of the correct given answers for all the questions.
+	 *
+	 * @return the percentage of all the correct given answers.
+	 * @see    QuestionLibrary#getScore()
+	 */
+	public double getScore() {
+		double count = 0;
+		for (int i = 0; i < this.answers.length; i++) {
+			count += this.getQuestionScore(i);
+		}
+		return count / this.answers.length;
+	}
+
+	/**
+	 * Returns the number of the answered questions.
+	 *
+	 * @return the number of the answered questions.
+	 */
+	public int getAnsweredCount() {
+		return this.answers.length - this.unanswered;
+	}
+
+	/**
+	 * Checks if there are any unanswered questions.
+	 *
+	 * @return true if at least one question has not been answered.
+	 */
+	public boolean containsUnanswered() {
+		return this.unanswered > 0;
+	}
+
+	/**
+	 * Indicates whether the given time slot contains any questions that have
+	 * not yet been answered.
+	 *
+	 * @param  timeSlot the time slot in seconds.
+	 * @return true if at least one such a question exists; false otherwise.
+	 */
+	public boolean containsUnansweredInTimeSlot(int timeSlot) {
+		int slot = this.exercise.indexOfTimeSlot(timeSlot);
+		return slot >= 0 && this.slotUnanswered[slot] > 0;
+	}
+
+	/**
+	 * Returns the position of the first unanswered question in the given time
+	 * slot, or -1 if none was found.
+	 *
+	 * @param  timeSlot the time slot in seconds.
+	 * @return the position of the first unanswered question or -1.
+	 */
+	public int getFirstUnansweredInTimeSlot(int timeSlot) {
+		int slot = this.exercise.indexOfTimeSlot(timeSlot);
+		if (slot >= 0 && this.slotUnanswered[slot] > 0) {
+			for (int i = this.exercise.getSlotStart(slot); i < this.exercise.getSlotEnd(slot); i++) {
+				if (this.answers[i] == 0L) {
+					return i;
+				}
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the position of the next unanswered question after the given
+	 * one, or -1 if none was found. Fully answered time slots are skipped.
+	 *
+	 * @param  index position of the question whose unanswered successor is returned.
+	 * @return the position of the next unanswered question or -1.
+	 * @see    QuestionLibrary#getNextUnanswerded(Question)
+	 */
+	public int getNextUnanswered(int index) {
+		int i = index + 1;
+		if (this.unanswered == 0 || i >= this.answers.length) {
+			return -1;
+		}
+		for (int slot = this.exercise.getSlotOf(i); slot < this.slotUnanswered.length; slot++) {
+			int end = this.exercise.getSlotEnd(slot);
+			if (this.slotUnanswered[slot] > 0) {
+				for (; i < end; i++) {
+					if (this.answers[i] == 0L) {
+						return i;
+					}
+				}
+			}
+			i = end;
+		}
+		return -1;
+	}
+
+	/**
+	 * Clears all the given answers.
+	 */
+	public void reset() {
+		Arrays.fill(this.answers, 0L);
+		Arrays.fill(this.answerTimes, 0);
+		for (int slot = 0; slot < this.slotUnanswered.length; slot++) {
+			this.slotUnanswered[slot] = this.exercise.getSlotEnd(slot) - this.exercise.getSlotStart(slot);
+		}
+		this.unanswered = this.answers.length;
+	}
+
+	/**
+	 * Returns a copy of this answer sheet bound to the same exercise.
+	 *
+	 * @return a copy of this answer sheet.
+	 */
+	public AnswerSheet copy() {
+		return new AnswerSheet(this);
+	}
+}
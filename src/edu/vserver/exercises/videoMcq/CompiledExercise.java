@@ -0,0 +1,443 @@
+/**
+ * <p><b>Copyright 2013 Juha Mäkilä and Sami Holck</b></p>
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at</p>
+ * 
+ *     <a href="http://www.apache.org/licenses/LICENSE-2.0"
+ *     target="_new">http://www.apache.org/licenses/LICENSE-2.0</a>
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.</p>
+ */
+package edu.vserver.exercises.videoMcq;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * CompiledExercise is an immutable, time-sorted form of the {@link Question questions}
+ * of a video exercise.
+ *
+ * <p>The compiled exercise holds no answer state, so a single instance can be
+ * shared by all the sessions executing the same exercise. The answers of a
+ * single student are kept in an {@link AnswerSheet} bound to the exercise.</p>
+ *
+ * <p>The answer options of every question are numbered in the same order as
+ * {@link Question#getAllAnswers()} lists them (incorrect answers first and then
+ * the correct ones, without duplicates). Answers are referred to as bitmasks of
+ * these option numbers, so a question can have at most {@link #MAX_OPTIONS}
+ * options.</p>
+ *
+ * <p><strong>copyright &copy; Ville-Video 2013</strong></p>
+ *
+ * @version 0.1
+ * @since   17.10.2026
+ */
+public final class CompiledExercise implements Serializable {
+
+	private static final long serialVersionUID = -3405937426520157921L;
+
+	/**
+	 * The maximum number of answer options in a single question.
+	 */
+	public static final int MAX_OPTIONS = Long.SIZE;
+
+	private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	private final int[] times;
+	private final String[] questions;
+	private final String[] answerDescriptions;
+	private final String[][] options;
+	private final long[] correctMasks;
+	private final int[] slotTimes;
+	private final int[] slotStarts;
+	private final long fingerprint;
+
+	/**
+	 * Compiles the questions of the given library.
+	 *
+	 * @param  library the library to compile.
+	 * @throws IllegalArgumentException if a question has more than {@link #MAX_OPTIONS} answer options.
+	 */
+	public CompiledExercise(QuestionLibrary library) {
+		int size = library.size();
+		this.times = new int[size];
+		this.questions = new String[size];
+		this.answerDescriptions = new String[size];
+		this.options = new String[size][];
+		this.correctMasks = new long[size];
+		ArrayList<Integer> slots = library.getTimeSlots();
+		this.slotTimes = new int[slots.size()];
+		this.slotStarts = new int[slots.size()];
+		int slot = -1;
+		for (int i = 0; i < size; i++) {
+			Question q = library.get(i);
+			this.times[i] = q.getTime();
+			this.questions[i] = q.getQuestion();
+			this.answerDescriptions[i] = q.getAnswerDescription();
+			Map<String, Boolean> answers = new LinkedHashMap<String, Boolean>();
+			for (String answer : q.getIncorrectAnswers()) {
+				answers.put(answer, Boolean.FALSE);
+			}
+			for (String answer : q.getCorrectAnswers()) {
+				answers.put(answer, Boolean.TRUE);
+			}
+			if (answers.size() > MAX_OPTIONS) {
+				throw new IllegalArgumentException("Question " + (i + 1) + " has more than " + MAX_OPTIONS + " answer options");
+			}
+			this.options[i] = answers.keySet().toArray(new String[answers.size()]);
+			int option = 0;
+			for (Boolean correct : answers.values()) {
+				if (correct.booleanValue()) {
+					this.correctMasks[i] |= 1L << option;
+				}
+				option++;
+			}
+			if (slot < 0 || this.slotTimes[slot] != this.times[i]) {
+				slot++;
+				this.slotTimes[slot] = this.times[i];
+				this.slotStarts[slot] = i;
+			}
+		}
+		this.fingerprint = this.computeFingerprint();
+	}
+
+	/**
+	 * Computes a 64-bit FNV-1a hash of the questions, the answer options and
+	 * the correct answers of this exercise.
+	 *
+	 * @return the fingerprint of this exercise.
+	 */
+	private long computeFingerprint() {
+		long hash = FNV_OFFSET_BASIS;
+		hash = fnv(hash, this.times.length);
+		for (int i = 0; i < this.times.length; i++) {
+			hash = fnv(hash, this.times[i]);
+			hash = fnv(hash, this.questions[i]);
+			hash = fnv(hash, this.answerDescriptions[i]);
+			hash = fnv(hash, this.options[i].length);
+			for (String option : this.options[i]) {
+				hash = fnv(hash, option);
+			}
+			hash = fnv(hash, (int) (this.correctMasks[i] >>> 32));
+			hash = fnv(hash, (int) this.correctMasks[i]);
+		}
+		return hash;
+	}
+
+	private static long fnv(long hash, int value) {
+		for (int shift = 24; shift >= 0; shift -= 8) {
+			hash ^= (value >>> shift) & 0xff;
+			hash *= FNV_PRIME;
+		}
+		return hash;
+	}
+
+	private static long fnv(long hash, String value) {
+		if (value == null) {
+			return fnv(hash, -1);
+		}
+		hash = fnv(hash, value.length());
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			hash ^= c >>> 8;
+			hash *= FNV_PRIME;
+			hash ^= c & 0xff;
+			hash *= FNV_PRIME;
+		}
+		return hash;
+	}
+
+	/**
+	 * Returns a 64-bit fingerprint of the content of this exercise.
+	 *
+	 * <p>Exercises compiled from equal question libraries have equal
+	 * fingerprints. Submissions store the fingerprint to recognise the
+	 * exercise they were made to.</p>
+	 *
+	 * @return the fingerprint of this exercise.
+	 */
+	public long getFingerprint() {
+		return this.fingerprint;
+	}
+
+	/**
+	 * Returns the number of the questions in this exercise.
+	 *
+	 * @return the number of the questions in this exercise.
+	 */
+	public int size() {
+		return this.times.length;
+	}
+
+	/**
+	 * Returns the time of the question at the given position in seconds.
+	 *
+	 * @param  index position of the question.
+	 * @return the time of the question in video stream.
+	 */
+	public int getTime(int index) {
+		return this.times[index];
+	}
+
+	/**
+	 * Returns the text of the question at the given position.
+	 *
+	 * @param  index position of the question.
+	 * @return the question text.
+	 */
+	public String getQuestion(int index) {
+		return this.questions[index];
+	}
+
+	/**
+	 * Returns the description of the correct answer(s) of the question at the
+	 * given position.
+	 *
+	 * @param  index position of the question.
+	 * @return the description of the correct answer(s).
+	 */
+	public String getAnswerDescription(int index) {
+		return this.answerDescriptions[index];
+	}
+
+	/**
+	 * Indicates whether the question at the given position has a description
+	 * of the correct answer(s).
+	 *
+	 * @param  index position of the question.
+	 * @return true if the question contains a description text.
+	 */
+	public boolean containsAnswerDescription(int index) {
+		return this.answerDescriptions[index] != null && !this.answerDescriptions[index].equals("");
+	}
+
+	/**
+	 * Returns the number of the answer options of the question at the given position.
+	 *
+	 * @param  index position of the question.
+	 * @return the number of the answer options.
+	 */
+	public int getOptionCount(int index) {
+		return this.options[index].length;
+	}
+
+	/**
+	 * Returns the text of an answer option.
+	 *
+	 * @param  index position of the question.
+	 * @param  option number of the answer option.
+	 * @return the text of the answer option.
+	 */
+	public String getOption(int index, int option) {
+		return this.options[index][option];
+	}
+
+	/**
+	 * Returns the number of the answer option with the given text or -1 if
+	 * the question has no such option.
+	 *
+	 * @param  index position of the question.
+	 * @param  answer the text of the answer option.
+	 * @return the number of the answer option or -1.
+	 */
+	public int indexOfOption(int index, String answer) {
+		String[] opts = this.options[index];
+		for (int i = 0; i < opts.length; i++) {
+			if (opts[i].equals(answer)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the bitmask of the correct answer options of the question at
+	 * the given position.
+	 *
+	 * @param  index position of the question.
+	 * @return the bitmask of the correct answer options.
+	 */
+	public long getCorrectMask(int index) {
+		return this.correctMasks[index];
+	}
+
+	/**
+	 * Indicates whether more than one answer option can be selected for the
+	 * question at the given position. The exercises have no setting for it:
+	 * every question is answered with one option, also a question with more
+	 * than one correct option. The question window and the prompts prepared
+	 * in the player both show the question as this tells, so the way a
+	 * question is shown does not reveal how many of its options are correct.
+	 *
+	 * @param  index position of the question.
+	 * @return true if more than one option can be selected.
+	 */
+	public boolean isMultiSelect(int index) {
+		return false;
+	}
+
+	/**
+	 * Returns the number of the time slots in this exercise.
+	 *
+	 * @return the number of the time slots.
+	 */
+	public int getTimeSlotCount() {
+		return this.slotTimes.length;
+	}
+
+	/**
+	 * Returns the time of the time slot at the given position in seconds.
+	 *
+	 * @param  slot position of the time slot.
+	 * @return the time of the time slot in seconds.
+	 */
+	public int getTimeSlot(int slot) {
+		return this.slotTimes[slot];
+	}
+
+	/**
+	 * Returns the position of the first question of a time slot.
+	 *
+	 * @param  slot position of the time slot.
+	 * @return the position of the first question in the time slot.
+	 */
+	public int getSlotStart(int slot) {
+		return this.slotStarts[slot];
+	}
+
+	/**
+	 * Returns the position after the last question of a time slot.
+	 *
+	 * @param  slot position of the time slot.
+	 * @return the position after the last question in the time slot.
+	 */
+	public int getSlotEnd(int slot) {
+		return (slot + 1 < this.slotStarts.length) ? this.slotStarts[slot + 1] : this.times.length;
+	}
+
+	/**
+	 * Returns the position of the time slot at the given time or -1 if there
+	 * are no questions at that time.
+	 *
+	 * @param  timeSlot the time in seconds.
+	 * @return the position of the time slot or -1.
+	 */
+	public int indexOfTimeSlot(int timeSlot) {
+		int low = 0;
+		int high = this.slotTimes.length - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (this.slotTimes[mid] < timeSlot) {
+				low = mid + 1;
+			} else if (this.slotTimes[mid] > timeSlot) {
+				high = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the position of the time slot holding the question at the given position.
+	 *
+	 * @param  index position of the question.
+	 * @return the position of the time slot of the question.
+	 */
+	public int getSlotOf(int index) {
+		return this.indexOfTimeSlot(this.times[index]);
+	}
+
+	/**
+	 * Returns a sorted list of the time slots in this exercise.
+	 *
+	 * @return a sorted list of the time slots in seconds.
+	 */
+	public ArrayList<Integer> getTimeSlots() {
+		ArrayList<Integer> timeSlots = new ArrayList<Integer>(this.slotTimes.length);
+		for (int time : this.slotTimes) {
+			timeSlots.add(time);
+		}
+		return timeSlots;
+	}
+
+	/**
+	 * Builds a new {@link QuestionLibrary question library} holding the questions
+	 * of this exercise and the answers in the given answer sheet.
+	 *
+	 * @param  sheet the answers to copy to the questions, or null for none.
+	 * @return a new question library.
+	 */
+	public QuestionLibrary toQuestionLibrary(AnswerSheet sheet) {
+		QuestionLibrary library = new QuestionLibrary();
+		for (int i = 0; i < this.size(); i++) {
+			ArrayList<String> correct = new ArrayList<String>();
+			ArrayList<String> incorrect = new ArrayList<String>();
+			ArrayList<String> given = new ArrayList<String>();
+			long mask = (sheet == null) ? 0L : sheet.getAnswer(i);
+			for (int o = 0; o < this.options[i].length; o++) {
+				if ((this.correctMasks[i] & (1L << o)) != 0) {
+					correct.add(this.options[i][o]);
+				} else {
+					incorrect.add(this.options[i][o]);
+				}
+				if ((mask & (1L << o)) != 0) {
+					given.add(this.options[i][o]);
+				}
+			}
+			Question q = new Question(this.times[i], this.questions[i], correct, this.answerDescriptions[i], incorrect);
+			if (!given.isEmpty()) {
+				q.setGivenAnswers(given);
+			}
+			library.add(q);
+		}
+		return library;
+	}
+
+	/**
+	 * Returns a hash code derived from the fingerprint of this exercise.
+	 *
+	 * @return the hash code of this exercise.
+	 * @see    java.lang.Object#hashCode()
+	 */
+	@Override
+	public int hashCode() {
+		return (int) (this.fingerprint ^ (this.fingerprint >>> 32));
+	}
+
+	/**
+	 * Compares the content of this exercise to another exercise: the
+	 * fingerprints first and then the questions, the answer options and the
+	 * correct answers.
+	 *
+	 * @param  obj the object to compare to.
+	 * @return true if the exercises have equal content.
+	 * @see    java.lang.Object#equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof CompiledExercise)) {
+			return false;
+		}
+		CompiledExercise other = (CompiledExercise) obj;
+		return this.fingerprint == other.fingerprint
+				&& Arrays.equals(this.times, other.times)
+				&& Arrays.equals(this.questions, other.questions)
+				&& Arrays.equals(this.answerDescriptions, other.answerDescriptions)
+				&& Arrays.deepEquals(this.options, other.options)
+				&& Arrays.equals(this.correctMasks, other.correctMasks);
+	}
+}
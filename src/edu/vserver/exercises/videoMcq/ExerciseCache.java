@@ -0,0 +1,282 @@
+/**
+ * <p><b>Copyright 2013 Juha Mäkilä and Sami Holck</b></p>
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at</p>
+ * 
+ *     <a href="http://www.apache.org/licenses/LICENSE-2.0"
+ *     target="_new">http://www.apache.org/licenses/LICENSE-2.0</a>
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.</p>
+ */
+package edu.vserver.exercises.videoMcq;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import edu.vserver.exercises.model.ExerciseException;
+
+/**
+ * ExerciseCache is a bounded cache of parsed exercises keyed by a SHA-256
+ * digest of the stored exercise data.
+ *
+ * <p>The cache holds only immutable data (the exercise settings and the
+ * {@link CompiledExercise compiled exercise}), so the cached exercises are shared
+ * by all the sessions opening the same exercise. Concurrent loads of the same
+ * data parse it only once. The least recently used exercise is evicted when
+ * the cache is full.</p>
+ *
+ * <p><strong>copyright &copy; Ville-Video 2013</strong></p>
+ *
+ * @version 0.1
+ * @since   17.10.2026
+ */
+public final class ExerciseCache {
+
+	private final int maxSize;
+	private final Map<Key, FutureTask<CachedExercise>> entries;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+
+	/**
+	 * Constructs an empty cache.
+	 *
+	 * @param maxSize the maximum number of the cached exercises.
+	 */
+	ExerciseCache(int maxSize) {
+		this.maxSize = maxSize;
+		this.entries = new LinkedHashMap<Key, FutureTask<CachedExercise>>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 5398426519442880611L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, FutureTask<CachedExercise>> eldest) {
+				if (size() > ExerciseCache.this.maxSize) {
+					evictions.incrementAndGet();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Returns the cache key of the given exercise data.
+	 *
+	 * @param  data the stored exercise data.
+	 * @return the cache key of the data.
+	 */
+	static Key keyOf(byte[] data) {
+		try {
+			return new Key(MessageDigest.getInstance("SHA-256").digest(data));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+
+	/**
+	 * Returns the cached exercise with the given key, loading and caching it
+	 * with the given loader if it is not cached.
+	 *
+	 * <p>The exercise is loaded only once however many threads ask for it
+	 * at the same time: the first thread runs the loader while the others
+	 * wait for its result. A failed load is not cached.</p>
+	 *
+	 * @param  key the cache key.
+	 * @param  loader the loader parsing the exercise data.
+	 * @return the cached exercise.
+	 * @throws ExerciseException if the loader fails or the wait is interrupted.
+	 */
+	CachedExercise get(Key key, final Callable<VideoMcqExerciseData> loader) throws ExerciseException {
+		FutureTask<CachedExercise> entry;
+		boolean load = false;
+		synchronized (this.entries) {
+			entry = this.entries.get(key);
+			if (entry == null) {
+				entry = new FutureTask<CachedExercise>(new Callable<CachedExercise>() {
+					@Override
+					public CachedExercise call() throws Exception {
+						return new CachedExercise(loader.call());
+					}
+				});
+				this.entries.put(key, entry);
+				load = true;
+			}
+		}
+		if (load) {
+			this.misses.incrementAndGet();
+			entry.run();
+		} else {
+			this.hits.incrementAndGet();
+		}
+		try {
+			return entry.get();
+		} catch (ExecutionException e) {
+			remove(key, entry);
+			Throwable cause = e.getCause();
+			if (cause instanceof ExerciseException) {
+				throw (ExerciseException) cause;
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new ExerciseException(ExerciseException.ErrorType.EXER_LOAD_ERROR, cause);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ExerciseException(ExerciseException.ErrorType.EXER_LOAD_ERROR, e);
+		}
+	}
+
+	/**
+	 * Removes the given entry if it is still cached with the given key.
+	 *
+	 * @param key the cache key.
+	 * @param entry the entry to remove.
+	 */
+	private void remove(Key key, FutureTask<CachedExercise> entry) {
+		synchronized (this.entries) {
+			if (this.entries.get(key) == entry) {
+				this.entries.remove(key);
+			}
+		}
+	}
+
+	/**
+	 * Removes all the cached exercises.
+	 */
+	public void clear() {
+		synchronized (this.entries) {
+			this.entries.clear();
+		}
+	}
+
+	/**
+	 * Returns the number of the cached exercises.
+	 *
+	 * @return the number of the cached exercises.
+	 */
+	public int size() {
+		synchronized (this.entries) {
+			return this.entries.size();
+		}
+	}
+
+	/**
+	 * Returns the maximum number of the cached exercises.
+	 *
+	 * @return the maximum number of the cached exercises.
+	 */
+	public int getMaxSize() {
+		return this.maxSize;
+	}
+
+	/**
+	 * Returns the number of the lookups that found a cached exercise.
+	 *
+	 * @return the number of the cache hits.
+	 */
+	public long getHitCount() {
+		return this.hits.get();
+	}
+
+	/**
+	 * Returns the number of the lookups that did not find a cached exercise.
+	 *
+	 * @return the number of the cache misses.
+	 */
+	public long getMissCount() {
+		return this.misses.get();
+	}
+
+	/**
+	 * Returns the number of the exercises evicted from the full cache.
+	 *
+	 * @return the number of the evictions.
+	 */
+	public long getEvictionCount() {
+		return this.evictions.get();
+	}
+
+	/**
+	 * Returns a string representation of the cache statistics.
+	 *
+	 * @return a string representation of this cache.
+	 * @see    java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "ExerciseCache [size=" + size() + ", maxSize=" + maxSize + ", hits=" + hits + ", misses=" + misses
+				+ ", evictions=" + evictions + "]";
+	}
+
+	/**
+	 * Digest of stored exercise data.
+	 */
+	static final class Key {
+
+		private final byte[] digest;
+		private final int hash;
+
+		private Key(byte[] digest) {
+			this.digest = digest;
+			this.hash = Arrays.hashCode(digest);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Key && Arrays.equals(this.digest, ((Key) obj).digest);
+		}
+	}
+
+	/**
+	 * Immutable parsed exercise.
+	 */
+	static final class CachedExercise {
+
+		private final String videoURL;
+		private final String mimeType;
+		private final String exerName;
+		private final boolean sliderEnabled;
+		private final boolean instantResponse;
+		private final CompiledExercise exercise;
+
+		private CachedExercise(VideoMcqExerciseData exerData) {
+			this.videoURL = exerData.getVideoURL();
+			this.mimeType = exerData.getMimeType();
+			this.exerName = exerData.getExerName();
+			this.sliderEnabled = exerData.isSliderEnabled();
+			this.instantResponse = exerData.isInstantResponse();
+			this.exercise = exerData.getCompiledExercise();
+		}
+
+		/**
+		 * Returns new exercise data backed by the shared compiled exercise.
+		 *
+		 * @return new exercise data.
+		 */
+		VideoMcqExerciseData newExerciseData() {
+			return new VideoMcqExerciseData(this.videoURL, this.mimeType, this.exerName, this.exercise,
+					this.sliderEnabled, this.instantResponse);
+		}
+	}
+}
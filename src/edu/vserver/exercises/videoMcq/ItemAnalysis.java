@@ -0,0 +1,353 @@
+/**
+ * <p><b>Copyright 2013 Juha Mäkilä and Sami Holck</b></p>
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at</p>
+ * 
+ *     <a href="http://www.apache.org/licenses/LICENSE-2.0"
+ *     target="_new">http://www.apache.org/licenses/LICENSE-2.0</a>
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.</p>
+ */
+package edu.vserver.exercises.videoMcq;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import edu.vserver.exercises.model.StatisticalSubmissionInfo;
+import sph.QuantileSketch;
+
+/**
+ * ItemAnalysis accumulates the submissions of an exercise into primitive
+ * counters from which the {@link ItemStatistics item statistics} are computed.
+ *
+ * <p>Each submission is read once. Only the answer bitmasks are used, so the
+ * submissions do not need to be {@link VideoMcqSubmissionInfo#bind(CompiledExercise) bound}
+ * to the exercise. Submissions made to a different version of the exercise
+ * (see {@link CompiledExercise#getFingerprint()}) are counted as skipped. The
+ * memory used depends only on the number of the questions and the answer
+ * options, not on the number of the submissions: the distributions of the
+ * scores and of the answer times of each question are kept in
+ * {@link QuantileSketch quantile sketches}.</p>
+ *
+ * <p>Large submission lists are {@link #analyze(CompiledExercise, List) analyzed}
+ * in parallel: the list is split into ranges that are accumulated in separate
+ * counters and merged.</p>
+ *
+ * <p><strong>copyright &copy; Ville-Video 2013</strong></p>
+ *
+ * @version 0.1
+ * @since   17.10.2026
+ */
+public final class ItemAnalysis implements Serializable {
+
+	private static final long serialVersionUID = 2317945095386720428L;
+
+	/**
+	 * the number of the score histogram bins
+	 */
+	public static final int HISTOGRAM_BINS = 10;
+
+	/**
+	 * the number of the submissions accumulated in one task
+	 */
+	private static final int TASK_SIZE = 512;
+
+	private static ForkJoinPool pool;
+
+	private final long fingerprint;
+	private final int questions;
+	private final int[] optionOffsets;
+	private final long[] correctMasks;
+
+	private int submissions;
+	private int skipped;
+	private double scoreSum;
+	private double scoreSquareSum;
+	private final int[] answered;
+	private final int[] correct;
+	private final double[] correctScoreSum;
+	private final int[] optionCounts;
+	private final int[] histogram = new int[HISTOGRAM_BINS];
+	private final QuantileSketch scores = new QuantileSketch();
+	private final QuantileSketch[] answerTimes;
+
+	/**
+	 * Constructs empty counters for the given exercise.
+	 *
+	 * @param exercise the analyzed exercise.
+	 */
+	public ItemAnalysis(CompiledExercise exercise) {
+		this.fingerprint = exercise.getFingerprint();
+		this.questions = exercise.size();
+		this.optionOffsets = new int[this.questions + 1];
+		this.correctMasks = new long[this.questions];
+		for (int q = 0; q < this.questions; q++) {
+			this.optionOffsets[q + 1] = this.optionOffsets[q] + exercise.getOptionCount(q);
+			this.correctMasks[q] = exercise.getCorrectMask(q);
+		}
+		this.answered = new int[this.questions];
+		this.correct = new int[this.questions];
+		this.correctScoreSum = new double[this.questions];
+		this.optionCounts = new int[this.optionOffsets[this.questions]];
+		this.answerTimes = newSketches(this.questions);
+	}
+
+	/**
+	 * Constructs empty counters with the same layout as the given counters.
+	 */
+	private ItemAnalysis(ItemAnalysis layout) {
+		this.fingerprint = layout.fingerprint;
+		this.questions = layout.questions;
+		this.optionOffsets = layout.optionOffsets;
+		this.correctMasks = layout.correctMasks;
+		this.answered = new int[this.questions];
+		this.correct = new int[this.questions];
+		this.correctScoreSum = new double[this.questions];
+		this.optionCounts = new int[this.optionOffsets[this.questions]];
+		this.answerTimes = newSketches(this.questions);
+	}
+
+	private static QuantileSketch[] newSketches(int count) {
+		QuantileSketch[] sketches = new QuantileSketch[count];
+		for (int i = 0; i < count; i++) {
+			sketches[i] = new QuantileSketch();
+		}
+		return sketches;
+	}
+
+	/**
+	 * Accumulates the given submissions in parallel and returns the item statistics.
+	 *
+	 * @param  exercise the analyzed exercise.
+	 * @param  submissions the submissions to the exercise.
+	 * @return the item statistics of the submissions.
+	 */
+	public static ItemStatistics analyze(CompiledExercise exercise, List<StatisticalSubmissionInfo<VideoMcqSubmissionInfo>> submissions) {
+		return accumulate(exercise, submissions).getStatistics();
+	}
+
+	/**
+	 * Accumulates the given submissions in parallel.
+	 *
+	 * @param  exercise the analyzed exercise.
+	 * @param  submissions the submissions to the exercise.
+	 * @return the counters of the submissions.
+	 */
+	public static ItemAnalysis accumulate(CompiledExercise exercise, List<StatisticalSubmissionInfo<VideoMcqSubmissionInfo>> submissions) {
+		ItemAnalysis layout = new ItemAnalysis(exercise);
+		if (!(submissions instanceof RandomAccess)) {
+			submissions = new ArrayList<StatisticalSubmissionInfo<VideoMcqSubmissionInfo>>(submissions);
+		}
+		if (submissions.size() <= TASK_SIZE) {
+			layout.addAll(submissions, 0, submissions.size());
+			return layout;
+		}
+		return getPool().invoke(new AnalysisTask(layout, submissions, 0, submissions.size()));
+	}
+
+	/**
+	 * Returns the pool the statistics tasks are run in.
+	 */
+	static synchronized ForkJoinPool getPool() {
+		if (pool == null) {
+			pool = new ForkJoinPool();
+		}
+		return pool;
+	}
+
+	/**
+	 * Accumulates a range of the given submissions.
+	 *
+	 * @param submissions the submissions to the exercise.
+	 * @param from the position of the first accumulated submission.
+	 * @param to the position after the last accumulated submission.
+	 */
+	void addAll(List<StatisticalSubmissionInfo<VideoMcqSubmissionInfo>> submissions, int from, int to) {
+		for (int i = from; i < to; i++) {
+			StatisticalSubmissionInfo<VideoMcqSubmissionInfo> info = submissions.get(i);
+			this.add((info != null) ? info.getSubmissionData() : null);
+		}
+	}
+
+	/**
+	 * Accumulates a submission. Submissions to a different version of the
+	 * exercise are counted as skipped.
+	 *
+	 * @param  subm the submission, or null.
+	 * @return true if the submission was accumulated.
+	 */
+	public synchronized boolean add(VideoMcqSubmissionInfo subm) {
+		if (subm == null || subm.getFingerprint() != this.fingerprint || subm.getQuestionCount() != this.questions) {
+			this.skipped++;
+			return false;
+		}
+		double score = 0;
+		for (int q = 0; q < this.questions; q++) {
+			long answer = subm.getAnswer(q);
+			long correctMask = this.correctMasks[q];
+			score += (correctMask == 0L) ? 0 : (double) Long.bitCount(answer & correctMask) / Long.bitCount(correctMask);
+		}
+		if (this.questions > 0) {
+			score /= this.questions;
+		}
+		this.submissions++;
+		this.scoreSum += score;
+		this.scoreSquareSum += score * score;
+		this.histogram[Math.min((int) (score * HISTOGRAM_BINS), HISTOGRAM_BINS - 1)]++;
+		this.scores.add(score);
+		for (int q = 0; q < this.questions; q++) {
+			long answer = subm.getAnswer(q);
+			if (answer == 0L) {
+				continue;
+			}
+			this.answered[q]++;
+			int answerTime = subm.getAnswerTime(q);
+			if (answerTime > 0) {
+				this.answerTimes[q].add(answerTime);
+			}
+			if ((answer & ~this.correctMasks[q]) == 0L) {
+				this.correct[q]++;
+				this.correctScoreSum[q] += score;
+			}
+			int offset = this.optionOffsets[q];
+			int count = this.optionOffsets[q + 1] - offset;
+			for (int o = 0; o < count; o++) {
+				if ((answer & (1L << o)) != 0L) {
+					this.optionCounts[offset + o]++;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Adds the counters of another analysis of the same exercise to these counters.
+	 *
+	 * @param  other the other analysis.
+	 * @return these counters.
+	 * @throws IllegalArgumentException if the other analysis is of a different exercise.
+	 */
+	public synchronized ItemAnalysis merge(ItemAnalysis other) {
+		if (other.fingerprint != this.fingerprint || other.questions != this.questions) {
+			throw new IllegalArgumentException("the analyses are of different exercises");
+		}
+		synchronized (other) {
+			this.submissions += other.submissions;
+			this.skipped += other.skipped;
+			this.scoreSum += other.scoreSum;
+			this.scoreSquareSum += other.scoreSquareSum;
+			for (int q = 0; q < this.questions; q++) {
+				this.answered[q] += other.answered[q];
+				this.correct[q] += other.correct[q];
+				this.correctScoreSum[q] += other.correctScoreSum[q];
+				this.answerTimes[q].merge(other.answerTimes[q]);
+			}
+			this.scores.merge(other.scores);
+			for (int i = 0; i < this.optionCounts.length; i++) {
+				this.optionCounts[i] += other.optionCounts[i];
+			}
+			for (int i = 0; i < HISTOGRAM_BINS; i++) {
+				this.histogram[i] += other.histogram[i];
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * Returns the fingerprint of the analyzed exercise.
+	 *
+	 * @return the fingerprint of the analyzed exercise.
+	 */
+	public long getFingerprint() {
+		return this.fingerprint;
+	}
+
+	/**
+	 * Returns the number of the accumulated submissions.
+	 *
+	 * @return the number of the accumulated submissions.
+	 */
+	public synchronized int getSubmissionCount() {
+		return this.submissions;
+	}
+
+	/**
+	 * Computes the item statistics of the accumulated submissions.
+	 *
+	 * @return the item statistics.
+	 */
+	public synchronized ItemStatistics getStatistics() {
+		int n = this.submissions;
+		double mean = (n > 0) ? this.scoreSum / n : 0;
+		double deviation = (n > 0) ? Math.sqrt(Math.max(0, this.scoreSquareSum / n - mean * mean)) : 0;
+		double[] difficulty = new double[this.questions];
+		double[] discrimination = new double[this.questions];
+		double[] answeredRates = new double[this.questions];
+		double[] optionRates = new double[this.optionCounts.length];
+		QuantileSketch[] answerTimes = new QuantileSketch[this.questions];
+		for (int q = 0; q < this.questions; q++) {
+			int right = this.correct[q];
+			int wrong = n - right;
+			difficulty[q] = (n > 0) ? (double) right / n : Double.NaN;
+			answeredRates[q] = (n > 0) ? (double) this.answered[q] / n : Double.NaN;
+			if (right == 0 || wrong == 0 || deviation == 0) {
+				discrimination[q] = Double.NaN;
+			} else {
+				// point-biserial correlation of the question with the total score
+				double rightMean = this.correctScoreSum[q] / right;
+				double wrongMean = (this.scoreSum - this.correctScoreSum[q]) / wrong;
+				discrimination[q] = (rightMean - wrongMean) / deviation * Math.sqrt(difficulty[q] * (1 - difficulty[q]));
+			}
+			for (int i = this.optionOffsets[q]; i < this.optionOffsets[q + 1]; i++) {
+				optionRates[i] = (n > 0) ? (double) this.optionCounts[i] / n : Double.NaN;
+			}
+			answerTimes[q] = this.answerTimes[q].copy();
+		}
+		return new ItemStatistics(this.fingerprint, n, this.skipped, mean, deviation, difficulty, discrimination,
+				answeredRates, this.optionOffsets, optionRates, this.histogram.clone(), this.scores.copy(), answerTimes);
+	}
+
+	/**
+	 * Accumulates a range of submissions, splitting large ranges into subtasks.
+	 */
+	private static final class AnalysisTask extends RecursiveTask<ItemAnalysis> {
+
+		private static final long serialVersionUID = -6329271458915316206L;
+
+		private final ItemAnalysis layout;
+		private final List<StatisticalSubmissionInfo<VideoMcqSubmissionInfo>> submissions;
+		private final int from;
+		private final int to;
+
+		AnalysisTask(ItemAnalysis layout, List<StatisticalSubmissionInfo<VideoMcqSubmissionInfo>> submissions, int from, int to) {
+			this.layout = layout;
+			this.submissions = submissions;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected ItemAnalysis compute() {
+			if (this.to - this.from <= TASK_SIZE) {
+				ItemAnalysis counters = new ItemAnalysis(this.layout);
+				counters.addAll(this.submissions, this.from, this.to);
+				return counters;
+			}
+			int middle = (this.from + this.to) >>> 1;
+			AnalysisTask left = new AnalysisTask(this.layout, this.submissions, this.from, middle);
+			left.fork();
+			ItemAnalysis right = new AnalysisTask(this.layout, this.submissions, middle, this.to).compute();
+			return left.join().merge(right);
+		}
+	}
+}
@@ -0,0 +1,242 @@
+/**
+ * <p><b>Copyright 2013 Juha Mäkilä and Sami Holck</b></p>
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at</p>
+ * 
+ *     <a href="http://www.apache.org/licenses/LICENSE-2.0"
+ *     target="_new">http://www.apache.org/licenses/LICENSE-2.0</a>
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.</p>
+ */
+package edu.vserver.exercises.videoMcq;
+
+import java.io.Serializable;
+
+import sph.QuantileSketch;
+
+/**
+ * ItemStatistics holds the item analysis of the submissions to an exercise.
+ *
+ * <p>A question is answered correctly when at least one option was selected
+ * and all the selected options are correct. The score of a submission is the
+ * percentage of the correct given answers (see {@link AnswerSheet#getScore()}).
+ * Rates are relative to the number of the analyzed submissions, and are
+ * {@link Double#NaN} when there are no submissions. The score and the answer
+ * time quantiles are estimates (see {@link QuantileSketch}).</p>
+ *
+ * <p><strong>copyright &copy; Ville-Video 2013</strong></p>
+ *
+ * @version 0.1
+ * @since   17.10.2026
+ * @see     ItemAnalysis
+ */
+public final class ItemStatistics implements Serializable {
+
+	private static final long serialVersionUID = -8461262034937214150L;
+
+	private final long fingerprint;
+	private final int submissions;
+	private final int skipped;
+	private final double meanScore;
+	private final double scoreDeviation;
+	private final double[] difficulty;
+	private final double[] discrimination;
+	private final double[] answeredRates;
+	private final int[] optionOffsets;
+	private final double[] optionRates;
+	private final int[] histogram;
+	private final QuantileSketch scores;
+	private final QuantileSketch[] answerTimes;
+
+	ItemStatistics(long fingerprint, int submissions, int skipped, double meanScore, double scoreDeviation,
+			double[] difficulty, double[] discrimination, double[] answeredRates, int[] optionOffsets,
+			double[] optionRates, int[] histogram, QuantileSketch scores, QuantileSketch[] answerTimes) {
+		this.fingerprint = fingerprint;
+		this.submissions = submissions;
+		this.skipped = skipped;
+		this.meanScore = meanScore;
+		this.scoreDeviation = scoreDeviation;
+		this.difficulty = difficulty;
+		this.discrimination = discrimination;
+		this.answeredRates = answeredRates;
+		this.optionOffsets = optionOffsets;
+		this.optionRates = optionRates;
+		this.histogram = histogram;
+		this.scores = scores;
+		this.answerTimes = answerTimes;
+	}
+
+	/**
+	 * Returns the fingerprint of the analyzed exercise.
+	 *
+	 * @return the fingerprint of the analyzed exercise.
+	 */
+	public long getFingerprint() {
+		return this.fingerprint;
+	}
+
+	/**
+	 * Returns the number of the analyzed submissions.
+	 *
+	 * @return the number of the analyzed submissions.
+	 */
+	public int getSubmissionCount() {
+		return this.submissions;
+	}
+
+	/**
+	 * Returns the number of the submissions skipped because they were made to
+	 * a different version of the exercise.
+	 *
+	 * @return the number of the skipped submissions.
+	 */
+	public int getSkippedCount() {
+		return this.skipped;
+	}
+
+	/**
+	 * Returns the number of the questions.
+	 *
+	 * @return the number of the questions.
+	 */
+	public int getQuestionCount() {
+		return this.difficulty.length;
+	}
+
+	/**
+	 * Returns the mean score of the submissions.
+	 *
+	 * @return the mean score between 0 and 1.
+	 */
+	public double getMeanScore() {
+		return this.meanScore;
+	}
+
+	/**
+	 * Returns the standard deviation of the scores of the submissions.
+	 *
+	 * @return the standard deviation of the scores.
+	 */
+	public double getScoreDeviation() {
+		return this.scoreDeviation;
+	}
+
+	/**
+	 * Returns an estimate of the score at the given quantile.
+	 *
+	 * @param  fraction the quantile between 0 and 1, e.g. 0.9 for the 90th percentile.
+	 * @return the score between 0 and 1, or {@link Double#NaN} if there are no submissions.
+	 */
+	public double getScoreQuantile(double fraction) {
+		return this.scores.getQuantile(fraction);
+	}
+
+	/**
+	 * Returns the difficulty index of a question: the rate of the correct answers.
+	 *
+	 * @param  question position of the question.
+	 * @return the rate of the correct answers, a low value meaning a difficult question.
+	 */
+	public double getDifficulty(int question) {
+		return this.difficulty[question];
+	}
+
+	/**
+	 * Returns the discrimination index of a question: the point-biserial
+	 * correlation between answering the question correctly and the score.
+	 *
+	 * @param  question position of the question.
+	 * @return the correlation between -1 and 1, or {@link Double#NaN} if all
+	 *         or none of the submissions answered the question correctly.
+	 */
+	public double getDiscrimination(int question) {
+		return this.discrimination[question];
+	}
+
+	/**
+	 * Returns the rate of the submissions that answered a question.
+	 *
+	 * @param  question position of the question.
+	 * @return the rate of the submissions that answered the question.
+	 */
+	public double getAnsweredRate(int question) {
+		return this.answeredRates[question];
+	}
+
+	/**
+	 * Returns the number of the answers to a question whose answer time is known.
+	 *
+	 * @param  question position of the question.
+	 * @return the number of the timed answers.
+	 */
+	public long getAnswerTimeCount(int question) {
+		return this.answerTimes[question].getCount();
+	}
+
+	/**
+	 * Returns an estimate of the time it took to answer a question at the
+	 * given quantile.
+	 *
+	 * @param  question position of the question.
+	 * @param  fraction the quantile between 0 and 1, e.g. 0.5 for the median.
+	 * @return the answer time in milliseconds, or {@link Double#NaN} if no
+	 *         answer time is known.
+	 */
+	public double getAnswerTimeQuantile(int question, double fraction) {
+		return this.answerTimes[question].getQuantile(fraction);
+	}
+
+	/**
+	 * Returns the number of the answer options of a question.
+	 *
+	 * @param  question position of the question.
+	 * @return the number of the answer options.
+	 */
+	public int getOptionCount(int question) {
+		return this.optionOffsets[question + 1] - this.optionOffsets[question];
+	}
+
+	/**
+	 * Returns the selection rate of an answer option. For an incorrect option
+	 * this is the rate of the distractor.
+	 *
+	 * @param  question position of the question.
+	 * @param  option number of the answer option.
+	 * @return the rate of the submissions that selected the option.
+	 */
+	public double getOptionRate(int question, int option) {
+		if (option < 0 || option >= getOptionCount(question)) {
+			throw new IndexOutOfBoundsException("Option: " + option + ", Options: " + getOptionCount(question));
+		}
+		return this.optionRates[this.optionOffsets[question] + option];
+	}
+
+	/**
+	 * Returns the histogram of the scores. Bin <code>i</code> counts the scores
+	 * from <code>i / bins</code> up to (but excluding) <code>(i + 1) / bins</code>;
+	 * the last bin includes the full score.
+	 *
+	 * @return the number of the submissions in each of the {@link ItemAnalysis#HISTOGRAM_BINS} bins.
+	 */
+	public int[] getScoreHistogram() {
+		return this.histogram.clone();
+	}
+
+	/**
+	 * Returns a string representation of the statistics summary.
+	 *
+	 * @return a string representation of these statistics.
+	 * @see    java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "ItemStatistics [questions=" + getQuestionCount() + ", submissions=" + submissions + ", skipped=" + skipped
+				+ ", meanScore=" + meanScore + "]";
+	}
+}
@@ -0,0 +1,262 @@
+/**
+ * <p><b>Copyright 2013 Juha Mäkilä and Sami Holck</b></p>
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at</p>
+ * 
+ *     <a href="http://www.apache.org/licenses/LICENSE-2.0"
+ *     target="_new">http://www.apache.org/licenses/LICENSE-2.0</a>
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.</p>
+ */
+package edu.vserver.exercises.videoMcq;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.vserver.exercises.model.StatisticalSubmissionInfo;
+
+/**
+ * ItemStatisticsRegistry keeps the {@link ItemAnalysis item analysis} of each
+ * exercise up to date as the submissions arrive.
+ *
+ * <p>The analyses are keyed by the {@link CompiledExercise#getFingerprint()
+ * fingerprint} of the exercise and shared by all the sessions, so a submission
+ * is {@link #record(CompiledExercise, VideoMcqSubmissionInfo) recorded} into
+ * the analysis once and the statistics are not recomputed each time they are
+ * viewed. Only the normal submissions of the students are recorded.</p>
+ *
+ * <p>The registry lives as long as the application: an analysis is trusted
+ * only after it has been built from the stored submissions, and only while
+ * it has counted the same submissions as there are stored. The submissions
+ * are compared by an order independent checksum of their summaries (the
+ * fingerprint, the score and the numbers of the questions and the given
+ * answers), which is computed without decoding the stored answers. The
+ * least recently used analysis is evicted when the registry is full.</p>
+ *
+ * <p>The analyses are not persisted: after a restart or an eviction the
+ * first {@link #getStatistics(CompiledExercise, List) statistics} of an
+ * exercise rebuild its analysis. Viewing the statistics is not constant
+ * time either, as the checksum is a pass over all the stored submissions.
+ * The pass reads only the summaries the submission store has already
+ * loaded; with 10000 submissions of 20 questions it takes about 0.5 ms
+ * against about 60 ms for a rebuild (see ItemStatisticsBenchmark in the
+ * bench folder).</p>
+ *
+ * <p><strong>copyright &copy; Ville-Video 2013</strong></p>
+ *
+ * @version 0.1
+ * @since   17.10.2026
+ */
+public final class ItemStatisticsRegistry {
+
+	/**
+	 * The analyses of the exercises shared by all the sessions.
+	 */
+	static final ItemStatisticsRegistry INSTANCE = new ItemStatisticsRegistry(256);
+
+	private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	private final int maxSize;
+	private final Map<Long, Snapshot> entries;
+
+	/**
+	 * Constructs an empty registry.
+	 *
+	 * @param maxSize the maximum number of the registered exercises.
+	 */
+	ItemStatisticsRegistry(int maxSize) {
+		this.maxSize = maxSize;
+		this.entries = new LinkedHashMap<Long, Snapshot>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = -3807435915632467329L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, Snapshot> eldest) {
+				return size() > ItemStatisticsRegistry.this.maxSize;
+			}
+		};
+	}
+
+	/**
+	 * Records a new submission into the analysis of its exercise.
+	 *
+	 * @param exercise the answered exercise.
+	 * @param subm the submission.
+	 */
+	public void record(CompiledExercise exercise, VideoMcqSubmissionInfo subm) {
+		Snapshot snapshot;
+		synchronized (this.entries) {
+			snapshot = this.entries.get(exercise.getFingerprint());
+			if (snapshot == null) {
+				// counts only the submissions from now on until it is rebuilt
+				snapshot = new Snapshot(new ItemAnalysis(exercise), false);
+				this.entries.put(exercise.getFingerprint(), snapshot);
+			}
+		}
+		snapshot.add(subm);
+	}
+
+	/**
+	 * Returns the item statistics of the given stored submissions.
+	 *
+	 * <p>The recorded analysis is used if it has been built from the stored
+	 * submissions and it has counted the same submissions as there are
+	 * stored. Otherwise the statistics are computed from the submissions.
+	 * The computed analysis replaces the recorded one unless the given
+	 * submissions are fewer than the recorded ones, so statistics of a
+	 * subset of the submissions do not evict the analysis of them all.</p>
+	 *
+	 * @param  exercise the answered exercise.
+	 * @param  submissions the stored submissions to the exercise.
+	 * @return the item statistics of the submissions.
+	 */
+	public ItemStatistics getStatistics(CompiledExercise exercise, List<StatisticalSubmissionInfo<VideoMcqSubmissionInfo>> submissions) {
+		Snapshot snapshot;
+		synchronized (this.entries) {
+			snapshot = this.entries.get(exercise.getFingerprint());
+		}
+		if (snapshot == null || !snapshot.complete) {
+			return rebuild(exercise, submissions);
+		}
+		ItemStatistics statistics = snapshot.getStatistics(submissions.size(), checksumOf(submissions));
+		if (statistics != null) {
+			return statistics;
+		}
+		if (submissions.size() >= snapshot.getCount()) {
+			return rebuild(exercise, submissions);
+		}
+		return ItemAnalysis.accumulate(exercise, submissions).getStatistics();
+	}
+
+	/**
+	 * Rebuilds the analysis of an exercise from the stored submissions and
+	 * replaces the recorded analysis with it.
+	 *
+	 * @param  exercise the answered exercise.
+	 * @param  submissions the stored submissions to the exercise.
+	 * @return the item statistics of the submissions.
+	 */
+	public ItemStatistics rebuild(CompiledExercise exercise, List<StatisticalSubmissionInfo<VideoMcqSubmissionInfo>> submissions) {
+		ItemAnalysis analysis = ItemAnalysis.accumulate(exercise, submissions);
+		Snapshot snapshot = new Snapshot(analysis, true, submissions.size(), checksumOf(submissions));
+		synchronized (this.entries) {
+			this.entries.put(exercise.getFingerprint(), snapshot);
+		}
+		return analysis.getStatistics();
+	}
+
+	/**
+	 * Returns the order independent checksum of the given submissions.
+	 *
+	 * @param  submissions the submissions.
+	 * @return the sum of the checksums of the submissions.
+	 */
+	static long checksumOf(List<StatisticalSubmissionInfo<VideoMcqSubmissionInfo>> submissions) {
+		long checksum = 0L;
+		for (StatisticalSubmissionInfo<VideoMcqSubmissionInfo> info : submissions) {
+			checksum += checksumOf((info != null) ? info.getSubmissionData() : null);
+		}
+		return checksum;
+	}
+
+	/**
+	 * Returns a 64-bit FNV-1a hash of the summary of a submission.
+	 *
+	 * @param  subm the submission, or null.
+	 * @return the checksum of the submission.
+	 */
+	static long checksumOf(VideoMcqSubmissionInfo subm) {
+		if (subm == null) {
+			return FNV_OFFSET_BASIS;
+		}
+		long hash = FNV_OFFSET_BASIS;
+		hash = fnv(hash, subm.getFingerprint());
+		hash = fnv(hash, Double.doubleToLongBits(subm.getScore()));
+		hash = fnv(hash, subm.getQuestionCount());
+		hash = fnv(hash, subm.getAnsweredCount());
+		return hash;
+	}
+
+	private static long fnv(long hash, long value) {
+		for (int shift = 56; shift >= 0; shift -= 8) {
+			hash ^= (value >>> shift) & 0xff;
+			hash *= FNV_PRIME;
+		}
+		return hash;
+	}
+
+	/**
+	 * Removes all the recorded analyses.
+	 */
+	public void clear() {
+		synchronized (this.entries) {
+			this.entries.clear();
+		}
+	}
+
+	/**
+	 * Returns the number of the registered exercises.
+	 *
+	 * @return the number of the registered exercises.
+	 */
+	public int size() {
+		synchronized (this.entries) {
+			return this.entries.size();
+		}
+	}
+
+	/**
+	 * Recorded analysis of an exercise with the count and the checksum of
+	 * the counted submissions.
+	 */
+	private static final class Snapshot {
+
+		private final ItemAnalysis analysis;
+		/**
+		 * true if the analysis was built from all the stored submissions
+		 */
+		private final boolean complete;
+		private int count;
+		private long checksum;
+
+		private Snapshot(ItemAnalysis analysis, boolean complete) {
+			this(analysis, complete, 0, 0L);
+		}
+
+		private Snapshot(ItemAnalysis analysis, boolean complete, int count, long checksum) {
+			this.analysis = analysis;
+			this.complete = complete;
+			this.count = count;
+			this.checksum = checksum;
+		}
+
+		private synchronized void add(VideoMcqSubmissionInfo subm) {
+			this.analysis.add(subm);
+			this.count++;
+			this.checksum += checksumOf(subm);
+		}
+
+		private synchronized int getCount() {
+			return this.count;
+		}
+
+		/**
+		 * Returns the statistics if the counted submissions match the given
+		 * ones, otherwise null.
+		 */
+		private synchronized ItemStatistics getStatistics(int count, long checksum) {
+			if (this.count != count || this.checksum != checksum) {
+				return null;
+			}
+			return this.analysis.getStatistics();
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /**
- * <p><b>Copyright 2013 Juha Mkil and Sami Holck</b></p>
+ * <p><b>Copyright 2013 Juha Mäkilä and Sami Holck</b></p>
  * 
  * <p>Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -27,7 +27,7 @@ import java.util.LinkedHashSet;
  * <p><strong>copyright &copy; Ville-Video 2013</strong></p>
  * 
  * @author  <a href="mailto:sami.holck@gmail.com">Sami Holck</a>
- * @author  Juha Mkil
+ * @author  Juha Mäkilä
  * @version 2.01
  * @since   16.10.2013
  */
@@ -42,6 +42,13 @@ public class Question implements Serializable {
 	private String answerDescription = "";
 	private final LinkedHashSet<String> givenAnswers = new LinkedHashSet<String>();
 
+	/**
+	 * The library counting the unanswered questions this question belongs to,
+	 * or null. A question is counted by one library only; it is not kept in
+	 * serialized questions.
+	 */
+	private transient QuestionLibrary library;
+
 	/**
 	 * Constructs an empty question.
 	 * 
@@ -289,8 +296,10 @@ public class Question implements Serializable {
 	 * @param answerList the collection of the given answers.
 	 */
 	public void setGivenAnswers(ArrayList<String> answerList) {
+		boolean wasAnswered = isAnswered();
 		givenAnswers.clear();
 		givenAnswers.addAll(answerList);
+		answeredStateChanged(wasAnswered);
 	}
 
 	/**
@@ -298,8 +307,10 @@ public class Question implements Serializable {
 	 * @param answer
 	 */
 	public void setGivenAnswer(String answer) {
+		boolean wasAnswered = isAnswered();
 		givenAnswers.clear();
 		givenAnswers.add(answer);
+		answeredStateChanged(wasAnswered);
 	}
 
 	/**
@@ -353,7 +364,43 @@ public class Question implements Serializable {
 	 * Clears all the given answers for the question.
 	 */
 	public void resetGivenAnswers() {
+		boolean wasAnswered = isAnswered();
 		this.givenAnswers.clear();
+		answeredStateChanged(wasAnswered);
+	}
+
+	/**
+	 * Informs the library counting this question if the question has become
+	 * answered or unanswered.
+	 * 
+	 * @param wasAnswered the answered state before the given answers changed.
+	 */
+	private void answeredStateChanged(boolean wasAnswered) {
+		QuestionLibrary owner = this.library;
+		boolean answered = isAnswered();
+		if (owner != null && answered != wasAnswered) {
+			owner.answeredStateChanged(this, answered);
+		}
+	}
+
+	/**
+	 * Returns the library counting the unanswered questions this question
+	 * belongs to.
+	 * 
+	 * @return the counting library or null.
+	 */
+	QuestionLibrary getLibrary() {
+		return this.library;
+	}
+
+	/**
+	 * Sets the library counting the unanswered questions this question
+	 * belongs to.
+	 * 
+	 * @param library the counting library or null.
+	 */
+	void setLibrary(QuestionLibrary library) {
+		this.library = library;
 	}
 
 	/**
@@ -1,5 +1,5 @@
 /**
- * <p><b>Copyright 2013 Juha Mkil and Sami Holck</b></p>
+ * <p><b>Copyright 2013 Juha Mäkilä and Sami Holck</b></p>
  * 
  * <p>Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -26,7 +26,7 @@ import sph.vaadin.ui.svg.SvgDots;
  * <p><strong>copyright &copy; Ville-Video 2013</strong></p>
  *
  * @author  <a href="mailto:sami.holck@gmail.com">Sami Holck</a>
- * @author  Juha Mkil
+ * @author  Juha Mäkilä
  * @version 0.1
  * @since   11.11.2013
  */
@@ -34,7 +34,8 @@ public class QuestionDots extends SvgDots {
 
 	private static final long serialVersionUID = -2952952191258363922L;
 
-	private QuestionLibrary questionLibrary;
+	private CompiledExercise exercise;
+	private AnswerSheet answerSheet;
 
 	private boolean clickable;
 	private boolean informative;
@@ -43,53 +44,75 @@ public class QuestionDots extends SvgDots {
 	 * Constructs an empty object.
 	 */
 	public QuestionDots() {
-		questionLibrary = new QuestionLibrary();
 	}
 
 	/**
-	 * Construcs an object with QuestionLibrary that contains all the questions, clickable
-	 * parameter that indicates whether the dots are clickable, and informative parameter that
-	 * indicates whether answering a question gives information about the question.
+	 * Construcs an object with the exercise that contains all the questions, the answer
+	 * sheet of the student, clickable parameter that indicates whether the dots are clickable,
+	 * and informative parameter that indicates whether answering a question gives information
+	 * about the question.
 	 * 
-	 * @param questionLibrary contains all the questions.
+	 * @param exercise contains all the questions.
+	 * @param answerSheet contains the given answers.
 	 * @param clickable indicates whether the dots are clickable.
 	 * @param informative indicates whether answering a question gives any information about the question.
 	 */
-	public QuestionDots(final QuestionLibrary questionLibrary, boolean clickable, boolean informative) {
+	public QuestionDots(final CompiledExercise exercise, final AnswerSheet answerSheet, boolean clickable, boolean informative) {
 		super();
 		this.clickable = clickable;
 		this.informative = informative;
-		this.draw(questionLibrary);
+		this.draw(exercise, answerSheet);
 	}
 
 	/**
 	 * Draws the {@link sph.vaadin.ui.svg.SvgDots.Dot} elements describing questions
-	 * in the given questionLibrary to the SVG canvas.
+	 * in the given exercise to the SVG canvas.
+	 * 
+	 * <p>The data of each dot is the position of its question in the exercise.</p>
 	 * 
 	 * <p><strong class="red">NOTE:</strong> removes all previously defined {@link sph.vaadin.ui.svg.SvgDots.Dot} elements.</p>
 	 * 
-	 * @param questionLibrary
+	 * @param exercise contains all the questions.
+	 * @param answerSheet contains the given answers.
 	 */
-	public void draw(final QuestionLibrary questionLibrary) {
-		this.questionLibrary = questionLibrary;
-		ArrayList<SvgDots.Dot> dotData = new ArrayList<SvgDots.Dot>();
-		for (int i = 0; i < this.questionLibrary.size(); i++) {
-			dotData.add(this.getQuestionDot(this.questionLibrary.get(i), i));
+	public void draw(final CompiledExercise exercise, final AnswerSheet answerSheet) {
+		this.exercise = exercise;
+		this.answerSheet = answerSheet;
+		ArrayList<SvgDots.Dot> dotData = new ArrayList<SvgDots.Dot>(exercise.size());
+		for (int i = 0; i < exercise.size(); i++) {
+			dotData.add(this.getQuestionDot(i));
 		}
 		super.draw(dotData);
 	}
 
+	/**
+	 * Updates the {@link sph.vaadin.ui.svg.SvgDots.Dot} elements to the current
+	 * state of the answer sheet. Only the changed dots are sent to the client.
+	 * 
+	 * @see SvgDots#update(java.util.Collection)
+	 */
+	public void refresh() {
+		if (this.exercise == null) {
+			return;
+		}
+		ArrayList<SvgDots.Dot> dotData = new ArrayList<SvgDots.Dot>(this.exercise.size());
+		for (int i = 0; i < this.exercise.size(); i++) {
+			dotData.add(this.getQuestionDot(i));
+		}
+		super.update(dotData);
+	}
+
 	/**
 	 * Private method for manipulating and getting a specified dot.
 	 */
-	private SvgDots.Dot getQuestionDot(Question question, int index) {
+	private SvgDots.Dot getQuestionDot(int index) {
 		String title = "Question " + (index + 1);
 		String color = "#000";
-		if (!question.isAnswered()) {
+		if (!this.answerSheet.isAnswered(index)) {
 			color = "Silver";
 		} else {
 			if (this.informative) {
-				if (question.isCorrectAnswer()) {
+				if (this.answerSheet.isCorrectAnswer(index)) {
 					color = "Green";
 				} else {
 					color = "red";
@@ -97,17 +120,26 @@ public class QuestionDots extends SvgDots {
 			}
 		}
 		SvgDots.Dot dot = new SvgDots.Dot(color, title, this.clickable);
-		dot.setData(question);
+		dot.setData(index);
 		return dot;
 	}
 
 	/**
-	 * Returns the questionLibrary that contains all the question objects.
+	 * Returns the exercise that contains all the questions.
+	 *
+	 * @return the exercise
+	 */
+	public CompiledExercise getExercise() {
+		return exercise;
+	}
+
+	/**
+	 * Returns the answer sheet that contains the given answers.
 	 *
-	 * @return the questionLibrary
+	 * @return the answer sheet
 	 */
-	public QuestionLibrary getQuestionLibrary() {
-		return questionLibrary;
+	public AnswerSheet getAnswerSheet() {
+		return answerSheet;
 	}
 
 	/**
@@ -154,7 +186,7 @@ public class QuestionDots extends SvgDots {
 	 * <p><strong>copyright &copy; Ville-Video 2013</strong></p>
 	 *
 	 * @author  <a href="mailto:sami.holck@gmail.com">Sami Holck</a>
-	 * @author  Juha Mkil
+	 * @author  Juha Mäkilä
 	 * @version 0.1
 	 * @since   12.11.2013
 	 */
@@ -1,5 +1,5 @@
 /**
- * <p><b>Copyright 2013 Juha Mkil and Sami Holck</b></p>
+ * <p><b>Copyright 2013 Juha Mäkilä and Sami Holck</b></p>
  * 
  * <p>Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,7 +20,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 
 import sph.Time;
-import sph.event.BasicEventManager;
+import sph.event.CopyOnWriteEventManager;
 import sph.event.EventListener;
 import sph.vaadin.TextFieldValidator;
 import sph.vaadin.TextSelector;
@@ -52,7 +52,7 @@ import com.vaadin.ui.themes.BaseTheme;
  * <p><strong>copyright &copy; Ville-Video 2013</strong></p>
  * 
  * @author  <a href="mailto:sami.holck@gmail.com">Sami Holck</a>
- * @author  Juha Mkil
+ * @author  Juha Mäkilä
  * @version 1.1
  * @since   1.11.2013
  */
@@ -80,11 +80,26 @@ public class QuestionForm extends CustomComponent {
 	private Question originalQuestion;
 	private static final int EDIT_QUESTION = 1;
 	private static final int NEW_QUESTION = 2;
+	/**
+	 * the minimum interval in milliseconds between the time label updates during playback
+	 */
+	private static final int TIME_LABEL_UPDATE_INTERVAL = 500;
+	/**
+	 * the events updating the time label; the other continuously fired
+	 * events (progress, volumechange, resize) are not forwarded at all
+	 */
+	private static final String[] TIME_LABEL_EVENTS = {
+		Videojs.VjsListener.TIMEUPDATE,
+		Videojs.VjsListener.PLAY_EVENT,
+		Videojs.VjsListener.PAUSE_EVENT,
+		Videojs.VjsListener.SEEKED_EVENT,
+		Videojs.VjsListener.ENDED_EVENT
+	};
 
 	/**
 	 * a QuestionForm EventManager
 	 */
-	private final BasicEventManager<String, QuestionForm, Question, QuestionFormListener> eventManager = new BasicEventManager<String, QuestionForm, Question, QuestionFormListener>();
+	private final CopyOnWriteEventManager<String, QuestionForm, Question, QuestionFormListener> eventManager = new CopyOnWriteEventManager<String, QuestionForm, Question, QuestionFormListener>();
 
 	/**
 	 * Constructs a new empty {@link QuestionForm}.
@@ -177,7 +192,8 @@ public class QuestionForm extends CustomComponent {
 	 * Sets the listeners to the buttons.
 	 */
 	private void setListeners() {
-		this.vjs.addVideojsListener(Videojs.VjsListener.ANY_EVENT, new Videojs.VjsListener() {
+		this.vjs.setEventRateLimit(Videojs.VjsListener.TIMEUPDATE, TIME_LABEL_UPDATE_INTERVAL);
+		Videojs.VjsListener timeLabelUpdater = new Videojs.VjsListener() {
 
 			private static final long serialVersionUID = 8427274367098667303L;
 
@@ -185,7 +201,10 @@ public class QuestionForm extends CustomComponent {
 			public void on(String eventName, Videojs source, Double triggerTime) {
 				timeLabel.setValue(Time.convertToTimeString(triggerTime));
 			}
-		});
+		};
+		for (String eventName : TIME_LABEL_EVENTS) {
+			this.vjs.addVideojsListener(eventName, timeLabelUpdater);
+		}
 		this.vjs.addVideojsListener(Videojs.VjsListener.DURATIONCHANGE_EVENT, new Videojs.VjsListener() {
 
 			private static final long serialVersionUID = -7568539997745781255L;
@@ -425,7 +444,7 @@ public class QuestionForm extends CustomComponent {
 	 * IncorrectAnswerFieldsHandler
 	 *
 	 * @author  <a href="mailto:sami.holck@gmail.com">Sami Holck</a>
-	 * @author  Juha Mkil
+	 * @author  Juha Mäkilä
 	 * @version 1.0
 	 * @since   8.11.2013
 	 */
@@ -576,7 +595,7 @@ public class QuestionForm extends CustomComponent {
 	 * Validates given answer field against all other answer fields in this {@link QuestionForm}.
 	 * 
 	 * @author  <a href="mailto:sami.holck@gmail.com">Sami Holck</a>
-	 * @author  Juha Mkil
+	 * @author  Juha Mäkilä
 	 * @version 0.1
 	 * @since   8.11.2013
 	 */
@@ -617,7 +636,7 @@ public class QuestionForm extends CustomComponent {
 	 * QuestionFormListener interface for listening to {@link QuestionForm} Events.
 	 * 
 	 * @author  <a href="mailto:sami.holck@gmail.com">Sami Holck</a>
-	 * @author  Juha Mkil
+	 * @author  Juha Mäkilä
 	 * @version 1.01
 	 * @since   11.10.2013
 	 */
@@ -1,5 +1,5 @@
 /**
- * <p><b>Copyright 2013 Juha Mkil and Sami Holck</b></p>
+ * <p><b>Copyright 2013 Juha Mäkilä and Sami Holck</b></p>
  * 
  * <p>Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,9 +18,12 @@ package edu.vserver.exercises.videoMcq;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.SortedMap;
 import java.util.TreeMap;
 
@@ -39,7 +42,7 @@ import java.util.TreeMap;
  *                   question.getTime() <= {@link #getNext(Question) question.getNextQuestion()}.getTime())
  * 
  * @author  <a href="mailto:sami.holck@gmail.com">Sami Holck</a>
- * @author  Juha Mkil
+ * @author  Juha Mäkilä
  * @version 1.2
  * @since   1.11.2013
  */
@@ -49,6 +52,17 @@ public class QuestionLibrary implements Iterable<Question>, Serializable {
 
 	private final SortedMap<Integer, ArrayList<Question>> questions = Collections.synchronizedSortedMap(new TreeMap<Integer, ArrayList<Question>>());
 
+	/**
+	 * Time-sorted snapshot of the questions and their unanswered counts,
+	 * rebuilt lazily after the library has been modified.
+	 */
+	private transient volatile Index index;
+
+	/**
+	 * The number of times this library has been structurally modified.
+	 */
+	private transient int modCount;
+
 	/**
 	 * Constructs an empty question library.
 	 */
@@ -92,9 +106,12 @@ public class QuestionLibrary implements Iterable<Question>, Serializable {
 			questionList = new ArrayList<Question>();
 			questionList.add(question);
 			this.questions.put(time, questionList);
+			this.invalidateIndex();
 			return true;
 		} else if (!questionList.contains(question)) {
-			return questionList.add(question);
+			questionList.add(question);
+			this.invalidateIndex();
+			return true;
 		} else {
 			return false;
 		}
@@ -127,13 +144,17 @@ public class QuestionLibrary implements Iterable<Question>, Serializable {
 	public boolean replace(Question oldQ, Question newQ) {
 		ArrayList<Question> questions = getTimeSlot(oldQ.getTime());
 		if (contains(oldQ)) {
+			int index = questions.indexOf(oldQ);
 			if (oldQ.getTime() == newQ.getTime()) {
-				int index = questions.indexOf(oldQ);
-				questions.set(index, newQ);
+				this.release(questions.set(index, newQ));
 			} else {
-				questions.remove(oldQ);
+				this.release(questions.remove(index));
+				if (questions.isEmpty()) {
+					this.questions.remove(oldQ.getTime());
+				}
 				this.add(newQ);
 			}
+			this.invalidateIndex();
 			return true;
 		} else {
 			throw new QuestionNotFoundException("Cannot replace question that is not present in the library");
@@ -152,11 +173,17 @@ public class QuestionLibrary implements Iterable<Question>, Serializable {
 		if (questionList == null) {
 			return false;
 		}
-		boolean result = questionList.remove(question);
+		int index = questionList.indexOf(question);
+		if (index >= 0) {
+			this.release(questionList.remove(index));
+		}
 		if (questionList.size() == 0) {
 			this.questions.remove(time);
 		}
-		return result;
+		if (index >= 0) {
+			this.invalidateIndex();
+		}
+		return index >= 0;
 	}
 
 	/**
@@ -168,7 +195,7 @@ public class QuestionLibrary implements Iterable<Question>, Serializable {
 	 * in this library, or -1 if this library does not contain the {@link Question question}.
 	 */
 	public int indexOf(Question question) {
-		return this.getAllQuestions().indexOf(question);
+		return this.getIndex().indexOf(question);
 	}
 
 	/**
@@ -179,11 +206,11 @@ public class QuestionLibrary implements Iterable<Question>, Serializable {
 	 * @throws QuestionNotFoundException if the index is out of range (index < 0 || index >= {@link #size()})
 	 */
 	public Question get(int index) {
-		try {
-			return this.getAllQuestions().get(index);
-		} catch (Exception e) {
+		Question[] all = this.getIndex().questions;
+		if (index < 0 || index >= all.length) {
 			throw new QuestionNotFoundException("No question found: The index '" + index + "' is out of range");
 		}
+		return all[index];
 	}
 
 	/**
@@ -193,9 +220,9 @@ public class QuestionLibrary implements Iterable<Question>, Serializable {
 	 * @return true if this library contains a successor for the specified question.
 	 */
 	public boolean containsNext(Question question) {
-		ArrayList<Question> allQuestions = this.getAllQuestions();
-		int index = allQuestions.indexOf(question);
-		return (index >= 0 && allQuestions.size() >= (index + 2));
+		Index current = this.getIndex();
+		int index = current.indexOf(question);
+		return (index >= 0 && current.questions.length >= (index + 2));
 	}
 
 	/**
@@ -205,12 +232,12 @@ public class QuestionLibrary implements Iterable<Question>, Serializable {
 	 * @return the {@link Question question} at the specified position in this library or null if none was found.
 	 */
 	public Question getNext(Question question) {
-		ArrayList<Question> allQuestions = this.getAllQuestions();
-		int index = allQuestions.indexOf(question);
+		Index current = this.getIndex();
+		int index = current.indexOf(question);
 		if (index < 0) {
 			return null;
-		} else if (allQuestions.size() >= (index + 2)) {
-			return allQuestions.get(index + 1);
+		} else if (current.questions.length >= (index + 2)) {
+			return current.questions[index + 1];
 		} else {
 			return null;
 		}
@@ -224,11 +251,14 @@ public class QuestionLibrary implements Iterable<Question>, Serializable {
 	 * @return the unanswered {@link Question question} at the specified position in this library or null if none was found.
 	 */
 	public Question getNextUnanswerded(Question question) {
-		Question next = this.getNext(question);
-		while (next != null && next.isAnswered()) {
-			next = this.getNext(next);
+		Index current = this.getIndex();
+		int index = current.indexOf(question);
+		if (index < 0) {
+			return null;
+		}
+		synchronized (this.questions) {
+			return current.nextUnanswered(index + 1);
 		}
-		return next;
 	}
 
 	/**
@@ -238,13 +268,13 @@ public class QuestionLibrary implements Iterable<Question>, Serializable {
 	 * @return true if this library contains any unanswered {@link Question questions}.
 	 */
 	public boolean containsUnanswerded() {
-		ArrayList<Question> allQuestions = this.getAllQuestions();
-		for (Question q : allQuestions) {
-			if (!q.isAnswered()) {
+		Index current = this.getIndex();
+		synchronized (this.questions) {
+			if (current.unanswered > 0) {
 				return true;
 			}
+			return current.shared > 0 && current.nextUnanswered(0) != null;
 		}
-		return false;
 	}
 
 	/**
@@ -268,7 +298,7 @@ public class QuestionLibrary implements Iterable<Question>, Serializable {
 	 * @return the list of all the unanswered questions at the given time slot, or null.
 	 */
 	public ArrayList<Question> getUnansweredFromTimeSlot(int timeSlot) {
-		if (containsTimeSlot(timeSlot)) {
+		if (containsUnansweredInTimeSlot(timeSlot)) {
 			ArrayList<Question> theSlot = getTimeSlot(timeSlot);
 			ArrayList<Question> unanswered = new ArrayList<Question>();
 			for (Question q : theSlot) {
@@ -295,7 +325,14 @@ public class QuestionLibrary implements Iterable<Question>, Serializable {
 	 * @return true if at least one such a question exists; false otherwise.
 	 */
 	public boolean containsUnansweredInTimeSlot(int timeSlot) {
-		return getUnansweredFromTimeSlot(timeSlot) != null;
+		Index current = this.getIndex();
+		int slot = current.slotOf(timeSlot);
+		if (slot < 0) {
+			return false;
+		}
+		synchronized (this.questions) {
+			return current.containsUnanswered(slot);
+		}
 	}
 
 	/**
@@ -316,8 +353,7 @@ public class QuestionLibrary implements Iterable<Question>, Serializable {
 	 * @return true if this library contains the specified {@link Question question}.
 	 */
 	public boolean contains(Question question) {
-		ArrayList<Question> allQuestions = this.getAllQuestions();
-		return allQuestions.contains(question);
+		return this.getIndex().indexOf(question) >= 0;
 	}
 
 	/**
@@ -336,11 +372,7 @@ public class QuestionLibrary implements Iterable<Question>, Serializable {
 	 * @return a Collection containing all {@link Question questions} in the library.
 	 */
 	public ArrayList<Question> getAllQuestions() {
-		ArrayList<Question> questions = new ArrayList<Question>();
-		for (ArrayList<Question> qlist : this.questions.values()) {
-			questions.addAll(qlist);
-		}
-		return questions;
+		return new ArrayList<Question>(Arrays.asList(this.getIndex().questions));
 	}
 
 	/**
@@ -350,18 +382,19 @@ public class QuestionLibrary implements Iterable<Question>, Serializable {
 	 * @return the percentage of all the correct given answers.
 	 */
 	public double getScore() {
+		Question[] all = this.getIndex().questions;
 		double count = 0;
-		for (Question q : getAllQuestions()) {
+		for (Question q : all) {
 			count += q.getQuestionScore();
 		}
-		return count / getAllQuestions().size();
+		return count / all.length;
 	}
 
 	/**
 	 * Resets the given answers for all the questions in this question library.
 	 */
 	public void resetGivenAnswers() {
-		for(Question q : this.getAllQuestions()) {
+		for(Question q : this.getIndex().questions) {
 			q.resetGivenAnswers();
 		}
 	}
@@ -372,34 +405,93 @@ public class QuestionLibrary implements Iterable<Question>, Serializable {
 	 * @return the number of the {@link Question questions} in this library.
 	 */
 	public int size() {
-		int size = 0;
-		for (ArrayList<Question> qlist : this.questions.values()) {
-			size += qlist.size();
-		}
-		return size;
+		return this.getIndex().questions.length;
 	}
 
 	/**
 	 * Returns an iterator over the {@link Question} elements in this library in proper sequence.
 	 * 
-	 * <p>The returned iterator is fail-fast. So it throws a
-	 * {@link java.util.ConcurrentModificationException ConcurrentModificationException}
-	 * under either of the following two conditions.</p>
-	 * 
-	 * <ol>
-	 * <li>In multithreaded processing: if one thread is trying to modify a
-	 * <em>Collection</em> while another thread is iterating over it.</li>
+	 * <p>The returned iterator iterates over a snapshot of the library taken
+	 * when the iterator was created. The library may be modified during the
+	 * iteration; the modifications are not reflected by the iterator.</p>
 	 * 
-	 * <li>In single-threaded or in multithreaded processing: if after the creation
-	 * of the <em>Iterator</em>, the container is modified at any time by any method
-	 * other than the <em>Iterator</em>'s own <em>remove</em> or <em>add</em> methods.</em></li>
-	 * </ol>
 	 * @return an iterator over the {@link Question} elements in this library in proper sequence.
 	 * @see java.lang.Iterable#iterator()
 	 */
 	@Override
 	public Iterator<Question> iterator() {
-		return this.getAllQuestions().iterator();
+		return new Itr(this.getIndex().questions);
+	}
+
+	/**
+	 * Returns the time-sorted snapshot of the questions in this library,
+	 * building it first if the library has been modified since the last call.
+	 * 
+	 * @return the current snapshot of this library.
+	 */
+	private Index getIndex() {
+		Index current = this.index;
+		if (current == null) {
+			synchronized (this.questions) {
+				current = this.index;
+				if (current == null) {
+					current = new Index(this, this.questions);
+					this.index = current;
+				}
+			}
+		}
+		return current;
+	}
+
+	/**
+	 * Returns the number of times this library has been structurally modified
+	 * (questions added, removed or replaced).
+	 * 
+	 * @return the modification count of this library.
+	 */
+	int getModificationCount() {
+		synchronized (this.questions) {
+			return this.modCount;
+		}
+	}
+
+	/**
+	 * Updates the unanswered counts after a question counted by this library
+	 * has become answered or unanswered.
+	 * 
+	 * @param question the question whose answered state changed.
+	 * @param answered true if the question is now answered.
+	 */
+	void answeredStateChanged(Question question, boolean answered) {
+		synchronized (this.questions) {
+			Index current = this.index;
+			if (current != null) {
+				current.answeredStateChanged(question.getTime(), answered);
+			}
+		}
+	}
+
+	/**
+	 * Stops counting a question removed from this library.
+	 * 
+	 * @param question the removed question.
+	 */
+	private void release(Question question) {
+		synchronized (this.questions) {
+			if (question.getLibrary() == this) {
+				question.setLibrary(null);
+			}
+		}
+	}
+
+	/**
+	 * Discards the current snapshot after a structural modification.
+	 */
+	private void invalidateIndex() {
+		synchronized (this.questions) {
+			this.modCount++;
+			this.index = null;
+		}
 	}
 
 	/**
@@ -456,6 +548,275 @@ public class QuestionLibrary implements Iterable<Question>, Serializable {
 		return true;
 	}
 
+	/**
+	 * Time-sorted view of the questions of a library.
+	 * 
+	 * <p>The questions are stored in a flat array in the same order as
+	 * {@link QuestionLibrary#getAllQuestions()} returns them and the time of
+	 * each question in a parallel array, so lookups by position are constant
+	 * time and lookups by question are binary searches.</p>
+	 * 
+	 * <p>The view also counts the unanswered questions of the whole library
+	 * and of every time slot, so the unanswered queries do not visit the
+	 * questions. The counts are updated under the lock of the library by
+	 * the questions as they are answered or reset. A question informs one
+	 * library only (see {@link Question#getLibrary()}): the library that
+	 * first indexes it while it belongs to no other library. The questions
+	 * that belong to another library are counted as shared, and the time
+	 * slots holding them are checked question by question.</p>
+	 *
+	 * @version 0.1
+	 * @since   17.10.2026
+	 */
+	private static final class Index {
+
+		private final Question[] questions;
+		private final int[] times;
+		private final int[] slotTimes;
+		private final int[] slotStarts;
+		/**
+		 * the unanswered questions counted by the library in each time slot
+		 */
+		private final int[] slotUnanswered;
+		/**
+		 * the questions counted by another library in each time slot
+		 */
+		private final int[] slotShared;
+		private int unanswered;
+		private int shared;
+
+		/**
+		 * Constructs a snapshot of the given time slot map and starts
+		 * counting the questions that belong to no library.
+		 * 
+		 * <p><strong class="Red">NOTE:</strong> The caller must hold the lock
+		 * of the synchronized map.</p>
+		 * 
+		 * @param library the library of the snapshot.
+		 * @param slots the time slots of the library.
+		 */
+		private Index(QuestionLibrary library, SortedMap<Integer, ArrayList<Question>> slots) {
+			int size = 0;
+			for (ArrayList<Question> qlist : slots.values()) {
+				size += qlist.size();
+			}
+			this.questions = new Question[size];
+			this.times = new int[size];
+			this.slotTimes = new int[slots.size()];
+			this.slotStarts = new int[slots.size()];
+			this.slotUnanswered = new int[slots.size()];
+			this.slotShared = new int[slots.size()];
+			int i = 0;
+			int slot = 0;
+			for (Map.Entry<Integer, ArrayList<Question>> entry : slots.entrySet()) {
+				this.slotTimes[slot] = entry.getKey();
+				this.slotStarts[slot] = i;
+				for (Question q : entry.getValue()) {
+					this.questions[i] = q;
+					this.times[i] = entry.getKey();
+					if (q.getLibrary() == null) {
+						q.setLibrary(library);
+					}
+					if (q.getLibrary() != library) {
+						this.slotShared[slot]++;
+					} else if (!q.isAnswered()) {
+						this.slotUnanswered[slot]++;
+					}
+					i++;
+				}
+				this.unanswered += this.slotUnanswered[slot];
+				this.shared += this.slotShared[slot];
+				slot++;
+			}
+		}
+
+		/**
+		 * Returns the position of the time slot at the given time or -1 if
+		 * there is no such slot.
+		 * 
+		 * @param  time the time of the slot in seconds.
+		 * @return the position of the time slot or -1.
+		 */
+		private int slotOf(int time) {
+			int low = 0;
+			int high = this.slotTimes.length - 1;
+			while (low <= high) {
+				int mid = (low + high) >>> 1;
+				if (this.slotTimes[mid] < time) {
+					low = mid + 1;
+				} else if (this.slotTimes[mid] > time) {
+					high = mid - 1;
+				} else {
+					return mid;
+				}
+			}
+			return -1;
+		}
+
+		/**
+		 * Returns the position after the last question of a time slot.
+		 * 
+		 * @param  slot the position of the time slot.
+		 * @return the end position of the time slot.
+		 */
+		private int slotEnd(int slot) {
+			return (slot + 1 < this.slotStarts.length) ? this.slotStarts[slot + 1] : this.questions.length;
+		}
+
+		/**
+		 * Indicates whether a time slot holds unanswered questions.
+		 * 
+		 * <p><strong class="Red">NOTE:</strong> The caller must hold the lock
+		 * of the library.</p>
+		 * 
+		 * @param  slot the position of the time slot.
+		 * @return true if the time slot holds unanswered questions.
+		 */
+		private boolean containsUnanswered(int slot) {
+			if (this.slotUnanswered[slot] > 0) {
+				return true;
+			}
+			if (this.slotShared[slot] > 0) {
+				for (int i = this.slotStarts[slot]; i < this.slotEnd(slot); i++) {
+					if (!this.questions[i].isAnswered()) {
+						return true;
+					}
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Returns the first unanswered question at or after the given
+		 * position, skipping the time slots without unanswered questions.
+		 * 
+		 * <p><strong class="Red">NOTE:</strong> The caller must hold the lock
+		 * of the library.</p>
+		 * 
+		 * @param  from the position to start from.
+		 * @return the first unanswered question or null if none was found.
+		 */
+		private Question nextUnanswered(int from) {
+			if (from >= this.questions.length) {
+				return null;
+			}
+			int i = from;
+			for (int slot = this.slotOf(this.times[from]); slot < this.slotTimes.length; slot++) {
+				int end = this.slotEnd(slot);
+				if (this.containsUnanswered(slot)) {
+					for (; i < end; i++) {
+						if (!this.questions[i].isAnswered()) {
+							return this.questions[i];
+						}
+					}
+				}
+				i = end;
+			}
+			return null;
+		}
+
+		/**
+		 * Updates the counts after a question at the given time has become
+		 * answered or unanswered.
+		 * 
+		 * <p><strong class="Red">NOTE:</strong> The caller must hold the lock
+		 * of the library.</p>
+		 * 
+		 * @param time the time of the question in seconds.
+		 * @param answered true if the question is now answered.
+		 */
+		private void answeredStateChanged(int time, boolean answered) {
+			int slot = this.slotOf(time);
+			if (slot >= 0) {
+				int delta = answered ? -1 : 1;
+				this.slotUnanswered[slot] += delta;
+				this.unanswered += delta;
+			}
+		}
+
+		/**
+		 * Returns the position of the first question at the given time or
+		 * later.
+		 * 
+		 * @param  time the time in seconds.
+		 * @return the position of the first question not earlier than time.
+		 */
+		private int firstAt(int time) {
+			int low = 0;
+			int high = this.times.length;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (this.times[mid] < time) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+			return low;
+		}
+
+		/**
+		 * Returns the position of the given question or -1 if it is not present.
+		 * 
+		 * <p>Only the time slot of the current time of the question is
+		 * searched, like the time slot map is by {@link QuestionLibrary#remove(Question)}
+		 * and {@link QuestionLibrary#replace(Question, Question)}. A question
+		 * whose time was changed in place with {@link Question#setTime(int)}
+		 * after it was added is not found; change the time of a question in a
+		 * library with {@link QuestionLibrary#replace(Question, Question)}.</p>
+		 * 
+		 * @param  question question to search for.
+		 * @return the position of the question or -1.
+		 */
+		private int indexOf(Question question) {
+			if (question == null) {
+				return -1;
+			}
+			int time = question.getTime();
+			for (int i = this.firstAt(time); i < this.times.length && this.times[i] == time; i++) {
+				if (question.equals(this.questions[i])) {
+					return i;
+				}
+			}
+			return -1;
+		}
+	}
+
+	/**
+	 * Iterator over a snapshot of the library. Modifications of the library
+	 * after the snapshot was taken do not affect the iteration.
+	 * 
+	 * @version 0.1
+	 * @since   17.10.2026
+	 */
+	private final class Itr implements Iterator<Question> {
+
+		private final Question[] snapshot;
+		private int cursor;
+
+		private Itr(Question[] snapshot) {
+			this.snapshot = snapshot;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return this.cursor < this.snapshot.length;
+		}
+
+		@Override
+		public Question next() {
+			if (this.cursor >= this.snapshot.length) {
+				throw new NoSuchElementException();
+			}
+			return this.snapshot[this.cursor++];
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException("Questions cannot be removed through the iterator");
+		}
+	}
+
 	/**
 	 * Thrown to indicate that a {@link Question} was not found from the {@link QuestionLibrary}.
 	 *
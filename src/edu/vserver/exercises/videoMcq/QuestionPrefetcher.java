@@ -0,0 +1,234 @@
+/**
+ * <p><b>Copyright 2013 Juha Mäkilä and Sami Holck</b></p>
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at</p>
+ * 
+ *     <a href="http://www.apache.org/licenses/LICENSE-2.0"
+ *     target="_new">http://www.apache.org/licenses/LICENSE-2.0</a>
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.</p>
+ */
+package edu.vserver.exercises.videoMcq;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import sph.vaadin.ui.videojs.Videojs;
+
+/**
+ * QuestionPrefetcher sends the questions of the upcoming time slot to the
+ * client ahead of time.
+ *
+ * <p>The question text and the answer options in a random order are
+ * {@link Videojs#preparePrompt(double, String, String, String, List, boolean, boolean) prepared}
+ * in the video player, so the questions are shown on the client as soon as the
+ * playback pauses at the time slot. The options are shown as in the
+ * {@link QuestionWindow} (see {@link CompiledExercise#isMultiSelect(int)}).
+ * The correctness of the options is never sent; the player only reports the positions of the selected options, which
+ * are mapped back to the options of the question here.</p>
+ *
+ * <p>With {@link #setFeedbackEnabled(boolean) feedback} enabled, the player
+ * keeps an answered question shown until the server has checked the answer
+ * and {@link #sendFeedback(int) sent} whether it was correct in the response
+ * to the answer. Nothing is sent that would tell the correct options before
+ * the question is answered.</p>
+ *
+ * <p><strong>copyright &copy; Ville-Video 2013</strong></p>
+ *
+ * @version 0.1
+ * @since   17.10.2026
+ */
+public final class QuestionPrefetcher implements Serializable {
+
+	private static final long serialVersionUID = -4203551872180671245L;
+
+	private final Videojs vjs;
+	private final CompiledExercise exercise;
+	private final AnswerSheet answerSheet;
+
+	/**
+	 * the shuffled option positions of the prepared questions
+	 */
+	private final Map<Integer, int[]> shuffles = new HashMap<Integer, int[]>();
+	private final Set<Integer> preparedSlots = new HashSet<Integer>();
+	private boolean feedbackEnabled;
+
+	/**
+	 * Constructs a prefetcher for the given player and exercise.
+	 *
+	 * @param vjs the video player asking the questions.
+	 * @param exercise the exercise whose questions are asked.
+	 * @param answerSheet the answer sheet of the student.
+	 */
+	public QuestionPrefetcher(Videojs vjs, CompiledExercise exercise, AnswerSheet answerSheet) {
+		this.vjs = vjs;
+		this.exercise = exercise;
+		this.answerSheet = answerSheet;
+	}
+
+	/**
+	 * Indicates whether the player shows feedback on the answers.
+	 *
+	 * @return true if the player shows feedback on the answers.
+	 */
+	public boolean isFeedbackEnabled() {
+		return feedbackEnabled;
+	}
+
+	/**
+	 * Sets whether the player shows feedback on the answers. Applies to the
+	 * questions prepared after the call.
+	 *
+	 * @param feedbackEnabled whether the player shows feedback on the answers.
+	 */
+	public void setFeedbackEnabled(boolean feedbackEnabled) {
+		this.feedbackEnabled = feedbackEnabled;
+	}
+
+	/**
+	 * Prepares the unanswered questions of the given time slot in the player.
+	 *
+	 * @param  timeSlot the time slot in seconds.
+	 * @return true if any questions were prepared.
+	 */
+	public boolean prefetch(int timeSlot) {
+		int slot = exercise.indexOfTimeSlot(timeSlot);
+		if (slot < 0 || !answerSheet.containsUnansweredInTimeSlot(timeSlot)) {
+			return false;
+		}
+		for (int q = exercise.getSlotStart(slot); q < exercise.getSlotEnd(slot); q++) {
+			if (answerSheet.isAnswered(q)) {
+				continue;
+			}
+			int count = exercise.getOptionCount(q);
+			ArrayList<Integer> order = new ArrayList<Integer>(count);
+			for (int i = 0; i < count; i++) {
+				order.add(i);
+			}
+			Collections.shuffle(order);
+			int[] shuffle = new int[count];
+			List<String> options = new ArrayList<String>(count);
+			for (int i = 0; i < count; i++) {
+				shuffle[i] = order.get(i);
+				options.add(exercise.getOption(q, shuffle[i]));
+			}
+			shuffles.put(q, shuffle);
+			vjs.preparePrompt(timeSlot, String.valueOf(q), "QUESTION " + (q + 1), exercise.getQuestion(q), options,
+					exercise.isMultiSelect(q), feedbackEnabled);
+		}
+		preparedSlots.add(timeSlot);
+		return true;
+	}
+
+	/**
+	 * Prepares the questions of the first time slot after the given playback
+	 * position that still has unanswered questions.
+	 *
+	 * @param  position the playback position in seconds.
+	 * @return true if any questions were prepared.
+	 */
+	public boolean prefetchNext(double position) {
+		for (int slot = 0; slot < exercise.getTimeSlotCount(); slot++) {
+			int timeSlot = exercise.getTimeSlot(slot);
+			if (timeSlot >= position && answerSheet.containsUnansweredInTimeSlot(timeSlot)) {
+				return preparedSlots.contains(timeSlot) || prefetch(timeSlot);
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Indicates whether the questions of the given time slot are prepared in the player.
+	 *
+	 * @param  timeSlot the time slot in seconds.
+	 * @return true if the questions of the time slot are prepared.
+	 */
+	public boolean isPrepared(int timeSlot) {
+		return preparedSlots.contains(timeSlot);
+	}
+
+	/**
+	 * Returns the question of the given prompt id sent by the player. The id
+	 * comes from the client, so anything else than the position of a question
+	 * of the exercise is rejected.
+	 *
+	 * @param  promptId the id of the prompt.
+	 * @return the position of the question, or -1 if the id is invalid.
+	 */
+	public int getQuestion(String promptId) {
+		int question;
+		try {
+			question = Integer.parseInt(promptId);
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+		return (question >= 0 && question < exercise.size()) ? question : -1;
+	}
+
+	/**
+	 * Returns the option of the question at the given shown position.
+	 *
+	 * @param  question position of the question.
+	 * @param  position the position of the option shown in the player.
+	 * @return the position of the option in the question, or -1 if the question
+	 *         is not prepared or the position is invalid.
+	 */
+	public int getOption(int question, int position) {
+		int[] shuffle = shuffles.get(question);
+		if (shuffle == null || position < 0 || position >= shuffle.length) {
+			return -1;
+		}
+		return shuffle[position];
+	}
+
+	/**
+	 * Shows in the player whether the recorded answer to a prepared question
+	 * is correct, if feedback is enabled.
+	 *
+	 * @param question position of the answered question.
+	 */
+	public void sendFeedback(int question) {
+		if (feedbackEnabled) {
+			String description = exercise.containsAnswerDescription(question) ? exercise.getAnswerDescription(question) : null;
+			vjs.showPromptFeedback(String.valueOf(question), answerSheet.isCorrectAnswer(question), description);
+		}
+	}
+
+	/**
+	 * Removes the questions of the given time slot from the player.
+	 *
+	 * @param timeSlot the time slot in seconds.
+	 */
+	public void release(int timeSlot) {
+		int slot = exercise.indexOfTimeSlot(timeSlot);
+		if (slot >= 0) {
+			for (int q = exercise.getSlotStart(slot); q < exercise.getSlotEnd(slot); q++) {
+				shuffles.remove(q);
+			}
+		}
+		if (preparedSlots.remove(timeSlot)) {
+			vjs.removePrompts(timeSlot);
+		}
+	}
+
+	/**
+	 * Removes all the prepared questions from the player.
+	 */
+	public void clear() {
+		shuffles.clear();
+		preparedSlots.clear();
+		vjs.clearPrompts();
+	}
+}
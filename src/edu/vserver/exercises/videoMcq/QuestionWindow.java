@@ -1,5 +1,5 @@
 /**
- * <p><b>Copyright 2013 Juha Mkil and Sami Holck</b></p>
+ * <p><b>Copyright 2013 Juha Mäkilä and Sami Holck</b></p>
  * 
  * <p>Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,8 +18,9 @@ package edu.vserver.exercises.videoMcq;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 
-import sph.event.BasicEventManager;
+import sph.event.CopyOnWriteEventManager;
 import sph.event.EventListener;
 import sph.vaadin.ui.ComponentFactory;
 import sph.vaadin.ui.SPH_Theme;
@@ -46,7 +47,7 @@ import com.vaadin.ui.Window;
  * <p><strong>copyright &copy; Ville-Video 2013</strong></p>
  *
  * @author  <a href="mailto:sami.holck@gmail.com">Sami Holck</a>
- * @author  Juha Mkil
+ * @author  Juha Mäkilä
  * @version 1.01
  * @since   3.11.2013
  */
@@ -57,11 +58,16 @@ public class QuestionWindow extends Window {
 	/**
 	 * a QuestionWindow EventManager
 	 */
-	private final BasicEventManager<String, QuestionWindow, Integer, QuestionEventListener> evtMngr = new BasicEventManager<String, QuestionWindow, Integer, QuestionEventListener>();
+	private final CopyOnWriteEventManager<String, QuestionWindow, Integer, QuestionEventListener> evtMngr = new CopyOnWriteEventManager<String, QuestionWindow, Integer, QuestionEventListener>();
 
-	private QuestionLibrary questionLibrary;
-	private Question currentQuestion;
+	private CompiledExercise exercise;
+	private AnswerSheet answerSheet;
+	private int currentQuestion = -1;
 	private int currentTimeSlot;
+	/**
+	 * the time the current question was shown in milliseconds
+	 */
+	private long questionShownAt;
 
 	private final Label qLabel = new Label("", ContentMode.HTML);
 	private final OptionGroup optionGroup = new OptionGroup();
@@ -172,21 +178,34 @@ public class QuestionWindow extends Window {
 	}
 
 	/**
-	 * Returns the question library.
+	 * Returns the exercise whose questions are asked.
+	 *
+	 * @return the exercise whose questions are asked.
+	 */
+	public CompiledExercise getExercise() {
+		return exercise;
+	}
+
+	/**
+	 * Returns the answer sheet the given answers are written to.
 	 *
-	 * @return the question library.
+	 * @return the answer sheet of the student.
 	 */
-	public QuestionLibrary getQuestionLibrary() {
-		return questionLibrary;
+	public AnswerSheet getAnswerSheet() {
+		return answerSheet;
 	}
 
 	/**
-	 * Sets the question library.
+	 * Sets the exercise whose questions are asked and the answer sheet the
+	 * given answers are written to.
 	 *
-	 * @param questionLibrary the question library to set.
+	 * @param exercise the exercise to ask.
+	 * @param answerSheet the answer sheet of the student.
 	 */
-	public void setQuestionLibrary(QuestionLibrary questionLibrary) {
-		this.questionLibrary = questionLibrary;
+	public void setExercise(CompiledExercise exercise, AnswerSheet answerSheet) {
+		this.exercise = exercise;
+		this.answerSheet = answerSheet;
+		this.currentQuestion = -1;
 	}
 
 	/**
@@ -196,10 +215,10 @@ public class QuestionWindow extends Window {
 	 * @return true if there are any unanswered questions in this time slot.
 	 */
 	public boolean ask(int timeSlot) {
-		ArrayList<Question> unanswered = questionLibrary.getUnansweredFromTimeSlot(timeSlot);
-		if (unanswered != null && unanswered.size() > 0) {
+		int unanswered = answerSheet.getFirstUnansweredInTimeSlot(timeSlot);
+		if (unanswered >= 0) {
 			currentTimeSlot = timeSlot;
-			currentQuestion = unanswered.get(0);
+			currentQuestion = unanswered;
 			setQuestionValues(currentQuestion);
 			show();
 			return true;
@@ -209,21 +228,65 @@ public class QuestionWindow extends Window {
 	}
 
 	/**
+	 * Records an answer given outside of the window, for example in a prompt
+	 * prepared in the video player, and informs the user and the listeners as
+	 * if the answer was submitted in the window.
+	 *
+	 * @param question position of the answered question.
+	 * @param answer a bitmask of the given answer options.
+	 */
+	public void submitAnswer(int question, long answer) {
+		answerSheet.setAnswer(question, answer);
+		informUser(question);
+		evtMngr.callListeners(QuestionEventListener.QUESTION_FINISHED_EVENT, this, exercise.getTime(question));
+	}
+
+	/**
+	 * Records an answer given outside of the window whose correctness is
+	 * shown to the user outside of the window, and informs the listeners.
+	 *
+	 * @param question position of the answered question.
+	 * @param answer a bitmask of the given answer options.
+	 */
+	public void recordAnswer(int question, long answer) {
+		answerSheet.setAnswer(question, answer);
+		evtMngr.callListeners(QuestionEventListener.QUESTION_FINISHED_EVENT, this, exercise.getTime(question));
+	}
+
+	/**
+	 * Informs the listeners that the questions of the given time slot have been
+	 * asked outside of the window.
+	 *
+	 * @param timeSlot the asked time slot.
+	 */
+	public void finishTimeSlot(int timeSlot) {
+		evtMngr.callListeners(QuestionEventListener.TIMESLOT_FINISHED_EVENT, this, timeSlot);
+	}
+
+	/**
+	 * Shows the question at the given position with its answer options in
+	 * a random order.
 	 * 
-	 * @param question
+	 * @param question position of the question in the exercise.
 	 */
-	private void setQuestionValues(Question question) {
-		this.setCaption("QUESTION " + (questionLibrary.indexOf(question) + 1));
+	private void setQuestionValues(int question) {
+		this.setCaption("QUESTION " + (question + 1));
 		qLabel.addStyleName("question");
-		qLabel.setValue(question.getQuestion());
+		qLabel.setValue(exercise.getQuestion(question));
 		optionGroup.removeAllItems();
-		ArrayList<String>answers = question.getIncorrectAnswers();
-		answers.addAll(question.getCorrectAnswers());
-		java.util.Collections.shuffle(answers);
-		for (String answer : answers) {
-			optionGroup.addItem(answer);
+		optionGroup.setMultiSelect(exercise.isMultiSelect(question));
+		int count = exercise.getOptionCount(question);
+		ArrayList<Integer> options = new ArrayList<Integer>(count);
+		for (int i = 0; i < count; i++) {
+			options.add(i);
+		}
+		Collections.shuffle(options);
+		for (Integer option : options) {
+			optionGroup.addItem(option);
+			optionGroup.setItemCaption(option, exercise.getOption(question, option));
 		}
 		optionGroup.setEnabled(true);
+		questionShownAt = System.currentTimeMillis();
 		if (!this.isSkippingAllowed()) {
 			this.nextButton.setEnabled(false);
 		}
@@ -232,9 +295,9 @@ public class QuestionWindow extends Window {
 	/**
 	 * Sets the question values for the question given.
 	 * 
-	 * @param question question to be asked.
+	 * @param question position of the question to be asked.
 	 */
-	private void askQuestion(Question question) {
+	private void askQuestion(int question) {
 		setQuestionValues(question);
 	}
 
@@ -249,7 +312,8 @@ public class QuestionWindow extends Window {
 			@Override
 			public void buttonClick(ClickEvent event) {
 				if (optionGroup.getValue() != null) {
-					currentQuestion.setGivenAnswers(getGivenAnswer());
+					answerSheet.setAnswer(currentQuestion, getGivenAnswer());
+					answerSheet.setAnswerTime(currentQuestion, System.currentTimeMillis() - questionShownAt);
 				}
 				submitButton.setEnabled(false);
 				optionGroup.setEnabled(false);
@@ -264,15 +328,14 @@ public class QuestionWindow extends Window {
 
 			@Override
 			public void buttonClick(ClickEvent event) {
-				currentQuestion = questionLibrary.getNextUnanswerded(currentQuestion);
-				if (currentQuestion != null && currentQuestion.getTime() == currentTimeSlot) {
+				currentQuestion = answerSheet.getNextUnanswered(currentQuestion);
+				if (currentQuestion >= 0 && exercise.getTime(currentQuestion) == currentTimeSlot) {
 					askQuestion(currentQuestion);
 					//				nextButton.setEnabled(false);
 				} else {
 					evtMngr.callListeners(QuestionEventListener.TIMESLOT_FINISHED_EVENT, QuestionWindow.this, currentTimeSlot);
 					hide();
 				}
-				System.out.println(questionLibrary.get(0));
 				submitButton.setEnabled(false);
 			}
 		});
@@ -290,20 +353,19 @@ public class QuestionWindow extends Window {
 	}
 
 	/**
-	 * Returns a list of the given answer(s) for the question.
+	 * Returns the given answer(s) for the question.
 	 * 
-	 * @return a list of given answer choices.
+	 * @return a bitmask of the given answer options.
 	 */
 	@SuppressWarnings("unchecked")
-	private ArrayList<String> getGivenAnswer() {
-		ArrayList<String> answers = new ArrayList<String>();
+	private long getGivenAnswer() {
+		long answers = 0L;
 		if (this.optionGroup.isMultiSelect()) {
-			//System.out.println(optionGroup.getValue());
-			answers.addAll((Collection<String>) optionGroup.getValue());
+			for (Integer option : (Collection<Integer>) optionGroup.getValue()) {
+				answers |= 1L << option;
+			}
 		} else {
-			//System.out.println(optionGroup.getValue());
-			answers.add((String)optionGroup.getValue());
-
+			answers |= 1L << (Integer) optionGroup.getValue();
 		}
 		return answers;
 	}
@@ -311,12 +373,12 @@ public class QuestionWindow extends Window {
 	/**
 	 * Sets a Notification about the correctness of the given answer to the browser window.
 	 * 
-	 * @param question latest answered question.
+	 * @param question position of the latest answered question.
 	 */
-	private void informUser(Question question) {
+	private void informUser(int question) {
 		if (this.isInformative()) {
 			Notification n;
-			if (question.isCorrectAnswer()) {
+			if (answerSheet.isCorrectAnswer(question)) {
 				n = new Notification("CORRECT", Notification.Type.HUMANIZED_MESSAGE);
 				n.setIcon(new ThemeResource(SPH_Theme.CORRECT_ICON_48PX));
 				n.setStyleName("correctAnswer");
@@ -325,8 +387,8 @@ public class QuestionWindow extends Window {
 				n.setIcon(new ThemeResource(SPH_Theme.INCORRECT_ICON_48PX));
 				n.setStyleName("incorrectAnswer");
 			}
-			if (question.containsAnswerDescription()) {
-				n.setDescription(question.getAnswerDescription());
+			if (exercise.containsAnswerDescription(question)) {
+				n.setDescription(exercise.getAnswerDescription(question));
 				n.setDelayMsec(Notification.DELAY_FOREVER);
 			} else {
 				n.setDelayMsec(500);
@@ -366,7 +428,7 @@ public class QuestionWindow extends Window {
 	 * <p><strong>copyright &copy; Ville-Video 2013</strong></p>
 	 *
 	 * @author  <a href="mailto:sami.holck@gmail.com">Sami Holck</a>
-	 * @author  Juha Mkil
+	 * @author  Juha Mäkilä
 	 * @version 1.0
 	 * @since   10.11.2013
 	 */
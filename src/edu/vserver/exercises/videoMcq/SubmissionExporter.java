@@ -0,0 +1,289 @@
+/**
+ * <p><b>Copyright 2013 Juha Mäkilä and Sami Holck</b></p>
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at</p>
+ * 
+ *     <a href="http://www.apache.org/licenses/LICENSE-2.0"
+ *     target="_new">http://www.apache.org/licenses/LICENSE-2.0</a>
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.</p>
+ */
+package edu.vserver.exercises.videoMcq;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+import edu.vserver.exercises.model.StatisticalSubmissionInfo;
+
+/**
+ * SubmissionExporter writes the answers of the submissions to an exercise as
+ * one row per submission and question.
+ *
+ * <p>The rows are formatted in parallel in chunks of submissions and written
+ * in the order of the submissions. Only a bounded window of formatted chunks
+ * is held in memory, so the export does not grow with the number of the
+ * submissions. Submissions made to a different version of the exercise (see
+ * {@link CompiledExercise#getFingerprint()}) are not exported.</p>
+ *
+ * <p>Each row has the position of the submission in the exported list and
+ * the time the submission was done (milliseconds since the epoch), the
+ * position and the time of the question, whether the question was answered
+ * and answered correctly, the positions (from 1) and the texts of the given
+ * answer options, the score of the question and the answer time in
+ * milliseconds (empty or null if not known). In CSV the positions and the
+ * texts are separated by <code>|</code>, and a <code>|</code> or a
+ * <code>\</code> in a text is escaped with a <code>\</code>; in NDJSON
+ * they are arrays.</p>
+ *
+ * <p><strong>copyright &copy; Ville-Video 2013</strong></p>
+ *
+ * @version 0.1
+ * @since   17.10.2026
+ */
+public final class SubmissionExporter {
+
+	/**
+	 * The export formats.
+	 */
+	public enum Format {
+		/**
+		 * Comma separated values with a header line (RFC 4180).
+		 */
+		CSV,
+		/**
+		 * Newline delimited JSON: one JSON object per line.
+		 */
+		NDJSON
+	}
+
+	private static final String[] COLUMNS = { "submission", "doneTime", "question", "time", "answered", "correct", "options", "answers", "score", "answerTime" };
+
+	/**
+	 * the number of the submissions formatted in one task
+	 */
+	private static final int CHUNK_SIZE = 64;
+
+	private final CompiledExercise exercise;
+	private final Format format;
+
+	/**
+	 * Constructs an exporter of the submissions to the given exercise.
+	 *
+	 * @param exercise the answered exercise.
+	 * @param format the export format.
+	 */
+	public SubmissionExporter(CompiledExercise exercise, Format format) {
+		this.exercise = exercise;
+		this.format = format;
+	}
+
+	/**
+	 * Writes the submissions to the given stream as UTF-8. The stream is
+	 * flushed but not closed.
+	 *
+	 * @param  submissions the submissions to the exercise.
+	 * @param  out the stream to write to.
+	 * @throws IOException if writing fails.
+	 */
+	public void export(List<StatisticalSubmissionInfo<VideoMcqSubmissionInfo>> submissions, OutputStream out) throws IOException {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(out, "UTF-8"));
+		export(submissions, writer);
+		writer.flush();
+	}
+
+	/**
+	 * Writes the submissions to the given output.
+	 *
+	 * @param  submissions the submissions to the exercise.
+	 * @param  out the output to write to.
+	 * @throws IOException if writing fails.
+	 */
+	public void export(List<StatisticalSubmissionInfo<VideoMcqSubmissionInfo>> submissions, Appendable out) throws IOException {
+		if (!(submissions instanceof RandomAccess)) {
+			submissions = new ArrayList<StatisticalSubmissionInfo<VideoMcqSubmissionInfo>>(submissions);
+		}
+		if (this.format == Format.CSV) {
+			for (int i = 0; i < COLUMNS.length; i++) {
+				out.append((i > 0) ? "," : "").append(COLUMNS[i]);
+			}
+			out.append("\r\n");
+		}
+		int window = 2 * ItemAnalysis.getPool().getParallelism();
+		Deque<ForkJoinTask<CharSequence>> pending = new ArrayDeque<ForkJoinTask<CharSequence>>(window);
+		for (int from = 0; from < submissions.size(); from += CHUNK_SIZE) {
+			if (pending.size() == window) {
+				out.append(pending.removeFirst().join());
+			}
+			pending.addLast(ItemAnalysis.getPool().submit(new ChunkTask(submissions, from, Math.min(from + CHUNK_SIZE, submissions.size()))));
+		}
+		while (!pending.isEmpty()) {
+			out.append(pending.removeFirst().join());
+		}
+	}
+
+	/**
+	 * Appends the rows of a submission.
+	 *
+	 * @param rows the formatted rows.
+	 * @param position the position of the submission in the exported list.
+	 * @param info the submission with its statistical information, or null.
+	 */
+	void appendRows(StringBuilder rows, int position, StatisticalSubmissionInfo<VideoMcqSubmissionInfo> info) {
+		VideoMcqSubmissionInfo subm = (info != null) ? info.getSubmissionData() : null;
+		if (subm == null || subm.getFingerprint() != exercise.getFingerprint() || subm.getQuestionCount() != exercise.size()) {
+			return;
+		}
+		long doneTime = info.getDoneTime();
+		StringBuilder options = new StringBuilder();
+		StringBuilder answers = new StringBuilder();
+		for (int q = 0; q < exercise.size(); q++) {
+			long answer = subm.getAnswer(q);
+			long correct = exercise.getCorrectMask(q);
+			options.setLength(0);
+			answers.setLength(0);
+			for (int o = 0; o < exercise.getOptionCount(q); o++) {
+				if ((answer & (1L << o)) != 0L) {
+					if (options.length() > 0) {
+						options.append((this.format == Format.CSV) ? '|' : ',');
+						answers.append((this.format == Format.CSV) ? '|' : ',');
+					}
+					options.append(o + 1);
+					if (this.format == Format.CSV) {
+						appendEscaped(answers, exercise.getOption(q, o));
+					} else {
+						appendJson(answers, exercise.getOption(q, o));
+					}
+				}
+			}
+			double score = (correct == 0L) ? 0 : (double) Long.bitCount(answer & correct) / Long.bitCount(correct);
+			boolean answered = answer != 0L;
+			boolean right = answered && (answer & ~correct) == 0L;
+			int answerTime = subm.getAnswerTime(q);
+			if (this.format == Format.CSV) {
+				rows.append(position).append(',').append(doneTime).append(',').append(q + 1).append(',').append(exercise.getTime(q))
+					.append(',').append(answered).append(',').append(right).append(',').append(options).append(',');
+				appendCsv(rows, answers);
+				rows.append(',').append(score).append(',');
+				if (answerTime > 0) {
+					rows.append(answerTime);
+				}
+				rows.append("\r\n");
+			} else {
+				rows.append("{\"submission\":").append(position)
+					.append(",\"doneTime\":").append(doneTime)
+					.append(",\"question\":").append(q + 1)
+					.append(",\"time\":").append(exercise.getTime(q))
+					.append(",\"answered\":").append(answered)
+					.append(",\"correct\":").append(right)
+					.append(",\"options\":[").append(options)
+					.append("],\"answers\":[").append(answers)
+					.append("],\"score\":").append(score).append(",\"answerTime\":");
+				if (answerTime > 0) {
+					rows.append(answerTime);
+				} else {
+					rows.append("null");
+				}
+				rows.append("}\n");
+			}
+		}
+	}
+
+	/**
+	 * Appends an option text with the option separator and the escape
+	 * character escaped with a backslash.
+	 */
+	private static void appendEscaped(StringBuilder out, String value) {
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '|' || c == '\\') {
+				out.append('\\');
+			}
+			out.append(c);
+		}
+	}
+
+	/**
+	 * Appends a CSV field, quoted if it contains a comma, a quote or a line break.
+	 */
+	private static void appendCsv(StringBuilder out, CharSequence value) {
+		boolean quote = false;
+		for (int i = 0; i < value.length() && !quote; i++) {
+			char c = value.charAt(i);
+			quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+		}
+		if (!quote) {
+			out.append(value);
+			return;
+		}
+		out.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"') {
+				out.append('"');
+			}
+			out.append(c);
+		}
+		out.append('"');
+	}
+
+	/**
+	 * Appends a JSON string.
+	 */
+	private static void appendJson(StringBuilder out, CharSequence value) {
+		out.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"' || c == '\\') {
+				out.append('\\').append(c);
+			} else if (c < 0x20) {
+				out.append(String.format("\\u%04x", (int) c));
+			} else {
+				out.append(c);
+			}
+		}
+		out.append('"');
+	}
+
+	/**
+	 * Formats the rows of a range of submissions.
+	 */
+	private final class ChunkTask extends RecursiveTask<CharSequence> {
+
+		private static final long serialVersionUID = 6402873184921170455L;
+
+		private final List<StatisticalSubmissionInfo<VideoMcqSubmissionInfo>> submissions;
+		private final int from;
+		private final int to;
+
+		ChunkTask(List<StatisticalSubmissionInfo<VideoMcqSubmissionInfo>> submissions, int from, int to) {
+			this.submissions = submissions;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected CharSequence compute() {
+			StringBuilder rows = new StringBuilder(64 * (this.to - this.from) * Math.max(1, exercise.size()));
+			for (int i = this.from; i < this.to; i++) {
+				appendRows(rows, i + 1, this.submissions.get(i));
+			}
+			return rows;
+		}
+	}
+}
@@ -29,7 +29,7 @@ import edu.vserver.standardutils.Localizer;
  * 
  * <p><strong>copyright &copy; Ville-Video 2013</strong></p>
  *
- * @author  Juha Mkil
+ * @author  Juha Mäkilä
  * @author  <a href="mailto:sami.holck@gmail.com">Sami Holck</a>
  * @version 2.1
  * @since   16.08.2013
@@ -220,7 +220,7 @@ public class VideoMcqEditor extends HorizontalLayout implements Editor<VideoMcqE
 	 * The action performed when the delete button gets clicked
 	 *
 	 * @author  <a href="mailto:sami.holck@gmail.com">Sami Holck</a>
-	 * @author  Juha Mkil
+	 * @author  Juha Mäkilä
 	 * @version 0.1
 	 * @since   8.11.2013
 	 */
@@ -33,13 +33,14 @@ import edu.vserver.standardutils.TempFilesManager;
  * 
  * <p><strong>copyright &copy; Ville-Video 2013</strong></p>
  *
- * @author  Juha Mkil
+ * @author  Juha Mäkilä
  * @author  <a href="mailto:sami.holck@gmail.com">Sami Holck</a>
  * @version 1.0
  * @since   16.10.2013
  */
 @com.vaadin.annotations.JavaScript({
-	"javascript/jquery-1.10.2.min.js",
+	/* the same published file as in Videojs, so jQuery is loaded only once */
+	"/sph/vaadin/ui/videojs/javascript/jquery-1.10.2.min.js",
 	"javascript/jquery-ui-1.10.3.custom.min.js",
 	"javascript/startButton.js"
 })
@@ -48,7 +49,8 @@ public class VideoMcqExecutor extends VerticalLayout implements Executor<VideoMc
 	private static final long serialVersionUID = 2682119786422750060L;
 	private final ExerciseExecutionHelper< VideoMcqSubmissionInfo > execHelper = new ExerciseExecutionHelper< VideoMcqSubmissionInfo >();
 	private VideoMcqExerciseData exerData;
-	private QuestionLibrary questionLibrary;
+	private CompiledExercise exercise;
+	private AnswerSheet answerSheet;
 	private VideoMcqSubmissionInfo submInfo;
 
 	private final HorizontalLayout videoLayout = new HorizontalLayout();
@@ -63,6 +65,12 @@ public class VideoMcqExecutor extends VerticalLayout implements Executor<VideoMc
 	private Button goToStartBtn;
 	private final QuestionDots questionDots = new QuestionDots();
 
+	/**
+	 * sends the questions of the upcoming time slot to the player, or null if disabled
+	 */
+	private QuestionPrefetcher prefetcher;
+	private boolean prefetchEnabled;
+
 	/**
 	 * false if exercise is not submitted and true if it is submitted.
 	 */
@@ -94,13 +102,42 @@ public class VideoMcqExecutor extends VerticalLayout implements Executor<VideoMc
 
 	}
 
+	/**
+	 * Indicates whether the questions are prepared in the video player ahead of time.
+	 *
+	 * @return true if the questions are prepared in the video player.
+	 */
+	public boolean isPrefetchEnabled() {
+		return prefetchEnabled;
+	}
+
+	/**
+	 * Sets whether the questions of the upcoming time slot are prepared in the
+	 * video player ahead of time. Prepared questions are shown by the player as
+	 * soon as the video pauses, and only the answers are sent to the server.
+	 * Disabled by default, so the questions are asked by the server unless the
+	 * embedding code enables the prefetch. Must be set before the executor is
+	 * initialized.
+	 *
+	 * @param prefetchEnabled whether the questions are prepared in the video player.
+	 */
+	public void setPrefetchEnabled(boolean prefetchEnabled) {
+		this.prefetchEnabled = prefetchEnabled;
+	}
+
 	@Override
 	public void initialize(Localizer localizer, VideoMcqExerciseData exerciseData, VideoMcqSubmissionInfo oldSubm,
 			TempFilesManager materials, ExecutionSettings fbSettings) throws ExerciseException {
 		this.exerData = exerciseData;
-		this.questionLibrary = exerData.getQuestionLibrary();
+		this.exercise = exerData.getCompiledExercise();
+		this.answerSheet = new AnswerSheet(this.exercise);
 		this.questionWindow.setInformative(this.exerData.isInstantResponse());
-		vjs.pauseAt(this.questionLibrary.getTimeSlots());
+		vjs.setCuePausingEnabled(true);
+		vjs.pauseAt(this.exercise.getTimeSlots());
+		if (this.prefetchEnabled) {
+			this.prefetcher = new QuestionPrefetcher(vjs, exercise, answerSheet);
+			this.prefetcher.setFeedbackEnabled(this.exerData.isInstantResponse());
+		}
 		if ( oldSubm == null ) {
 			this.submInfo = new VideoMcqSubmissionInfo();
 		}
@@ -115,6 +152,7 @@ public class VideoMcqExecutor extends VerticalLayout implements Executor<VideoMc
 	private void doLayout(VideoMcqExerciseData exerData) {
 		VerticalLayout exerLayout = new VerticalLayout();
 		exerLayout.setDefaultComponentAlignment(Alignment.TOP_CENTER);
+		vjs.setDeferredInitEnabled(true);
 		vjs.setSource(exerData.getVideoURL(), exerData.getMimeType());
 		vjs.mask();
 		vjs.minimalUserControlsEnabled(true);
@@ -134,10 +172,10 @@ public class VideoMcqExecutor extends VerticalLayout implements Executor<VideoMc
 		this.buildDotLayout();
 		exerLayout.addComponents(videoLayout, this.dotLayout, buttonLayout);
 
-		questionWindow.setQuestionLibrary(questionLibrary);
-		questionDots.draw(questionLibrary);
+		questionWindow.setExercise(exercise, answerSheet);
 		questionDots.setClickable(exerData.isSliderEnabled());
 		questionDots.setInformative(exerData.isInstantResponse());
+		questionDots.draw(exercise, answerSheet);
 
 		this.addComponent(exerLayout);
 
@@ -167,13 +205,15 @@ public class VideoMcqExecutor extends VerticalLayout implements Executor<VideoMc
 		//askingEnabled = true;
 		//submInfo.setPoints(0);
 		//submInfo.increaseTries();
-		questionLibrary.resetGivenAnswers();
-		vjs.clearPauseAtList();
-		vjs.pauseAt(this.questionLibrary.getTimeSlots());
+		answerSheet.reset();
+		if (prefetcher != null) {
+			prefetcher.clear();
+		}
+		vjs.pauseAt(this.exercise.getTimeSlots());
 		vjs.seekTo(0);
 		vjs.mask();
 		execHelper.informResetDefault();
-		questionDots.draw(this.questionLibrary);
+		questionDots.refresh();
 		goToStartBtn.setEnabled(true);
 		fullWindowButton.setEnabled(true);
 		JavaScript.getCurrent().execute("VideoMcqExecutor.showStartButton();");
@@ -186,9 +226,14 @@ public class VideoMcqExecutor extends VerticalLayout implements Executor<VideoMc
 
 	@Override
 	public void askSubmit(SubmissionType submType) {
-		double score = questionLibrary.getScore();
+		double score = answerSheet.getScore();
 		setAskingEnabled(false);
-		execHelper.informOnlySubmit(score, new VideoMcqSubmissionInfo(questionWindow.getQuestionLibrary()), submType, null );
+		VideoMcqSubmissionInfo submission = new VideoMcqSubmissionInfo(exercise, answerSheet.copy());
+		execHelper.informOnlySubmit(score, submission, submType, null );
+		if (submType == SubmissionType.NORMAL) {
+			// test runs and previews are not stored with the submissions
+			ItemStatisticsRegistry.INSTANCE.record(exercise, submission);
+		}
 		vjs.pause();
 		vjs.mask("Exercise completed!");
 
@@ -215,9 +260,8 @@ public class VideoMcqExecutor extends VerticalLayout implements Executor<VideoMc
 				@Override
 				public void on(String eventName, SvgDots canvas, Integer dotIndex) {
 					if (isAskingEnabled()) {
-						SvgDots.Dot dot = canvas.getDot(dotIndex);
-						Question q = (Question) dot.getData();
-						vjs.seekTo(q.getTime());
+						int question = (Integer) canvas.getDotData(dotIndex);
+						vjs.seekTo(exercise.getTime(question));
 					}
 				}
 			});
@@ -240,11 +284,15 @@ public class VideoMcqExecutor extends VerticalLayout implements Executor<VideoMc
 			@Override
 			public void buttonClick(ClickEvent event) {
 				JavaScript.getCurrent().execute("VideoMcqExecutor.hideStartButton();");
+				vjs.initPlayer();
 				vjs.unmask();
 				setAskingEnabled(true);
 				if (!questionWindow.ask(0)) {
 					vjs.play();
 				}
+				if (prefetcher != null) {
+					prefetcher.prefetchNext(0);
+				}
 			}
 		});
 		fullWindowButton.addClickListener(new Button.ClickListener() {
@@ -264,7 +312,9 @@ public class VideoMcqExecutor extends VerticalLayout implements Executor<VideoMc
 			public void on(String eventName, Videojs source, Double triggerTime) {
 				if (isAskingEnabled()) {
 					//System.out.println("PAUSED at time: " + triggerTime);
-					questionWindow.ask(triggerTime.intValue());
+					if (prefetcher == null || !prefetcher.isPrepared(triggerTime.intValue())) {
+						questionWindow.ask(triggerTime.intValue());
+					}
 				}
 			}
 		});
@@ -274,14 +324,17 @@ public class VideoMcqExecutor extends VerticalLayout implements Executor<VideoMc
 
 			@Override
 			public void on(String eventName, QuestionWindow source, Integer timeSlot) {
-				if (!questionLibrary.containsUnansweredInTimeSlot(timeSlot)) {
+				if (!answerSheet.containsUnansweredInTimeSlot(timeSlot)) {
 					vjs.removePauseAtTime(timeSlot);
-					if (!questionLibrary.containsUnanswerded()) {
+					if (!answerSheet.containsUnanswered()) {
 						exerciseFinished();
 					}
 				}
-				questionDots.draw(questionWindow.getQuestionLibrary());
+				questionDots.refresh();
 				vjs.play();
+				if (prefetcher != null) {
+					prefetcher.prefetchNext(timeSlot + 1);
+				}
 			}
 		});
 		questionWindow.addQuestionEventListener(QuestionWindow.QuestionEventListener.QUESTION_FINISHED_EVENT,
@@ -291,9 +344,56 @@ public class VideoMcqExecutor extends VerticalLayout implements Executor<VideoMc
 
 			@Override
 			public void on(String eventName, QuestionWindow source, Integer timeSlot) {
-				questionDots.draw(source.getQuestionLibrary());
+				questionDots.refresh();
 			}
 		});
+		if (this.prefetcher != null) {
+			vjs.addPromptListener(Videojs.PromptListener.PROMPT_ANSWERED_EVENT, new Videojs.PromptListener() {
+
+				private static final long serialVersionUID = -3022843786013452106L;
+
+				@Override
+				public void on(String eventName, Videojs source, Videojs.PromptAnswer answer) {
+					int question = prefetcher.getQuestion(answer.getPromptId());
+					if (question < 0) {
+						return;
+					}
+					long options = 0L;
+					for (int position : answer.getOptions()) {
+						int option = prefetcher.getOption(question, position);
+						if (option < 0) {
+							return;
+						}
+						options |= 1L << option;
+					}
+					if (!isAskingEnabled() || options == 0L) {
+						return;
+					}
+					if (answer.getAnswerTime() >= 0) {
+						answerSheet.setAnswerTime(question, answer.getAnswerTime());
+					}
+					if (prefetcher.isFeedbackEnabled()) {
+						questionWindow.recordAnswer(question, options);
+						prefetcher.sendFeedback(question);
+					} else {
+						questionWindow.submitAnswer(question, options);
+					}
+				}
+			});
+			vjs.addPromptListener(Videojs.PromptListener.PROMPTS_FINISHED_EVENT, new Videojs.PromptListener() {
+
+				private static final long serialVersionUID = 5870452631779407283L;
+
+				@Override
+				public void on(String eventName, Videojs source, Videojs.PromptAnswer answer) {
+					int timeSlot = (int) answer.getTime();
+					prefetcher.release(timeSlot);
+					if (isAskingEnabled()) {
+						questionWindow.finishTimeSlot(timeSlot);
+					}
+				}
+			});
+		}
 		this.registerSubmitListener(new SubmissionListener<VideoMcqSubmissionInfo>() {
 
 			private static final long serialVersionUID = 3956036740947573677L;
@@ -314,7 +414,7 @@ public class VideoMcqExecutor extends VerticalLayout implements Executor<VideoMc
 		System.out.println("All questions asked");
 		goToStartBtn.setEnabled(false);
 		fullWindowButton.setEnabled(false);
-		Notification n = new Notification("All " + questionLibrary.size() + " questions are answered!",
+		Notification n = new Notification("All " + exercise.size() + " questions are answered!",
 				Notification.Type.TRAY_NOTIFICATION);
 		n.setIcon(new ThemeResource(SPH_Theme.INFO_ICON_24PX));
 		n.setDelayMsec(500);
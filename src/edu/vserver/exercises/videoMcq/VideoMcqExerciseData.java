@@ -1,12 +1,15 @@
 package edu.vserver.exercises.videoMcq;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+
 import edu.vserver.exercises.model.ExerciseData;
 
 /**
  * VideoMcqExerciseData has all the required data to create a specified Video exercise.
  * 
  * @author  <a href="mailto:sami.holck@gmail.com">Sami Holck</a>
- * @author Juha Mkil
+ * @author Juha Mäkilä
  * @version v2.0
  * @since 17.10.2013
  * 
@@ -22,6 +25,10 @@ public class VideoMcqExerciseData implements ExerciseData {
 	private boolean sliderEnabled;
 	private boolean instantResponse;
 
+	private transient CompiledExercise compiledExercise;
+	private transient QuestionLibrary compiledLibrary;
+	private transient int compiledModCount;
+
 	/**
 	 * 
 	 */
@@ -108,12 +115,37 @@ public class VideoMcqExerciseData implements ExerciseData {
 		this.exerName = exerName;
 	}
 
+	/**
+	 * Constructs exercise data backed by a shared compiled exercise. The
+	 * question library is built from the compiled exercise only when requested.
+	 * 
+	 * @param videoURL the URL of the video stream.
+	 * @param mimeType the MIME type of the video stream.
+	 * @param name the name of the exercise.
+	 * @param exercise the compiled questions.
+	 * @param sliderEnabled whether the slider is enabled.
+	 * @param instantResponse whether the instant response is enabled.
+	 */
+	VideoMcqExerciseData(String videoURL, String mimeType, String name, CompiledExercise exercise, boolean sliderEnabled, boolean instantResponse) {
+		this.videoURL = videoURL;
+		this.mimeType = mimeType;
+		this.exerName = name;
+		this.compiledExercise = exercise;
+		this.sliderEnabled = sliderEnabled;
+		this.instantResponse = instantResponse;
+	}
+
 	/**
 	 * Returns the library holding all the questions.
 	 *
 	 * @return the library holding all the questions.
 	 */
-	public final QuestionLibrary getQuestionLibrary() {
+	public final synchronized QuestionLibrary getQuestionLibrary() {
+		if (questionLibrary == null && compiledExercise != null) {
+			questionLibrary = compiledExercise.toQuestionLibrary(null);
+			compiledLibrary = questionLibrary;
+			compiledModCount = questionLibrary.getModificationCount();
+		}
 		return questionLibrary;
 	}
 
@@ -122,8 +154,38 @@ public class VideoMcqExerciseData implements ExerciseData {
 	 *
 	 * @param questionLibrary the library holding all the questions to set.
 	 */
-	public final void setQuestionLibrary(QuestionLibrary questionLibrary) {
+	public final synchronized void setQuestionLibrary(QuestionLibrary questionLibrary) {
 		this.questionLibrary = questionLibrary;
+		if (questionLibrary == null) {
+			this.compiledExercise = null;
+		}
+	}
+
+	/**
+	 * Returns the compiled form of the question library shared by all the
+	 * executions of this exercise.
+	 *
+	 * <p>The compiled exercise is cached and compiled again only after the
+	 * library has been replaced or questions have been added, removed or
+	 * replaced in it. Without a library the exercise has no questions.</p>
+	 *
+	 * @return the compiled form of the question library.
+	 */
+	public final synchronized CompiledExercise getCompiledExercise() {
+		if (this.questionLibrary == null) {
+			if (this.compiledExercise == null) {
+				this.compiledExercise = new CompiledExercise(new QuestionLibrary());
+			}
+			return this.compiledExercise;
+		}
+		QuestionLibrary library = this.questionLibrary;
+		int modCount = library.getModificationCount();
+		if (this.compiledExercise == null || this.compiledLibrary != library || this.compiledModCount != modCount) {
+			this.compiledExercise = new CompiledExercise(library);
+			this.compiledLibrary = library;
+			this.compiledModCount = modCount;
+		}
+		return this.compiledExercise;
 	}
 
 	/**
@@ -172,18 +234,21 @@ public class VideoMcqExerciseData implements ExerciseData {
 	}
 
 	/**
+	 * Returns a hash code of the settings and the question library. The
+	 * questions are never compiled for it.
 	 *
 	 * @return
 	 * @see java.lang.Object#hashCode()
 	 */
 	@Override
 	public int hashCode() {
+		QuestionLibrary library = getQuestionLibrary();
 		final int prime = 31;
 		int result = 1;
 		result = prime * result + ((exerName == null) ? 0 : exerName.hashCode());
 		result = prime * result + (instantResponse ? 1231 : 1237);
 		result = prime * result + ((mimeType == null) ? 0 : mimeType.hashCode());
-		result = prime * result + ((questionLibrary == null) ? 0 : questionLibrary.hashCode());
+		result = prime * result + ((library == null) ? 0 : library.hashCode());
 		result = prime * result + (sliderEnabled ? 1231 : 1237);
 		result = prime * result + ((videoURL == null) ? 0 : videoURL.hashCode());
 		return result;
@@ -224,11 +289,13 @@ public class VideoMcqExerciseData implements ExerciseData {
 		} else if (!mimeType.equals(other.mimeType)) {
 			return false;
 		}
-		if (questionLibrary == null) {
-			if (other.questionLibrary != null) {
+		QuestionLibrary library = getQuestionLibrary();
+		QuestionLibrary otherLibrary = other.getQuestionLibrary();
+		if (library == null) {
+			if (otherLibrary != null) {
 				return false;
 			}
-		} else if (!questionLibrary.equals(other.questionLibrary)) {
+		} else if (!library.equals(otherLibrary)) {
 			return false;
 		}
 		if (sliderEnabled != other.sliderEnabled) {
@@ -244,4 +311,16 @@ public class VideoMcqExerciseData implements ExerciseData {
 		return true;
 	}
 
-}
\ No newline at end of file
+	/**
+	 * Builds the question library of exercise data backed by a compiled
+	 * exercise before writing it.
+	 *
+	 * @param  out the stream to write to.
+	 * @throws IOException if an I/O error occurs.
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		getQuestionLibrary();
+		out.defaultWriteObject();
+	}
+
+}
@@ -0,0 +1,217 @@
+/**
+ * <p><b>Copyright 2013 Juha Mäkilä and Sami Holck</b></p>
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at</p>
+ * 
+ *     <a href="http://www.apache.org/licenses/LICENSE-2.0"
+ *     target="_new">http://www.apache.org/licenses/LICENSE-2.0</a>
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.</p>
+ */
+package edu.vserver.exercises.videoMcq;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+
+/**
+ * Binary format of the stored {@link VideoMcqSubmissionInfo submissions}.
+ *
+ * <p>A submission stores only what differs between the students, the
+ * exercise itself is identified by its {@link CompiledExercise#getFingerprint()
+ * fingerprint}:</p>
+ *
+ * <pre>
+ * magic          3 bytes  'V' 'M' 'S'
+ * version        1 byte
+ * fingerprint    8 bytes
+ * question count varint
+ * answered count varint
+ * score          8 bytes  (IEEE 754 double)
+ * answers        answered count times:
+ *                  position gap  varint (position - previous position - 1)
+ *                  answer mask   varint (bitmask of the answer options)
+ *                  answer time   varint (milliseconds, 0 if unknown)
+ * </pre>
+ *
+ * <p>Submissions stored with Java serialization before this format are
+ * still read.</p>
+ *
+ * <p><strong>copyright &copy; Ville-Video 2013</strong></p>
+ *
+ * @version 0.1
+ * @since   17.10.2026
+ */
+final class VideoMcqSubmissionCodec {
+
+	private static final byte[] MAGIC = { 'V', 'M', 'S' };
+	private static final int VERSION = 1;
+
+	/**
+	 * The first two bytes of a Java serialization stream.
+	 */
+	private static final int SERIALIZATION_MAGIC = 0xACED;
+
+	private VideoMcqSubmissionCodec() {
+	}
+
+	/**
+	 * Encodes a submission.
+	 *
+	 * @param  subm the submission to encode.
+	 * @return the encoded submission.
+	 * @throws IOException if encoding fails.
+	 */
+	static byte[] encode(VideoMcqSubmissionInfo subm) throws IOException {
+		int count = subm.getQuestionCount();
+		int answered = 0;
+		for (int i = 0; i < count; i++) {
+			if (subm.getAnswer(i) != 0L) {
+				answered++;
+			}
+		}
+		ByteArrayOutputStream bytesOut = new ByteArrayOutputStream(24 + 4 * answered);
+		DataOutputStream out = new DataOutputStream(bytesOut);
+		out.write(MAGIC);
+		out.writeByte(VERSION);
+		out.writeLong(subm.getFingerprint());
+		writeVarLong(out, count);
+		writeVarLong(out, answered);
+		out.writeDouble(subm.getScore());
+		int previous = -1;
+		for (int i = 0; i < count; i++) {
+			long answer = subm.getAnswer(i);
+			if (answer != 0L) {
+				writeVarLong(out, i - previous - 1);
+				writeVarLong(out, answer);
+				writeVarLong(out, subm.getAnswerTime(i));
+				previous = i;
+			}
+		}
+		out.flush();
+		return bytesOut.toByteArray();
+	}
+
+	/**
+	 * Decodes a submission.
+	 *
+	 * <p>The returned submission is not bound to its exercise, unless it was
+	 * stored with Java serialization.</p>
+	 *
+	 * @param  data the encoded submission.
+	 * @return the decoded submission.
+	 * @throws IOException if the data is not a valid submission.
+	 * @throws ClassNotFoundException if a serialized submission refers to an unknown class.
+	 */
+	static VideoMcqSubmissionInfo decode(byte[] data) throws IOException, ClassNotFoundException {
+		if (data.length >= 2 && ((data[0] & 0xff) << 8 | (data[1] & 0xff)) == SERIALIZATION_MAGIC) {
+			ObjectInputStream objIn = new ObjectInputStream(new ByteArrayInputStream(data));
+			return (VideoMcqSubmissionInfo) objIn.readObject();
+		}
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+		readMagic(in);
+		long fingerprint = in.readLong();
+		int count = readCount(in, Integer.MAX_VALUE);
+		int answered = readCount(in, count);
+		double score = in.readDouble();
+		long[] answers = new long[count];
+		int[] answerTimes = new int[count];
+		int position = -1;
+		for (int i = 0; i < answered; i++) {
+			position += readCount(in, count) + 1;
+			if (position >= count) {
+				throw new IOException("Answer position out of range: " + position);
+			}
+			answers[position] = readVarLong(in);
+			answerTimes[position] = readCount(in, Integer.MAX_VALUE);
+		}
+		return new VideoMcqSubmissionInfo(fingerprint, answers, answerTimes, score);
+	}
+
+	/**
+	 * Reads only the summary in the header of a submission. The answers are
+	 * decoded when the returned submission first needs them.
+	 *
+	 * <p>A submission stored with Java serialization has no header; it is
+	 * decoded at once and only its answers are kept (see
+	 * {@link VideoMcqSubmissionInfo#unbound()}).</p>
+	 *
+	 * @param  data the encoded submission.
+	 * @return the submission holding the data and its summary.
+	 * @throws IOException if the data is not a valid submission.
+	 * @throws ClassNotFoundException if a serialized submission refers to an unknown class.
+	 */
+	static VideoMcqSubmissionInfo decodeSummary(byte[] data) throws IOException, ClassNotFoundException {
+		if (data.length >= 2 && ((data[0] & 0xff) << 8 | (data[1] & 0xff)) == SERIALIZATION_MAGIC) {
+			return decode(data).unbound();
+		}
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+		readMagic(in);
+		long fingerprint = in.readLong();
+		int count = readCount(in, Integer.MAX_VALUE);
+		int answered = readCount(in, count);
+		double score = in.readDouble();
+		return new VideoMcqSubmissionInfo(data, fingerprint, count, answered, score);
+	}
+
+	/**
+	 * Reads the magic and checks the version of a submission.
+	 */
+	private static void readMagic(DataInputStream in) throws IOException {
+		for (byte b : MAGIC) {
+			if (in.readByte() != b) {
+				throw new IOException("Not a VideoMcq submission");
+			}
+		}
+		int version = in.readUnsignedByte();
+		if (version != VERSION) {
+			throw new IOException("Unsupported VideoMcq submission version: " + version);
+		}
+	}
+
+	/**
+	 * Writes an unsigned variable-length integer, seven bits per byte.
+	 */
+	private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+		while ((value & ~0x7FL) != 0L) {
+			out.writeByte((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.writeByte((int) value);
+	}
+
+	/**
+	 * Reads an unsigned variable-length integer, seven bits per byte.
+	 */
+	private static long readVarLong(DataInputStream in) throws IOException {
+		long value = 0L;
+		for (int shift = 0; shift < Long.SIZE; shift += 7) {
+			int b = in.readUnsignedByte();
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("Malformed variable-length integer");
+	}
+
+	/**
+	 * Reads a variable-length count and checks that it does not exceed the given maximum.
+	 */
+	private static int readCount(DataInputStream in, int max) throws IOException {
+		long value = readVarLong(in);
+		if (value < 0 || value > max) {
+			throw new IOException("Count out of range: " + value);
+		}
+		return (int) value;
+	}
+}
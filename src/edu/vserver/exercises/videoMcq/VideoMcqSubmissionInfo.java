@@ -1,11 +1,29 @@
 package edu.vserver.exercises.videoMcq;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+
 import edu.vserver.exercises.model.SubmissionInfo;
 
 /**
  * Submission info
- * 
- * @author  Juha Mkil
+ *
+ * <p>The submission consists of the {@link CompiledExercise compiled exercise}
+ * and the {@link AnswerSheet answer sheet} of the student. The question library
+ * view of the submission is built only when requested.</p>
+ *
+ * <p>A submission loaded from storage holds only the fingerprint of the
+ * exercise, the given answers, their answer times and the score (see
+ * {@link VideoMcqSubmissionCodec}).
+ * It must be {@link #bind(CompiledExercise) bound} to the exercise before the
+ * exercise, the answer sheet or the question library can be accessed.</p>
+ *
+ * <p>A submission loaded for the statistics holds only the stored bytes and
+ * the summary read from their header (the fingerprint, the score and the
+ * numbers of the questions and the given answers). The answers are decoded
+ * on the first access.</p>
+ *
+ * @author  Juha Mäkilä
  * @author  <a href="mailto:sami.holck@gmail.com">Sami Holck</a>
  * @version 1.01
  * @since   16.10.2013
@@ -14,38 +32,310 @@ public class VideoMcqSubmissionInfo implements SubmissionInfo {
 
 	private static final long serialVersionUID = 8702870727095225372L;
 
-	private final QuestionLibrary questionLibrary;
+	private CompiledExercise exercise;
+	private AnswerSheet answerSheet;
+
+	/**
+	 * The question library of the submission. Only present in submissions
+	 * serialized before the exercise and the answer sheet were separated.
+	 */
+	private QuestionLibrary questionLibrary;
+
+	private long fingerprint;
+	private long[] answers;
+	/**
+	 * the answer times in milliseconds, 0 if unknown
+	 */
+	private int[] answerTimes;
+	private double score;
+	private int questionCount;
+	private int answeredCount;
+
+	/**
+	 * The stored form of the answers until they are decoded.
+	 */
+	private byte[] encoded;
+
+	private transient QuestionLibrary answeredLibrary;
 
 	/**
 	 * Constructs an empty submission info.
 	 */
 	public VideoMcqSubmissionInfo() {
-		this.questionLibrary = new QuestionLibrary();
+		this(new QuestionLibrary());
 	}
+
 	/**
 	 * Constructs a submission info containing a question library.
-	 * 
+	 *
 	 * @param questioLibrary the question library of this submission info.
 	 */
 	public VideoMcqSubmissionInfo(QuestionLibrary questioLibrary) {
-		this.questionLibrary = questioLibrary;
+		this.exercise = new CompiledExercise(questioLibrary);
+		this.answerSheet = new AnswerSheet(this.exercise, questioLibrary);
+	}
+
+	/**
+	 * Constructs a submission info containing the given answers to an exercise.
+	 *
+	 * @param exercise the answered exercise.
+	 * @param answerSheet the answers of the student.
+	 */
+	public VideoMcqSubmissionInfo(CompiledExercise exercise, AnswerSheet answerSheet) {
+		this.exercise = exercise;
+		this.answerSheet = answerSheet;
+	}
+
+	/**
+	 * Constructs a submission info that is not yet bound to its exercise.
+	 *
+	 * @param fingerprint the fingerprint of the answered exercise.
+	 * @param answers the bitmasks of the given answer options by question position.
+	 * @param answerTimes the answer times in milliseconds by question position, 0 if not known.
+	 * @param score the percentage of the correct given answers.
+	 */
+	VideoMcqSubmissionInfo(long fingerprint, long[] answers, int[] answerTimes, double score) {
+		this.fingerprint = fingerprint;
+		this.answers = answers;
+		this.answerTimes = answerTimes;
+		this.score = score;
+		this.questionCount = answers.length;
+		for (long answer : answers) {
+			if (answer != 0L) {
+				this.answeredCount++;
+			}
+		}
+	}
+
+	/**
+	 * Constructs a submission info whose answers are decoded from the stored
+	 * form only when they are accessed.
+	 *
+	 * @param encoded the stored submission.
+	 * @param fingerprint the fingerprint of the answered exercise.
+	 * @param questionCount the number of the questions in the answered exercise.
+	 * @param answeredCount the number of the answered questions.
+	 * @param score the percentage of the correct given answers.
+	 * @see   VideoMcqSubmissionCodec#decodeSummary(byte[])
+	 */
+	VideoMcqSubmissionInfo(byte[] encoded, long fingerprint, int questionCount, int answeredCount, double score) {
+		this.encoded = encoded;
+		this.fingerprint = fingerprint;
+		this.questionCount = questionCount;
+		this.answeredCount = answeredCount;
+		this.score = score;
+	}
+
+	/**
+	 * Returns an unbound copy of a bound submission holding only the
+	 * fingerprint, the answers, the answer times and the score. The copy does not keep the
+	 * exercise, the answer sheet or the question library alive.
+	 *
+	 * @return an unbound copy of this submission, or this submission if it is not bound.
+	 */
+	VideoMcqSubmissionInfo unbound() {
+		if (this.exercise == null) {
+			return this;
+		}
+		long[] given = new long[this.exercise.size()];
+		int[] times = new int[given.length];
+		for (int i = 0; i < given.length; i++) {
+			given[i] = this.answerSheet.getAnswer(i);
+			times[i] = this.answerSheet.getAnswerTime(i);
+		}
+		return new VideoMcqSubmissionInfo(this.exercise.getFingerprint(), given, times, this.answerSheet.getScore());
+	}
+
+	/**
+	 * Decodes the stored answers on the first access.
+	 */
+	private synchronized void decodeAnswers() {
+		if (this.encoded != null) {
+			try {
+				VideoMcqSubmissionInfo decoded = VideoMcqSubmissionCodec.decode(this.encoded);
+				this.answers = decoded.answers;
+				this.answerTimes = decoded.answerTimes;
+			} catch (IOException e) {
+				throw new IllegalStateException("Corrupted VideoMcq submission", e);
+			} catch (ClassNotFoundException e) {
+				throw new IllegalStateException("Corrupted VideoMcq submission", e);
+			}
+			this.encoded = null;
+		}
+	}
+
+	/**
+	 * Binds a loaded submission to the exercise it was made to.
+	 *
+	 * <p>The submission is bound only to an exercise with the same fingerprint.
+	 * A submission made to an earlier version of the exercise stays unbound
+	 * and keeps its stored fingerprint, answers and score.</p>
+	 *
+	 * @param  exercise the answered exercise.
+	 * @return true if the submission is bound to an exercise with the same
+	 *         fingerprint; false if the exercise has changed.
+	 */
+	public boolean bind(CompiledExercise exercise) {
+		if (this.exercise == null) {
+			if (this.fingerprint != exercise.getFingerprint()) {
+				return false;
+			}
+			decodeAnswers();
+			if (this.answers.length != exercise.size()) {
+				return false;
+			}
+			AnswerSheet sheet = new AnswerSheet(exercise);
+			for (int i = 0; i < this.answers.length; i++) {
+				int count = exercise.getOptionCount(i);
+				long valid = (count >= CompiledExercise.MAX_OPTIONS) ? -1L : (1L << count) - 1;
+				sheet.setAnswer(i, this.answers[i] & valid);
+				if (sheet.isAnswered(i)) {
+					sheet.setAnswerTime(i, this.answerTimes[i]);
+				}
+			}
+			this.exercise = exercise;
+			this.answerSheet = sheet;
+			this.answers = null;
+			this.answerTimes = null;
+			this.answeredLibrary = null;
+		}
+		return this.exercise.getFingerprint() == exercise.getFingerprint();
+	}
+
+	/**
+	 * Indicates whether this submission is bound to its exercise.
+	 *
+	 * @return true if the exercise and the answer sheet are available.
+	 */
+	public boolean isBound() {
+		return this.exercise != null;
+	}
+
+	/**
+	 * Returns the fingerprint of the answered exercise.
+	 *
+	 * @return the fingerprint of the answered exercise.
+	 * @see    CompiledExercise#getFingerprint()
+	 */
+	public long getFingerprint() {
+		return (this.exercise != null) ? this.exercise.getFingerprint() : this.fingerprint;
+	}
+
+	/**
+	 * Returns the number of the questions in the answered exercise.
+	 *
+	 * @return the number of the questions.
+	 */
+	public int getQuestionCount() {
+		return (this.exercise != null) ? this.exercise.size() : this.questionCount;
+	}
+
+	/**
+	 * Returns the number of the answered questions.
+	 *
+	 * @return the number of the answered questions.
+	 */
+	public int getAnsweredCount() {
+		return (this.exercise != null) ? this.answerSheet.getAnsweredCount() : this.answeredCount;
+	}
+
+	/**
+	 * Returns the given answer of the question at the given position.
+	 *
+	 * @param  index position of the question.
+	 * @return the bitmask of the given answer options, 0 if not answered.
+	 */
+	public long getAnswer(int index) {
+		if (this.exercise != null) {
+			return this.answerSheet.getAnswer(index);
+		}
+		decodeAnswers();
+		return this.answers[index];
+	}
+
+	/**
+	 * Returns the time the question at the given position took to answer.
+	 *
+	 * @param  index position of the question.
+	 * @return the answer time in milliseconds, 0 if not known.
+	 */
+	public int getAnswerTime(int index) {
+		if (this.exercise != null) {
+			return this.answerSheet.getAnswerTime(index);
+		}
+		decodeAnswers();
+		return this.answerTimes[index];
+	}
+
+	/**
+	 * Returns the percentage of the correct given answers.
+	 *
+	 * @return the percentage of the correct given answers.
+	 */
+	public double getScore() {
+		return (this.exercise != null) ? this.answerSheet.getScore() : this.score;
+	}
+
+	/**
+	 * Returns the answered exercise, or null if this submission is not bound.
+	 *
+	 * @return the answered exercise.
+	 */
+	public CompiledExercise getExercise() {
+		return this.exercise;
+	}
+
+	/**
+	 * Returns the answers of the student, or null if this submission is not bound.
+	 *
+	 * @return the answer sheet of this submission info.
+	 */
+	public AnswerSheet getAnswerSheet() {
+		return this.answerSheet;
 	}
 
 	/**
 	 * Return the question library of this submission info.
-	 * 
+	 *
+	 * <p>The library is built from the exercise and the answer sheet on the
+	 * first call. An unbound submission returns an empty library.</p>
+	 *
 	 * @return the question library of this submission info.
 	 */
 	public QuestionLibrary getQuestionLibrary() {
-		return this.questionLibrary;
+		if (this.exercise == null) {
+			return new QuestionLibrary();
+		}
+		if (this.answeredLibrary == null) {
+			this.answeredLibrary = this.exercise.toQuestionLibrary(this.answerSheet);
+		}
+		return this.answeredLibrary;
 	}
 
 	/**
 	 * Returns the received points of the submission.
-	 * 
+	 *
 	 * @return the received points of the submission.
 	 */
 	public String getPoints() {
-		return "" + this.questionLibrary.getScore();
+		return "" + this.getScore();
+	}
+
+	/**
+	 * Reconstitutes the submission info and converts a submission serialized
+	 * as a question library.
+	 *
+	 * @param  in the stream to read from.
+	 * @throws IOException if an I/O error occurs.
+	 * @throws ClassNotFoundException if the class of a serialized object cannot be found.
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		if (this.exercise == null && this.answers == null && this.encoded == null) {
+			QuestionLibrary library = (this.questionLibrary != null) ? this.questionLibrary : new QuestionLibrary();
+			this.exercise = new CompiledExercise(library);
+			this.answerSheet = new AnswerSheet(this.exercise, library);
+			this.questionLibrary = null;
+		}
 	}
 }
@@ -1,11 +1,32 @@
 package edu.vserver.exercises.videoMcq;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
+import sph.vaadin.ui.ComponentFactory;
+import sph.vaadin.ui.SPH_Theme;
+
+import com.vaadin.server.FileDownloader;
+import com.vaadin.server.StreamResource;
 import com.vaadin.ui.Alignment;
+import com.vaadin.ui.Button;
 import com.vaadin.ui.Component;
+import com.vaadin.ui.HorizontalLayout;
 import com.vaadin.ui.Label;
+import com.vaadin.ui.Table;
 import com.vaadin.ui.VerticalLayout;
 
 import edu.vserver.exercises.helpers.StatSubmInfoFilterEditor;
@@ -23,7 +44,7 @@ import edu.vserver.standardutils.TempFilesManager;
  * Statistics giver.
  *
  * @author  <a href="mailto:sami.holck@gmail.com">Sami Holck</a>
- * @author  Juha Mkil
+ * @author  Juha Mäkilä
  * @version 1.1
  * @since   16.10.2013
  */
@@ -31,8 +52,29 @@ public class VideoMcqSubmissionStatisticsGiver extends VerticalLayout implements
 
 	private static final long serialVersionUID = -1410253605264134011L;
 
+	/**
+	 * the size of the buffer between the exporting thread and the download
+	 */
+	private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * the number of exports written at a time
+	 */
+	private static final int EXPORT_THREADS = 2;
+
+	/**
+	 * the number of exports waiting for a thread before more are refused
+	 */
+	private static final int EXPORT_QUEUE_SIZE = 8;
+
+	private static final Logger LOGGER = Logger.getLogger(VideoMcqSubmissionStatisticsGiver.class.getName());
+
+	private static ExecutorService exportPool;
+
 	private List<StatisticalSubmissionInfo<VideoMcqSubmissionInfo>> data;
 	private VideoMcqExerciseData exer;
+	private CompiledExercise compiled;
+	private ItemStatistics statistics;
 
 	private StatSubmInfoFilterTable<VideoMcqSubmissionInfo> genTable;
 	private StatSubmInfoFilterEditor<VideoMcqSubmissionInfo> genTableEditor;
@@ -47,6 +89,9 @@ public class VideoMcqSubmissionStatisticsGiver extends VerticalLayout implements
 					throws ExerciseException {
 		exer = exercise;
 		data = dataObjects;
+		compiled = exercise.getCompiledExercise();
+		// the submissions are bound only when a submission is viewed (see VideoMcqSubmissionViewer)
+		statistics = ItemStatisticsRegistry.INSTANCE.getStatistics(compiled, dataObjects);
 		this.localizer = localizer;
 		initAllSubmissionsTable();
 
@@ -85,21 +130,316 @@ public class VideoMcqSubmissionStatisticsGiver extends VerticalLayout implements
 		centeredLayout.addComponent(questionLabel);
 		centeredLayout.addComponent(genTableEditor.getView());
 		centeredLayout.addComponent(genTable.getStatInfoTableView());
+		centeredLayout.addComponent(new Label("Submissions: " + statistics.getSubmissionCount()
+				+ ", mean score: " + percent(statistics.getMeanScore())
+				+ ", standard deviation: " + percent(statistics.getScoreDeviation())
+				+ ", median: " + percent(statistics.getScoreQuantile(0.5))
+				+ ", 90th percentile: " + percent(statistics.getScoreQuantile(0.9))));
+		centeredLayout.addComponent(createItemTable());
+		centeredLayout.addComponent(createHistogramTable());
+		centeredLayout.addComponent(createExportButtons());
 
 		this.addComponent(centeredLayout);
 		this.setComponentAlignment(centeredLayout, Alignment.TOP_CENTER);
 
 	}
 
+	/**
+	 * Creates a table of the difficulty, the discrimination and the option
+	 * selection rates of each question.
+	 *
+	 * @return the item analysis table.
+	 */
+	private Table createItemTable() {
+		Table table = new Table("Item analysis");
+		table.setWidth("100%");
+		table.addContainerProperty("Question", String.class, "");
+		table.addContainerProperty("Time", Integer.class, null);
+		table.addContainerProperty("Answered", String.class, "");
+		table.addContainerProperty("Difficulty", String.class, "");
+		table.addContainerProperty("Discrimination", String.class, "");
+		table.addContainerProperty("Option selection rates", String.class, "");
+		table.addContainerProperty("Median answer time", String.class, "");
+		table.addContainerProperty("90% answer time", String.class, "");
+		for (int q = 0; q < statistics.getQuestionCount(); q++) {
+			table.addItem(new Object[] { (q + 1) + ". " + compiled.getQuestion(q), compiled.getTime(q),
+					percent(statistics.getAnsweredRate(q)), percent(statistics.getDifficulty(q)),
+					decimal(statistics.getDiscrimination(q)), optionRates(q, ", "),
+					seconds(statistics.getAnswerTimeQuantile(q, 0.5)), seconds(statistics.getAnswerTimeQuantile(q, 0.9)) }, q);
+		}
+		table.setPageLength(Math.min(statistics.getQuestionCount(), 15));
+		return table;
+	}
+
+	/**
+	 * Creates a table of the score histogram.
+	 *
+	 * @return the score histogram table.
+	 */
+	private Table createHistogramTable() {
+		Table table = new Table("Scores");
+		table.addContainerProperty("Score", String.class, "");
+		table.addContainerProperty("Submissions", Integer.class, null);
+		int[] histogram = statistics.getScoreHistogram();
+		for (int i = 0; i < histogram.length; i++) {
+			table.addItem(new Object[] { histogramBin(i, histogram.length), histogram[i] }, i);
+		}
+		table.setPageLength(histogram.length);
+		return table;
+	}
+
+	/**
+	 * Returns the selection rates of the options of a question, the correct
+	 * options marked with an asterisk.
+	 */
+	private String optionRates(int question, String separator) {
+		StringBuilder rates = new StringBuilder();
+		long correct = compiled.getCorrectMask(question);
+		for (int o = 0; o < statistics.getOptionCount(question); o++) {
+			if (o > 0) {
+				rates.append(separator);
+			}
+			rates.append(compiled.getOption(question, o));
+			if ((correct & (1L << o)) != 0L) {
+				rates.append('*');
+			}
+			rates.append(": ").append(percent(statistics.getOptionRate(question, o)));
+		}
+		return rates.toString();
+	}
+
+	/**
+	 * Creates the buttons that download the answers of all the submissions.
+	 *
+	 * @return the export buttons.
+	 */
+	private HorizontalLayout createExportButtons() {
+		HorizontalLayout buttons = new HorizontalLayout();
+		buttons.setSpacing(true);
+		buttons.addComponent(createExportButton("Export answers (CSV)", SubmissionExporter.Format.CSV, "text/csv", ".csv"));
+		buttons.addComponent(createExportButton("Export answers (NDJSON)", SubmissionExporter.Format.NDJSON, "application/x-ndjson", ".ndjson"));
+		return buttons;
+	}
+
+	/**
+	 * Creates a button that downloads the answers of all the submissions in
+	 * the given format. The export is written by an export thread (see
+	 * {@link #getExportPool()}) through a pipe while the download reads it,
+	 * so the whole export is never held in memory.
+	 */
+	private Button createExportButton(String caption, final SubmissionExporter.Format format, String mimeType, String suffix) {
+		Button button = ComponentFactory.createSmallBlueButton(caption, true, SPH_Theme.SAVE_ICON_16PX);
+		StreamResource resource = new StreamResource(new StreamResource.StreamSource() {
+
+			private static final long serialVersionUID = 2318720658376905541L;
+
+			@Override
+			public InputStream getStream() {
+				final ExportStream in = new ExportStream(EXPORT_BUFFER_SIZE);
+				final PipedOutputStream out;
+				try {
+					out = new PipedOutputStream(in);
+				} catch (IOException e) {
+					return null;
+				}
+				try {
+					getExportPool().execute(new Runnable() {
+
+						@Override
+						public void run() {
+							try {
+								exportSubmissions(format, out);
+							} catch (IOException e) {
+								// the download was cancelled
+								in.fail(e);
+							} catch (Throwable t) {
+								LOGGER.log(Level.SEVERE, "Exporting the submissions failed", t);
+								in.fail(t);
+							} finally {
+								closeQuietly(out);
+							}
+						}
+					});
+				} catch (RejectedExecutionException e) {
+					LOGGER.log(Level.WARNING, "Too many exports running, the export was refused", e);
+					in.fail(e);
+					closeQuietly(out);
+				}
+				return in;
+			}
+		}, exportFileName() + suffix);
+		resource.setMIMEType(mimeType);
+		resource.setCacheTime(0);
+		new FileDownloader(resource).extend(button);
+		return button;
+	}
+
+	/**
+	 * Returns the executor the exports are written in. At most
+	 * {@link #EXPORT_THREADS} exports are written at a time and at most
+	 * {@link #EXPORT_QUEUE_SIZE} wait for a thread, the rest are refused.
+	 */
+	static synchronized ExecutorService getExportPool() {
+		if (exportPool == null) {
+			ThreadPoolExecutor executor = new ThreadPoolExecutor(EXPORT_THREADS, EXPORT_THREADS, 60L, TimeUnit.SECONDS,
+					new ArrayBlockingQueue<Runnable>(EXPORT_QUEUE_SIZE), new ThreadFactory() {
+
+						@Override
+						public Thread newThread(Runnable runnable) {
+							Thread thread = new Thread(runnable, "videoMcq-export");
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+			executor.allowCoreThreadTimeOut(true);
+			exportPool = executor;
+		}
+		return exportPool;
+	}
+
+	private static void closeQuietly(OutputStream out) {
+		try {
+			out.close();
+		} catch (IOException e) {
+			// the download was cancelled
+		}
+	}
+
+	/**
+	 * The download end of an export pipe. If the export fails, the stream
+	 * ends with the failure instead of an end of stream, so a failed export
+	 * is never downloaded as a complete file.
+	 */
+	private static final class ExportStream extends PipedInputStream {
+
+		private volatile Throwable failure;
+
+		ExportStream(int size) {
+			super(size);
+		}
+
+		/**
+		 * Marks the export failed. Must be called before the writing end of
+		 * the pipe is closed.
+		 */
+		void fail(Throwable cause) {
+			this.failure = cause;
+		}
+
+		@Override
+		public synchronized int read() throws IOException {
+			int b = super.read();
+			if (b < 0) {
+				checkFailure();
+			}
+			return b;
+		}
+
+		@Override
+		public synchronized int read(byte[] b, int off, int len) throws IOException {
+			int n = super.read(b, off, len);
+			if (n < 0) {
+				checkFailure();
+			}
+			return n;
+		}
+
+		private void checkFailure() throws IOException {
+			Throwable cause = this.failure;
+			if (cause != null) {
+				throw new IOException("the export failed", cause);
+			}
+		}
+	}
+
+	/**
+	 * Returns the name of the export file without the suffix: the name of the
+	 * exercise with the characters not allowed in file names replaced.
+	 */
+	private String exportFileName() {
+		String name = (exer.getExerName() != null) ? exer.getExerName().replaceAll("[^\\p{L}\\p{N}._-]+", "_") : "";
+		return name.isEmpty() ? "submissions" : name;
+	}
+
+	private static String histogramBin(int bin, int bins) {
+		return (bin * 100 / bins) + "-" + ((bin + 1) * 100 / bins) + " %";
+	}
+
+	private static String percent(double rate) {
+		return Double.isNaN(rate) ? "-" : String.format("%.1f %%", rate * 100);
+	}
+
+	private static String seconds(double millis) {
+		return Double.isNaN(millis) ? "-" : String.format("%.1f s", millis / 1000);
+	}
+
+	private static String decimal(double value) {
+		return Double.isNaN(value) ? "-" : String.format("%.2f", value);
+	}
+
 	@Override
 	public Component getView() {
 		return this;
 	}
 
+	/**
+	 * Writes the answers of all the submissions as one row per submission and
+	 * question. The rows are streamed, so the export can be of any size.
+	 *
+	 * @param  format the export format.
+	 * @param  out the output to write to.
+	 * @throws IOException if writing fails.
+	 * @see    SubmissionExporter
+	 */
+	public void exportSubmissions(SubmissionExporter.Format format, Appendable out) throws IOException {
+		new SubmissionExporter(compiled, format).export(data, out);
+	}
+
+	/**
+	 * Writes the answers of all the submissions to a stream as UTF-8 as one
+	 * row per submission and question. The stream is flushed but not closed.
+	 *
+	 * @param  format the export format.
+	 * @param  out the stream to write to.
+	 * @throws IOException if writing fails.
+	 * @see    SubmissionExporter
+	 */
+	public void exportSubmissions(SubmissionExporter.Format format, OutputStream out) throws IOException {
+		new SubmissionExporter(compiled, format).export(data, out);
+	}
+
+	/**
+	 * Exports the item analysis as tab separated text: a summary line, a line
+	 * for each question and a line for each score histogram bin.
+	 *
+	 * @return the item analysis as text.
+	 */
 	@Override
 	public String exportStatisticsDataAsText() {
-		// TODO Auto-generated method stub
-		return "exportStatisticsDataAsText";
+		StringBuilder text = new StringBuilder();
+		text.append("Exercise\t").append(exer.getExerName()).append('\n');
+		text.append("Submissions\t").append(statistics.getSubmissionCount())
+			.append("\tSkipped\t").append(statistics.getSkippedCount())
+			.append("\tMean score\t").append(percent(statistics.getMeanScore()))
+			.append("\tStandard deviation\t").append(percent(statistics.getScoreDeviation()))
+			.append("\tMedian\t").append(percent(statistics.getScoreQuantile(0.5)))
+			.append("\t90th percentile\t").append(percent(statistics.getScoreQuantile(0.9))).append('\n');
+		text.append("Question\tTime\tAnswered\tDifficulty\tDiscrimination\tMedian answer time\t90% answer time\tOption selection rates\n");
+		for (int q = 0; q < statistics.getQuestionCount(); q++) {
+			text.append(q + 1).append('\t').append(compiled.getTime(q))
+				.append('\t').append(percent(statistics.getAnsweredRate(q)))
+				.append('\t').append(percent(statistics.getDifficulty(q)))
+				.append('\t').append(decimal(statistics.getDiscrimination(q)))
+				.append('\t').append(seconds(statistics.getAnswerTimeQuantile(q, 0.5)))
+				.append('\t').append(seconds(statistics.getAnswerTimeQuantile(q, 0.9)))
+				.append('\t').append(optionRates(q, "\t")).append('\n');
+		}
+		text.append("Score\tSubmissions\n");
+		int[] histogram = statistics.getScoreHistogram();
+		for (int i = 0; i < histogram.length; i++) {
+			text.append(histogramBin(i, histogram.length)).append('\t').append(histogram[i]).append('\n');
+		}
+		return text.toString();
 	}
 
 }
\ No newline at end of file
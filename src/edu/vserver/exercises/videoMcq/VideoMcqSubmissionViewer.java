@@ -17,15 +17,21 @@ import edu.vserver.standardutils.TempFilesManager;
  * VideoMcqSubmissionViewer
  *
  * @author  <a href="mailto:sami.holck@gmail.com">Sami Holck</a>
- * @author  Juha Mkil
+ * @author  Juha Mäkilä
  * @version 1.0
  * @since   16.10.2013
  */
 public class VideoMcqSubmissionViewer extends VerticalLayout implements SubmissionVisualizer<VideoMcqExerciseData, VideoMcqSubmissionInfo> {
 
 	private static final long serialVersionUID = -6260031633710031462L;
+	private static final String EARLIER_VERSION = "The submission was made to an earlier version of the exercise. The answers cannot be shown against the current questions.";
 	private VideoMcqExerciseData exer;
 	private VideoMcqSubmissionInfo submInfo;
+	/**
+	 * true if the submission was made to an earlier version of the exercise
+	 * and has no questions of its own to show the answers against
+	 */
+	private boolean earlierVersion;
 
 	/**
 	 * 
@@ -39,11 +45,17 @@ public class VideoMcqSubmissionViewer extends VerticalLayout implements Submissi
 			TempFilesManager tempManager ) throws ExerciseException {
 		this.exer = exercise;
 		this.submInfo = dataObject;
+		// a submission stored with Java serialization is bound to the questions it was answered to
+		this.earlierVersion = !this.submInfo.bind(exercise.getCompiledExercise()) && !this.submInfo.isBound();
 		doLayout();
 	}
 
 	private void doLayout() {
 		this.addComponents( buildGlobalExerInfo() );
+		if (earlierVersion) {
+			this.addComponents(buildEarlierVersionInfo());
+			return;
+		}
 		int index = 1;
 		for (Question q : submInfo.getQuestionLibrary()) {
 			this.addComponents(buildQuestionInfo(q, index));
@@ -61,7 +73,19 @@ public class VideoMcqSubmissionViewer extends VerticalLayout implements Submissi
 		String url = exer.getVideoURL();
 		html += "<ul><li><strong>video URL:</strong> <em><a href=\"" + url + "\">" + url + "</a></em></li>";
 		html += "<li><strong>MIME type:</strong> <em>" + exer.getMimeType() + "</em></li>";
-		html += "<li><strong>Score:</strong> <em>" + Math.round(submInfo.getQuestionLibrary().getScore() * 100) + "% correct</em></li></ul>";
+		html += "<li><strong>Score:</strong> <em>" + Math.round(submInfo.getScore() * 100) + "% correct</em></li></ul>";
+		return new Label(html, ContentMode.HTML);
+	}
+
+	/**
+	 * Builds a new label telling that the submission was made to an earlier
+	 * version of the exercise, whose questions are no longer available.
+	 * 
+	 * @return earlier version info label.
+	 */
+	private Label buildEarlierVersionInfo() {
+		String html = "<p><em style=\"color: #f00;\">" + EARLIER_VERSION + "</em></p>";
+		html += "<ul><li><strong>answered questions:</strong> <em>" + submInfo.getAnsweredCount() + " / " + submInfo.getQuestionCount() + "</em></li></ul>";
 		return new Label(html, ContentMode.HTML);
 	}
 
@@ -97,19 +121,26 @@ public class VideoMcqSubmissionViewer extends VerticalLayout implements Submissi
 
 	@Override
 	public String exportSubmissionDataAsText() {
-		String text = "Exercise Name: " + exer.getExerName() +
-				"\n\tvideo URL:\t" + exer.getVideoURL() +
-				"\n\tMIME type:\t" + exer.getMimeType();
+		StringBuilder text = new StringBuilder(256);
+		text.append("Exercise Name: ").append(exer.getExerName())
+			.append("\n\tvideo URL:\t").append(exer.getVideoURL())
+			.append("\n\tMIME type:\t").append(exer.getMimeType())
+			.append("\n\tScore:\t\t").append(Math.round(submInfo.getScore() * 100)).append("% correct");
+		if (earlierVersion) {
+			text.append("\n\t").append(EARLIER_VERSION)
+				.append("\n\tanswered questions:\t").append(submInfo.getAnsweredCount()).append(" / ").append(submInfo.getQuestionCount());
+			return text.toString();
+		}
 		int index = 1;
 		for (Question q : submInfo.getQuestionLibrary()) {
-			text += "\n\tQuestion " + index +
-					":\n\t\ttime:\t\t\t\t" + Time.convertToTimeString(q.getTime()) +
-					"\n\t\tcorrect answer(s):\t" + q.getCorrectAnswers() +
-					"\n\t\tgiven answer(s):\t" + q.getGivenAnswers() +
-					"\n\t\tscore:\t\t\t\t" + Math.round(q.getQuestionScore() * 100) + "% correct";
+			text.append("\n\tQuestion ").append(index)
+				.append(":\n\t\ttime:\t\t\t\t").append(Time.convertToTimeString(q.getTime()))
+				.append("\n\t\tcorrect answer(s):\t").append(q.getCorrectAnswers())
+				.append("\n\t\tgiven answer(s):\t").append(q.getGivenAnswers())
+				.append("\n\t\tscore:\t\t\t\t").append(Math.round(q.getQuestionScore() * 100)).append("% correct");
 			index++;
 		}
-		return text;
+		return text.toString();
 	}
 
 }
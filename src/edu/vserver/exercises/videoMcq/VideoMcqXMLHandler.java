@@ -1,32 +1,29 @@
 package edu.vserver.exercises.videoMcq;
 
+import java.io.BufferedWriter;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.util.ArrayList;
+import java.util.concurrent.Callable;
 
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.TransformerConfigurationException;
-import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactoryConfigurationError;
-
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
 
 import edu.vserver.exercises.model.ExerciseException;
 import edu.vserver.exercises.model.PersistenceHandler;
 import edu.vserver.standardutils.TempFilesManager;
-import edu.vserver.standardutils.XMLHelper;
 
 /**
  * Class writes and reads the videoMcq XML data.
  * 
- * @author  Juha Mkil
+ * @author  Juha Mäkilä
  * @author  <a href="mailto:sami.holck@gmail.com">Sami Holck</a>
  * @version 1.0
  * @since   16.09.2013
@@ -41,120 +38,284 @@ public final class VideoMcqXMLHandler implements PersistenceHandler<VideoMcqExer
 
 	private static final String VIDEO_URL = "videoURL";
 	private static final String SLIDER_ENABLED = "sliderEnabled";
+	private static final String TIMED_QUESTION = "timedQuestion";
+
+	/**
+	 * The factory of the exercise XML readers. External entities are not resolved.
+	 */
+	private static final XMLInputFactory INPUT_FACTORY = XMLInputFactory.newInstance();
+	static {
+		INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+		INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+	}
+
+	/**
+	 * The factory of the exercise XML writers.
+	 */
+	private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newInstance();
+
+	/**
+	 * The parsed exercises shared by all the sessions.
+	 */
+	private static final ExerciseCache EXERCISE_CACHE = new ExerciseCache(64);
+
+	/**
+	 * The estimated size of the written XML per question in bytes.
+	 */
+	private static final int QUESTION_SIZE_ESTIMATE = 256;
 
 	private VideoMcqXMLHandler() {
 
 	}
 
+	/**
+	 * Returns the cache of the parsed exercises.
+	 * 
+	 * @return the cache of the parsed exercises.
+	 */
+	public ExerciseCache getExerciseCache() {
+		return EXERCISE_CACHE;
+	}
+
+	/**
+	 * Loads the exercise data.
+	 * 
+	 * <p>Parsed exercises are cached by the digest of the data, and
+	 * concurrent loads of the same data parse it only once. The returned
+	 * exercise data is always a new object, but the compiled exercise behind
+	 * it is shared with all the other loads of the same data.</p>
+	 */
 	@Override
-	public VideoMcqExerciseData loadExerData(byte[] dataPres, TempFilesManager tempManager) throws ExerciseException {
+	public VideoMcqExerciseData loadExerData(final byte[] dataPres, TempFilesManager tempManager) throws ExerciseException {
+		return EXERCISE_CACHE.get(ExerciseCache.keyOf(dataPres), new Callable<VideoMcqExerciseData>() {
+			@Override
+			public VideoMcqExerciseData call() throws ExerciseException {
+				return parseExerData(dataPres);
+			}
+		}).newExerciseData();
+	}
+
+	/**
+	 * Parses the exercise data.
+	 * 
+	 * @param  dataPres the stored exercise data.
+	 * @return the parsed exercise data.
+	 * @throws ExerciseException if the data cannot be parsed.
+	 */
+	private static VideoMcqExerciseData parseExerData(byte[] dataPres) throws ExerciseException {
 		VideoMcqExerciseData exerData = new VideoMcqExerciseData();
 		try {
-			Document doc = XMLHelper.parseFromBytes(dataPres);
-			doc.getDocumentElement().normalize();
-			exerData.setVideoURL(doc.getDocumentElement().getAttribute(VIDEO_URL));
-			exerData.setMimeType(doc.getDocumentElement().getAttribute("mimetype"));
-			exerData.setExerName(doc.getDocumentElement().getAttribute("exerName"));
-			exerData.setSliderEnabled(Boolean.parseBoolean(doc.getDocumentElement().getAttribute(SLIDER_ENABLED)));
-			exerData.setInstantResponse(Boolean.parseBoolean(doc.getDocumentElement().getAttribute("instantResponse")));
-			QuestionLibrary questionLibrary = new QuestionLibrary();
-			NodeList questionNodes = doc.getElementsByTagName("timedQuestion");
-			for (int i = 0; i < questionNodes.getLength(); i++) {
-				Node questionNode = questionNodes.item(i);
-				NodeList questionData = questionNode.getChildNodes();
-				int time = Integer.parseInt(questionData.item(0).getTextContent());
-				String question = questionData.item(1).getTextContent();
-				String answer = questionData.item(2).getTextContent();
-				String answerDescription = questionData.item(3).getTextContent();
-				ArrayList<String> falseAnswers = new ArrayList<String>();
-				NodeList falseData = questionData.item(4).getChildNodes();
-				for (int j = 0; j < falseData.getLength(); j++) {
-					falseAnswers.add(falseData.item(j).getTextContent());
+			XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(new ByteArrayInputStream(dataPres));
+			try {
+				QuestionLibrary questionLibrary = new QuestionLibrary();
+				boolean rootRead = false;
+				while (reader.hasNext()) {
+					if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+						if (!rootRead) {
+							exerData.setVideoURL(getAttribute(reader, VIDEO_URL));
+							exerData.setMimeType(getAttribute(reader, "mimetype"));
+							exerData.setExerName(getAttribute(reader, "exerName"));
+							exerData.setSliderEnabled(Boolean.parseBoolean(getAttribute(reader, SLIDER_ENABLED)));
+							exerData.setInstantResponse(Boolean.parseBoolean(getAttribute(reader, "instantResponse")));
+							rootRead = true;
+						} else if (TIMED_QUESTION.equals(reader.getLocalName())) {
+							questionLibrary.add(readQuestion(reader));
+						}
+					}
 				}
-				questionLibrary.add(new Question(time, question, answer, answerDescription, falseAnswers));
+				exerData.setQuestionLibrary(questionLibrary);
+				// fails on a question with more answer options than an answer bitmask holds
+				exerData.getCompiledExercise();
+			} finally {
+				reader.close();
 			}
-			exerData.setQuestionLibrary(questionLibrary);
-
-		} catch (ParserConfigurationException e) {
+		} catch (XMLStreamException e) {
 			throw new ExerciseException(ExerciseException.ErrorType.EXER_LOAD_ERROR, e);
-		} catch (SAXException e) {
-			throw new ExerciseException(ExerciseException.ErrorType.EXER_LOAD_ERROR, e);
-		} catch (IOException e) {
+		} catch (IllegalArgumentException e) {
+			// also a NumberFormatException of a malformed time
 			throw new ExerciseException(ExerciseException.ErrorType.EXER_LOAD_ERROR, e);
 		}
 		return exerData;
 	}
 
-	@Override
-	public byte[] saveExerData(VideoMcqExerciseData toWrite, TempFilesManager tempManager) throws ExerciseException {
-		byte[] res = null;
-		try {
-			QuestionLibrary questionLibrary = toWrite.getQuestionLibrary();
-			ArrayList<Question> questions = questionLibrary.getAllQuestions();
-			Document doc = XMLHelper.createEmptyDocument();
-
-			Element root = doc.createElement("videoMcq-exercise");
-			doc.appendChild(root);
-			root.setAttribute(VIDEO_URL, toWrite.getVideoURL());
-			root.setAttribute("mimetype", toWrite.getMimeType());
-			root.setAttribute("exerName", toWrite.getExerName());
-			root.setAttribute(SLIDER_ENABLED, Boolean.toString(toWrite.isSliderEnabled()));
-			root.setAttribute("instantResponse", Boolean.toString(toWrite.isInstantResponse()));
-
-			for (Question q : questions) {
-				Element timedQuestion = doc.createElement("timedQuestion");
-				root.appendChild(timedQuestion);
-
-
-				Element time = doc.createElement("time");
-				time.setTextContent(Integer.toString(q.getTime()));
-				timedQuestion.appendChild(time);
+	/**
+	 * Returns the value of an attribute of the current element, or an empty
+	 * string if the attribute is not present.
+	 * 
+	 * @param  reader the reader positioned at a start element.
+	 * @param  name the name of the attribute.
+	 * @return the value of the attribute or an empty string.
+	 */
+	private static String getAttribute(XMLStreamReader reader, String name) {
+		String value = reader.getAttributeValue(null, name);
+		return (value == null) ? "" : value;
+	}
 
-				Element question = doc.createElement("question");
-				question.setTextContent(q.getQuestion());
-				timedQuestion.appendChild(question);
+	/**
+	 * Reads a <em>timedQuestion</em> element.
+	 * 
+	 * <p>The child elements are read by position: time, question, answer,
+	 * answer description and the list of the false answers.</p>
+	 * 
+	 * @param  reader the reader positioned at the start of the <em>timedQuestion</em> element.
+	 * @return the question read.
+	 * @throws XMLStreamException if the XML is not well-formed.
+	 * @throws NumberFormatException if the time of the question is not an integer.
+	 */
+	private static Question readQuestion(XMLStreamReader reader) throws XMLStreamException {
+		String time = "";
+		String question = "";
+		String answer = "";
+		String answerDescription = "";
+		ArrayList<String> falseAnswers = new ArrayList<String>();
+		int child = 0;
+		while (reader.next() != XMLStreamConstants.END_ELEMENT) {
+			if (reader.isStartElement()) {
+				switch (child++) {
+				case 0:
+					time = readText(reader);
+					break;
+				case 1:
+					question = readText(reader);
+					break;
+				case 2:
+					answer = readText(reader);
+					break;
+				case 3:
+					answerDescription = readText(reader);
+					break;
+				case 4:
+					while (reader.next() != XMLStreamConstants.END_ELEMENT) {
+						if (reader.isStartElement()) {
+							falseAnswers.add(readText(reader));
+						}
+					}
+					break;
+				default:
+					readText(reader);
+				}
+			}
+		}
+		return new Question(Integer.parseInt(time), question, answer, answerDescription, falseAnswers);
+	}
 
-				Element answer = doc.createElement("answer");
-				answer.setTextContent(q.getCorrectAnswer(0));
-				timedQuestion.appendChild(answer);
+	/**
+	 * Returns the text content of the current element and its descendants and
+	 * moves the reader to the end of the element.
+	 * 
+	 * @param  reader the reader positioned at a start element.
+	 * @return the text content of the element.
+	 * @throws XMLStreamException if the XML is not well-formed.
+	 */
+	private static String readText(XMLStreamReader reader) throws XMLStreamException {
+		String text = "";
+		StringBuilder builder = null;
+		int depth = 1;
+		while (depth > 0) {
+			switch (reader.next()) {
+			case XMLStreamConstants.START_ELEMENT:
+				depth++;
+				break;
+			case XMLStreamConstants.END_ELEMENT:
+				depth--;
+				break;
+			case XMLStreamConstants.CHARACTERS:
+			case XMLStreamConstants.CDATA:
+			case XMLStreamConstants.SPACE:
+			case XMLStreamConstants.ENTITY_REFERENCE:
+				if (text.length() == 0) {
+					text = reader.getText();
+				} else {
+					if (builder == null) {
+						builder = new StringBuilder(text);
+					}
+					builder.append(reader.getText());
+				}
+				break;
+			default:
+				break;
+			}
+		}
+		return (builder == null) ? text : builder.toString();
+	}
 
-				Element answerDescription = doc.createElement("AnswerDescription");
-				answerDescription.setTextContent(q.getAnswerDescription());
-				timedQuestion.appendChild(answerDescription);
+	/**
+	 * Saves the exercise data.
+	 * 
+	 * <p>The XML is written through a buffered character writer: the stream
+	 * writer of the JDK encodes its output one character at a time when it
+	 * writes directly to a byte stream.</p>
+	 */
+	@Override
+	public byte[] saveExerData(VideoMcqExerciseData toWrite, TempFilesManager tempManager) throws ExerciseException {
+		QuestionLibrary questionLibrary = toWrite.getQuestionLibrary();
+		ByteArrayOutputStream bytesOut = new ByteArrayOutputStream(QUESTION_SIZE_ESTIMATE * (questionLibrary.size() + 1));
+		try {
+			Writer out = new BufferedWriter(new OutputStreamWriter(bytesOut, "UTF-8"));
+			XMLStreamWriter writer = OUTPUT_FACTORY.createXMLStreamWriter(out);
+			writer.writeStartDocument("UTF-8", "1.0");
+			writer.writeStartElement("videoMcq-exercise");
+			writer.writeAttribute(VIDEO_URL, nonNull(toWrite.getVideoURL()));
+			writer.writeAttribute("mimetype", nonNull(toWrite.getMimeType()));
+			writer.writeAttribute("exerName", nonNull(toWrite.getExerName()));
+			writer.writeAttribute(SLIDER_ENABLED, Boolean.toString(toWrite.isSliderEnabled()));
+			writer.writeAttribute("instantResponse", Boolean.toString(toWrite.isInstantResponse()));
 
-				Element falseAnswers = doc.createElement("falseAnswers");
-				timedQuestion.appendChild(falseAnswers);
+			for (Question q : questionLibrary) {
+				writer.writeStartElement(TIMED_QUESTION);
+				writeElement(writer, "time", Integer.toString(q.getTime()));
+				writeElement(writer, "question", q.getQuestion());
+				writeElement(writer, "answer", q.getCorrectAnswer(0));
+				writeElement(writer, "AnswerDescription", q.getAnswerDescription());
 
+				writer.writeStartElement("falseAnswers");
 				ArrayList<String> falseList = q.getIncorrectAnswers();
-
-				for (int j = 0; j < q.getIncorrectAnswers().size(); j++) {
-					Element falseAnswer = doc.createElement("false" + (j + 1));
-					falseAnswer.setTextContent(falseList.get(j));
-					falseAnswers.appendChild(falseAnswer);
+				for (int j = 0; j < falseList.size(); j++) {
+					writeElement(writer, "false" + (j + 1), falseList.get(j));
 				}
+				writer.writeEndElement();
+				writer.writeEndElement();
 			}
-			res = XMLHelper.xmlToBytes(doc);
-		} catch (ParserConfigurationException e) {
-			throw new ExerciseException(ExerciseException.ErrorType.EXER_WRITE_ERROR, e);
-		} catch (TransformerConfigurationException e) {
-			throw new ExerciseException(ExerciseException.ErrorType.EXER_WRITE_ERROR, e);
-		} catch (TransformerException e) {
+			writer.writeEndElement();
+			writer.writeEndDocument();
+			writer.close();
+			out.flush();
+		} catch (XMLStreamException e) {
 			throw new ExerciseException(ExerciseException.ErrorType.EXER_WRITE_ERROR, e);
-		} catch (TransformerFactoryConfigurationError e) {
+		} catch (IOException e) {
 			throw new ExerciseException(ExerciseException.ErrorType.EXER_WRITE_ERROR, e);
 		}
-		return res;
+		return bytesOut.toByteArray();
+	}
+
+	/**
+	 * Writes an element containing only text.
+	 * 
+	 * @param  writer the writer to write to.
+	 * @param  name the name of the element.
+	 * @param  text the text content of the element, null is written as an empty element.
+	 * @throws XMLStreamException if writing fails.
+	 */
+	private static void writeElement(XMLStreamWriter writer, String name, String text) throws XMLStreamException {
+		writer.writeStartElement(name);
+		writer.writeCharacters(nonNull(text));
+		writer.writeEndElement();
+	}
+
+	/**
+	 * Returns the given string or an empty string if it is null.
+	 * 
+	 * @param  value the string.
+	 * @return the string or an empty string.
+	 */
+	private static String nonNull(String value) {
+		return (value == null) ? "" : value;
 	}
 
 	@Override
 	public byte[] saveSubmission(VideoMcqSubmissionInfo subm, TempFilesManager tempManager) throws ExerciseException {
 		try {
-			ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
-			ObjectOutputStream objOut = new ObjectOutputStream(bytesOut);
-			objOut.writeObject(subm);
-
-			return bytesOut.toByteArray();
-
+			return VideoMcqSubmissionCodec.encode(subm);
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
@@ -166,8 +327,8 @@ public final class VideoMcqXMLHandler implements PersistenceHandler<VideoMcqExer
 			throws ExerciseException {
 		VideoMcqSubmissionInfo res = null;
 		try {
-			ObjectInputStream objIn = new ObjectInputStream(new ByteArrayInputStream(dataPres));
-			res = (VideoMcqSubmissionInfo) objIn.readObject();
+			// the statistics keep thousands of submissions, so they are decoded lazily
+			res = forStatGiver ? VideoMcqSubmissionCodec.decodeSummary(dataPres) : VideoMcqSubmissionCodec.decode(dataPres);
 		} catch (IOException e) {
 			e.printStackTrace();
 		} catch (ClassNotFoundException e) {
@@ -29,6 +29,12 @@
 		startButton.css({
 			'z-index': 300
 		});
+		// pre-warms the deferred video player when the pointer approaches the button
+		startButton.off("mouseenter.prewarm").one("mouseenter.prewarm", function () {
+			if (window.videoMcq && window.videoMcq.prewarm) {
+				window.videoMcq.prewarm();
+			}
+		});
 		VideoMcqExecutor.repositionStartButton();
 	};
 
@@ -3,7 +3,7 @@
  * 
  * <p><strong>copyright &copy; Ville-Video 2013</strong></p>
  *
- * @author  Juha Mkil
+ * @author  Juha Mäkilä
  * @author  <a href="mailto:sami.holck@gmail.com">Sami Holck</a>
  * @version 2.01
  * @since   10.08.2013
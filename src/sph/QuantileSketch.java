@@ -0,0 +1,348 @@
+/**
+ * <p><b>Copyright 2013 Juha Mäkilä and Sami Holck</b></p>
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at</p>
+ * 
+ *     <a href="http://www.apache.org/licenses/LICENSE-2.0"
+ *     target="_new">http://www.apache.org/licenses/LICENSE-2.0</a>
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.</p>
+ */
+package sph;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Implements a mergeable streaming quantile sketch (KLL).
+ *
+ * <p>The sketch keeps the values in a hierarchy of compactors. A value at
+ * level <code>h</code> stands for <code>2<sup>h</sup></code> of the added
+ * values. When a level is full it is sorted and every other value is promoted
+ * to the level above; the capacities shrink geometrically towards the lower
+ * levels, so the sketch holds about <code>3k</code> values however many values
+ * are added. The rank error of a quantile is about <code>1.7 / k</code>.</p>
+ *
+ * <p>Sketches with the same <code>k</code> can be {@link #merge(QuantileSketch)
+ * merged}, so values counted in separate partitions can be combined. The
+ * compactions of each level alternate between promoting the odd and the even
+ * values instead of choosing randomly, so the same values added in the same order always
+ * give the same sketch.</p>
+ *
+ * <p>The sketch is not synchronized.</p>
+ *
+ * <p><strong>copyright &copy; Ville-Video 2013</strong></p>
+ *
+ * @version 0.1
+ * @since   17.10.2026
+ */
+public final class QuantileSketch implements Serializable {
+
+	private static final long serialVersionUID = -2945620316479083572L;
+
+	/**
+	 * the default accuracy parameter
+	 */
+	public static final int DEFAULT_K = 200;
+
+	private static final int MIN_CAPACITY = 2;
+	private static final double CAPACITY_RATIO = 2.0 / 3.0;
+
+	private final int k;
+	private double[][] levels;
+	private int[] sizes;
+	private int height;
+	private long count;
+	private double min = Double.NaN;
+	private double max = Double.NaN;
+	/**
+	 * a bit per level telling whether the next compaction promotes the odd values
+	 */
+	private long odd;
+
+	/**
+	 * Constructs an empty sketch with the {@link #DEFAULT_K default} accuracy.
+	 */
+	public QuantileSketch() {
+		this(DEFAULT_K);
+	}
+
+	/**
+	 * Constructs an empty sketch.
+	 *
+	 * @param  k the accuracy parameter: the capacity of the top level.
+	 * @throws IllegalArgumentException if k is less than {@value #MIN_CAPACITY}.
+	 */
+	public QuantileSketch(int k) {
+		if (k < MIN_CAPACITY) {
+			throw new IllegalArgumentException("k must be at least " + MIN_CAPACITY + ": " + k);
+		}
+		this.k = k;
+		this.levels = new double[1][];
+		this.levels[0] = new double[MIN_CAPACITY];
+		this.sizes = new int[1];
+		this.height = 1;
+	}
+
+	/**
+	 * Constructs a copy of the given sketch.
+	 */
+	private QuantileSketch(QuantileSketch sketch) {
+		this.k = sketch.k;
+		this.height = sketch.height;
+		this.levels = new double[sketch.height][];
+		for (int h = 0; h < sketch.height; h++) {
+			this.levels[h] = Arrays.copyOf(sketch.levels[h], Math.max(MIN_CAPACITY, sketch.sizes[h]));
+		}
+		this.sizes = Arrays.copyOf(sketch.sizes, sketch.height);
+		this.count = sketch.count;
+		this.min = sketch.min;
+		this.max = sketch.max;
+		this.odd = sketch.odd;
+	}
+
+	/**
+	 * Returns the accuracy parameter of this sketch.
+	 *
+	 * @return the accuracy parameter.
+	 */
+	public int getK() {
+		return this.k;
+	}
+
+	/**
+	 * Returns the number of the added values.
+	 *
+	 * @return the number of the added values.
+	 */
+	public long getCount() {
+		return this.count;
+	}
+
+	/**
+	 * Checks if any values have been added.
+	 *
+	 * @return true if no values have been added.
+	 */
+	public boolean isEmpty() {
+		return this.count == 0;
+	}
+
+	/**
+	 * Returns the smallest added value.
+	 *
+	 * @return the smallest value, or {@link Double#NaN} if the sketch is empty.
+	 */
+	public double getMin() {
+		return this.min;
+	}
+
+	/**
+	 * Returns the largest added value.
+	 *
+	 * @return the largest value, or {@link Double#NaN} if the sketch is empty.
+	 */
+	public double getMax() {
+		return this.max;
+	}
+
+	/**
+	 * Adds a value. NaN values are ignored.
+	 *
+	 * @param value the value to add.
+	 */
+	public void add(double value) {
+		if (Double.isNaN(value)) {
+			return;
+		}
+		if (this.count == 0) {
+			this.min = value;
+			this.max = value;
+		} else {
+			this.min = Math.min(this.min, value);
+			this.max = Math.max(this.max, value);
+		}
+		this.count++;
+		append(0, value);
+		compress();
+	}
+
+	/**
+	 * Adds the values of another sketch to this sketch. The other sketch is
+	 * not changed. A sketch merged with itself counts its values twice.
+	 *
+	 * @param  other the other sketch.
+	 * @return this sketch.
+	 * @throws IllegalArgumentException if the sketches have a different accuracy.
+	 */
+	public QuantileSketch merge(QuantileSketch other) {
+		if (other.k != this.k) {
+			throw new IllegalArgumentException("the sketches have a different k: " + this.k + ", " + other.k);
+		}
+		if (other.count == 0) {
+			return this;
+		}
+		if (other == this) {
+			// appending to the levels being read would never end
+			other = this.copy();
+		}
+		if (this.count == 0) {
+			this.min = other.min;
+			this.max = other.max;
+		} else {
+			this.min = Math.min(this.min, other.min);
+			this.max = Math.max(this.max, other.max);
+		}
+		this.count += other.count;
+		for (int h = 0; h < other.height; h++) {
+			for (int i = 0; i < other.sizes[h]; i++) {
+				append(h, other.levels[h][i]);
+			}
+		}
+		compress();
+		return this;
+	}
+
+	/**
+	 * Returns an estimate of the value at the given quantile.
+	 *
+	 * @param  fraction the quantile between 0 and 1, e.g. 0.5 for the median.
+	 * @return the estimated value, or {@link Double#NaN} if the sketch is empty.
+	 * @throws IllegalArgumentException if the fraction is not between 0 and 1.
+	 */
+	public double getQuantile(double fraction) {
+		if (!(fraction >= 0 && fraction <= 1)) {
+			throw new IllegalArgumentException("fraction must be between 0 and 1: " + fraction);
+		}
+		if (this.count == 0) {
+			return Double.NaN;
+		}
+		if (fraction == 0) {
+			return this.min;
+		}
+		if (fraction == 1) {
+			return this.max;
+		}
+		// merges the sorted levels, a value at level h weighing 2^h
+		double[][] sorted = new double[this.height][];
+		int[] next = new int[this.height];
+		for (int h = 0; h < this.height; h++) {
+			sorted[h] = Arrays.copyOf(this.levels[h], this.sizes[h]);
+			Arrays.sort(sorted[h]);
+		}
+		double target = fraction * this.count;
+		long weight = 0;
+		while (true) {
+			int lowest = -1;
+			for (int h = 0; h < this.height; h++) {
+				if (next[h] < sorted[h].length && (lowest < 0 || sorted[h][next[h]] < sorted[lowest][next[lowest]])) {
+					lowest = h;
+				}
+			}
+			if (lowest < 0) {
+				break;
+			}
+			double value = sorted[lowest][next[lowest]++];
+			weight += 1L << lowest;
+			if (weight >= target) {
+				return value;
+			}
+		}
+		return this.max;
+	}
+
+	/**
+	 * Returns a copy of this sketch.
+	 *
+	 * @return a copy of this sketch.
+	 */
+	public QuantileSketch copy() {
+		return new QuantileSketch(this);
+	}
+
+	/**
+	 * Returns the capacity of a level: the top level holds k values and each
+	 * level below holds two thirds of the level above.
+	 */
+	private int capacity(int level) {
+		int depth = this.height - 1 - level;
+		return Math.max(MIN_CAPACITY, (int) Math.ceil(this.k * Math.pow(CAPACITY_RATIO, depth)));
+	}
+
+	/**
+	 * Appends a value to a level, adding the level if needed.
+	 */
+	private void append(int level, double value) {
+		while (level >= this.height) {
+			if (this.height == this.levels.length) {
+				this.levels = Arrays.copyOf(this.levels, 2 * this.height);
+				this.sizes = Arrays.copyOf(this.sizes, 2 * this.height);
+			}
+			this.levels[this.height] = new double[MIN_CAPACITY];
+			this.height++;
+		}
+		double[] items = this.levels[level];
+		if (this.sizes[level] == items.length) {
+			items = Arrays.copyOf(items, 2 * items.length);
+			this.levels[level] = items;
+		}
+		items[this.sizes[level]++] = value;
+	}
+
+	/**
+	 * Compacts full levels until the retained values fit into the capacity.
+	 */
+	private void compress() {
+		while (true) {
+			int retained = 0;
+			int capacity = 0;
+			for (int h = 0; h < this.height; h++) {
+				retained += this.sizes[h];
+				capacity += capacity(h);
+			}
+			if (retained <= capacity) {
+				return;
+			}
+			for (int h = 0; h < this.height; h++) {
+				if (this.sizes[h] >= capacity(h)) {
+					compact(h);
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Sorts a level and promotes every other value to the level above. With
+	 * an odd number of values the smallest value stays on the level.
+	 */
+	private void compact(int level) {
+		int size = this.sizes[level];
+		double[] items = this.levels[level];
+		Arrays.sort(items, 0, size);
+		int kept = size & 1;
+		int start = kept + (int) ((this.odd >>> level) & 1L);
+		this.odd ^= 1L << level;
+		for (int i = start; i < size; i += 2) {
+			append(level + 1, items[i]);
+		}
+		this.sizes[level] = kept;
+	}
+
+	/**
+	 * Returns a string representation of the sketch.
+	 *
+	 * @return a string representation of this sketch.
+	 * @see    java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "QuantileSketch [k=" + k + ", count=" + count + ", min=" + min + ", max=" + max + ", median=" + getQuantile(0.5) + "]";
+	}
+}
@@ -16,7 +16,7 @@ import java.net.URL;
  * </p>
  * 
  * @author Sami Holck
- * @author Juha Mkil
+ * @author Juha Mäkilä
  * 
  */
 public class UrlUtils {
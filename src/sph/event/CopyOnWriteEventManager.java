@@ -0,0 +1,196 @@
+/**
+ * <p><b>Copyright 2013 Juha Mäkilä and Sami Holck</b></p>
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at</p>
+ * 
+ *     <a href="http://www.apache.org/licenses/LICENSE-2.0"
+ *     target="_new">http://www.apache.org/licenses/LICENSE-2.0</a>
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.</p>
+ */
+package sph.event;
+
+import java.io.Serializable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Copy-on-write event manager. A drop-in replacement of {@link BasicEventManager}
+ * for events that are fired much more often than listeners are added or removed.
+ *
+ * <p>The listeners of each event are kept in an immutable array. Adding or
+ * removing a listener replaces the array with a modified copy, so
+ * {@link #callListeners(Object, Object, Object) calling the listeners} neither
+ * locks nor allocates, and a listener may safely add or remove listeners while
+ * it is called. Such changes take effect from the next call.</p>
+ *
+ * <p>The listeners of an event are called in the order they were added,
+ * whereas {@link BasicEventManager} calls them in the iteration order of a
+ * hash set. A listener is added to an event only once (see
+ * {@link Object#equals(Object)}). Null listeners and null events are ignored
+ * when listeners are added, so there are no null listeners to prune when the
+ * listeners are called; {@link BasicEventManager} registers listeners to a
+ * null event.</p>
+ *
+ * <p><strong>copyright &copy; Ville-Video 2013</strong></p>
+ *
+ * @param <E> the parameterized event type.
+ * @param <S> the parameterized type of the event source.
+ * @param <D> the parameterized type of the event data.
+ * @param <L> the parameterized type of the event listener.
+ * @version 0.1
+ * @since   17.10.2026
+ */
+public class CopyOnWriteEventManager<E, S, D, L extends EventListener<E, S, D>> implements EventManager<E, S, D, L>, Serializable {
+
+	private static final long serialVersionUID = 3417960148622753071L;
+
+	private final ConcurrentMap<E, EventListener<?, ?, ?>[]> listeners_ = new ConcurrentHashMap<E, EventListener<?, ?, ?>[]>();
+
+	/**
+	 * Create the event manager instance.
+	 */
+	public CopyOnWriteEventManager() {
+	}
+
+	/**
+	 * Add a listener. Null events and null listeners are ignored.
+	 *
+	 * @param event The event the listener will listen to.
+	 * @param eventListener The event listener object itself.
+	 */
+	@Override
+	public synchronized void addListener(E event, L eventListener) {
+		if (event == null || eventListener == null) {
+			return;
+		}
+		EventListener<?, ?, ?>[] eventListeners = listeners_.get(event);
+		if (eventListeners == null) {
+			listeners_.put(event, new EventListener<?, ?, ?>[] { eventListener });
+			return;
+		}
+		if (indexOf(eventListeners, eventListener) >= 0) {
+			return;
+		}
+		EventListener<?, ?, ?>[] copy = new EventListener<?, ?, ?>[eventListeners.length + 1];
+		System.arraycopy(eventListeners, 0, copy, 0, eventListeners.length);
+		copy[eventListeners.length] = eventListener;
+		listeners_.put(event, copy);
+	}
+
+	/**
+	 * Remove listener from specific event.
+	 *
+	 * @param event Event object to remove listener from.
+	 * @param eventListener Listener to remove.
+	 */
+	@Override
+	public synchronized void removeListener(E event, L eventListener) {
+		if (event == null) {
+			removeListener(eventListener);
+			return;
+		}
+		EventListener<?, ?, ?>[] eventListeners = listeners_.get(event);
+		if (eventListeners == null) {
+			return;
+		}
+		int index = indexOf(eventListeners, eventListener);
+		if (index < 0) {
+			return;
+		}
+		if (eventListeners.length == 1) {
+			// Remove the event as such if this was the last listener for this event
+			listeners_.remove(event);
+		} else {
+			EventListener<?, ?, ?>[] copy = new EventListener<?, ?, ?>[eventListeners.length - 1];
+			System.arraycopy(eventListeners, 0, copy, 0, index);
+			System.arraycopy(eventListeners, index + 1, copy, index, copy.length - index);
+			listeners_.put(event, copy);
+		}
+	}
+
+	/**
+	 * Remove listener from all events it is registered by. Convenient way of
+	 * cleaning up an listener object being destroyed.
+	 *
+	 * @param eventListener Event listener to remove.
+	 */
+	@Override
+	public synchronized void removeListener(L eventListener) {
+		for (E event : listeners_.keySet()) {
+			removeListener(event, eventListener);
+		}
+	}
+
+	/**
+	 * Clears all EventListeners from the manager.
+	 */
+	@Override
+	public synchronized void clear() {
+		listeners_.clear();
+	}
+
+	/**
+	 * Indicates whether any listeners are registered to the given event.
+	 *
+	 * @param event the event object.
+	 * @return true if at least one listener listens to the event.
+	 */
+	public boolean hasListeners(E event) {
+		return event != null && listeners_.containsKey(event);
+	}
+
+	/**
+	 * Calls listeners. The definition of <em>event</em>, <em>source</em> and <em>data</em> is
+	 * purely up to the communicating classes.
+	 *
+	 * @param event the event object.
+	 * @param source Source of the event object (or null).
+	 * @param data Additional data of the event (or null).
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public void callListeners(E event, S source, D data) {
+		if (event == null) {
+			return;
+		}
+		EventListener<?, ?, ?>[] eventListeners = listeners_.get(event);
+		if (eventListeners == null) {
+			return;
+		}
+		for (int i = 0; i < eventListeners.length; i++) {
+			((L) eventListeners[i]).on(event, source, data);
+		}
+	}
+
+	/**
+	 * Calls listeners. Convenience front-end where the additional data parameter is null.
+	 * The definition of <em>event</em> and <em>source</em> is purely up to the
+	 * communicating classes.
+	 *
+	 * @param event the event object.
+	 * @param source Source of the event object (or null).
+	 */
+	@Override
+	public void callListeners(E event, S source) {
+		callListeners(event, source, null);
+	}
+
+	/**
+	 * Returns the position of the listener in the array or -1.
+	 */
+	private static int indexOf(EventListener<?, ?, ?>[] eventListeners, Object eventListener) {
+		for (int i = 0; i < eventListeners.length; i++) {
+			if (eventListeners[i].equals(eventListener)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+}
@@ -4,7 +4,7 @@
  * <p><strong>copyright &copy; Ville-Video 2013</strong></p>
  *
  * @author  <a href="mailto:sami.holck@gmail.com">Sami Holck</a>
- * @author  Juha Mkil
+ * @author  Juha Mäkilä
  * @version 2.0
  * @since   23.09.2013
  */
@@ -4,7 +4,7 @@
  * 
  *
  * @author  Sami Holck
- * @author  Juha Mkil
+ * @author  Juha Mäkilä
  * @version 2.0
  * @since   16.09.2013
  *
@@ -11,7 +11,7 @@ import com.vaadin.ui.AbstractTextField;
  * <p><strong>copyright &copy; Ville-Video 2013</strong></p>
  * 
  * @author  <a href="mailto:sami.holck@gmail.com">Sami Holck</a>
- * @author  Juha Mkil
+ * @author  Juha Mäkilä
  * @version 2.1
  * @since   11.09.2013
  * 
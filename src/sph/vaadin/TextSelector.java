@@ -13,7 +13,7 @@ import com.vaadin.ui.AbstractTextField;
  * TextSelector selects the text from an AbstractTextField type object when the object is focused
  *
  * @author  Sami Holck
- * @author  Juha Mkil
+ * @author  Juha Mäkilä
  *
  */
 public class TextSelector implements FieldEvents.FocusListener {
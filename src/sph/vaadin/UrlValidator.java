@@ -1,5 +1,5 @@
 /**
- * <p><b>Copyright 2013 Juha Mkil and Sami Holck</b></p>
+ * <p><b>Copyright 2013 Juha Mäkilä and Sami Holck</b></p>
  * 
  * <p>Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -25,7 +25,7 @@ import com.vaadin.data.validator.AbstractStringValidator;
  * <p><strong>copyright &copy; Ville-Video 2013</strong></p>
  *
  * @author  Sami Holck
- * @author  Juha Mkil
+ * @author  Juha Mäkilä
  * @version 1.0
  * @since   12.10.2013
  */
@@ -1,5 +1,5 @@
 /**
- * <p><b>Copyright 2013 Juha Mkil and Sami Holck</b></p>
+ * <p><b>Copyright 2013 Juha Mäkilä and Sami Holck</b></p>
  * 
  * <p>Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -33,7 +33,7 @@ import com.vaadin.ui.Window;
  * <p><strong>copyright &copy; Ville-Video 2013</strong></p>
  * 
  * @author  <a href="mailto:sami.holck@gmail.com">Sami Holck</a>
- * @author  Juha Mkil
+ * @author  Juha Mäkilä
  * @version 1.0
  * @since   8.11.2013
  */
@@ -183,7 +183,7 @@ public class ConfirmDialog extends Window implements Button.ClickListener {
 	 * Callback interface for the {@link ConfirmDialog} window.
 	 *
 	 * @author  <a href="mailto:sami.holck@gmail.com">Sami Holck</a>
-	 * @author  Juha Mkil
+	 * @author  Juha Mäkilä
 	 * @version 0.1
 	 * @since   8.11.2013
 	 */
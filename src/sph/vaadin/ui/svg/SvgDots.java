@@ -1,5 +1,5 @@
 /**
- * <p><b>Copyright 2013 Juha Mkil and Sami Holck</b></p>
+ * <p><b>Copyright 2013 Juha Mäkilä and Sami Holck</b></p>
  * 
  * <p>Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,11 +19,12 @@ package sph.vaadin.ui.svg;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 
 import org.json.JSONArray;
 import org.json.JSONException;
 
-import sph.event.BasicEventManager;
+import sph.event.CopyOnWriteEventManager;
 import sph.event.EventListener;
 
 import com.vaadin.ui.AbstractJavaScriptComponent;
@@ -32,17 +33,21 @@ import com.vaadin.ui.JavaScriptFunction;
 /**
  * SvgDots Component draws colored circles (dots) horizontally to an SVG canvas.
  * 
- * <p>Uses <a href="http://raphaeljs.com/">RaphalJavaScript Library</a> for SVG graphics.</p>
+ * <p>The {@link SvgDots.Dot} elements stay on the server. Only their colors,
+ * titles and clickable states are sent to the client (see {@link SvgDotsState}),
+ * the application specific {@link SvgDots.Dot#getData() data} never leaves the server.</p>
+ * 
+ * <p>Uses <a href="http://raphaeljs.com/">RaphaëlJavaScript Library</a> for SVG graphics.</p>
  * 
  * <p><strong>copyright &copy; Ville-Video 2013</strong></p>
  * 
  * @author  <a href="mailto:sami.holck@gmail.com">Sami Holck</a>
- * @author  Juha Mkil
+ * @author  Juha Mäkilä
  * @version 1.01
  * @since   19.10.2013
- * @see     <a href="http://raphaeljs.com/">RaphalJavaScript Library</a>
- * @see     <a href="http://raphaeljs.com/reference.html">Raphal Reference</a>
- * @see     <a href="http://chrismichaelscott.github.io/fraphael/">FRaphael Filter Effects for Raphal</a>
+ * @see     <a href="http://raphaeljs.com/">RaphaëlJavaScript Library</a>
+ * @see     <a href="http://raphaeljs.com/reference.html">Raphaël Reference</a>
+ * @see     <a href="http://chrismichaelscott.github.io/fraphael/">FRaphael Filter Effects for Raphaël</a>
  * @see     <a href="https://github.com/chrismichaelscott/fraphael/wiki/Documentation">FRaphael documentation</a>
  * @see     <a href="http://www.w3schools.com/svg/svg_reference.asp">w3schools.com SVG Reference</a>
  */
@@ -53,10 +58,20 @@ public class SvgDots extends AbstractJavaScriptComponent {
 
 	private ArrayList<SvgDots.Dot> dots = new ArrayList<SvgDots.Dot>();
 
+	/**
+	 * the wire form of the dots shared with the client
+	 */
+	private ArrayList<String> palette = new ArrayList<String>();
+	private int[] colors = new int[0];
+	private String[] titles = new String[0];
+	private boolean[] clickables = new boolean[0];
+
+	private int eventBatchWindow;
+
 	/**
 	 * an SvgDots EventManager
 	 */
-	private final BasicEventManager<String, SvgDots, Integer, DotListener> dotEventManager = new BasicEventManager<String, SvgDots, Integer, DotListener>();
+	private final CopyOnWriteEventManager<String, SvgDots, Integer, DotListener> dotEventManager = new CopyOnWriteEventManager<String, SvgDots, Integer, DotListener>();
 
 	/**
 	 * <strong>Default Constructor:</strong> Creates an empty SVG canvas for {@link SvgDots.Dot} elements.
@@ -112,6 +127,21 @@ public class SvgDots extends AbstractJavaScriptComponent {
 				}
 			}
 		});
+		this.addFunction("delegateDotEvents", new JavaScriptFunction() {
+
+			private static final long serialVersionUID = 6071815226361052807L;
+
+			@Override
+			public void call(JSONArray arguments) throws JSONException {
+				if (arguments.length() > 0) {
+					JSONArray events = arguments.getJSONArray(0);
+					for (int i = 0; i < events.length(); i++) {
+						JSONArray event = events.getJSONArray(i);
+						dotEventManager.callListeners(event.getString(0), SvgDots.this, event.getInt(1));
+					}
+				}
+			}
+		});
 		this.addDetachListener(new DetachListener() {
 
 			private static final long serialVersionUID = 5583909485994600778L;
@@ -134,7 +164,89 @@ public class SvgDots extends AbstractJavaScriptComponent {
 		ArrayList<SvgDots.Dot> list = new ArrayList<SvgDots.Dot>(dotList.size());
 		list.addAll(dotList);
 		this.dots = list;
-		getState().dots = list;
+		this.palette = new ArrayList<String>();
+		this.colors = new int[list.size()];
+		this.titles = new String[list.size()];
+		this.clickables = new boolean[list.size()];
+		for (int i = 0; i < list.size(); i++) {
+			SvgDots.Dot dot = list.get(i);
+			this.colors[i] = this.colorIndex(dot.getColor());
+			this.titles[i] = dot.getTitle();
+			this.clickables[i] = dot.isClickable();
+		}
+		SvgDotsState state = getState();
+		state.palette = this.palette;
+		state.colors = this.colors;
+		state.titles = this.titles;
+		state.clickable = this.clickables;
+	}
+
+	/**
+	 * Returns the index of the color in the palette and adds a new color to the palette.
+	 * 
+	 * <p>The wire form arrays are shared with the state, so changing them
+	 * in place keeps a later state update consistent with the incremental
+	 * changes already sent to the client.</p>
+	 */
+	private int colorIndex(String color) {
+		int index = this.palette.indexOf(color);
+		if (index < 0) {
+			index = this.palette.size();
+			this.palette.add(color);
+		}
+		return index;
+	}
+
+	/**
+	 * Updates the {@link SvgDots.Dot} elements on the SVG canvas to the given ones.
+	 * 
+	 * <p>Only the changed properties of the changed dots are sent to the client.
+	 * The dots are {@link #draw(Collection) drawn} again if the number of the dots
+	 * changes or if more than half of the dots have changed.</p>
+	 * 
+	 * @param dotList a collection of dots.
+	 */
+	public void update(final Collection<SvgDots.Dot> dotList) {
+		if (dotList.size() != this.dots.size()) {
+			this.draw(dotList);
+			return;
+		}
+		int changed = 0;
+		Iterator<SvgDots.Dot> it = dotList.iterator();
+		for (int i = 0; it.hasNext(); i++) {
+			if (!this.dots.get(i).equals(it.next())) {
+				changed++;
+			}
+		}
+		if (changed > this.dots.size() / 2) {
+			this.draw(dotList);
+			return;
+		}
+		it = dotList.iterator();
+		for (int i = 0; it.hasNext(); i++) {
+			SvgDots.Dot dot = it.next();
+			SvgDots.Dot old = this.dots.get(i);
+			if (!equal(old.getColor(), dot.getColor())) {
+				this.colors[i] = this.colorIndex(dot.getColor());
+				this.callFunction("setDotColor", i, dot.getColor());
+			}
+			if (!equal(old.getTitle(), dot.getTitle())) {
+				this.titles[i] = dot.getTitle();
+				this.callFunction("setDotTitle", i, dot.getTitle());
+			}
+			if (old.isClickable() != dot.isClickable()) {
+				this.clickables[i] = dot.isClickable();
+				this.callFunction("setDotClickable", i, dot.isClickable());
+			}
+			this.dots.set(i, dot);
+		}
+	}
+
+	/**
+	 * Null safe equality of two strings.
+	 */
+	private static boolean equal(String s1, String s2) {
+		return (s1 == null) ? s2 == null : s1.equals(s2);
 	}
 
 	/**
@@ -148,6 +260,19 @@ public class SvgDots extends AbstractJavaScriptComponent {
 		return this.dots.get(index);
 	}
 
+	/**
+	 * Returns the application specific data of the {@link SvgDots.Dot} element
+	 * at the given index. The data is never sent to the client.
+	 * 
+	 * @param   index the index of the {@link SvgDots.Dot} element.
+	 * @return  the application specific data of the dot.
+	 * @throws  IndexOutOfBoundsException if the index is out of range (index < 0 || index >= size()).
+	 * @see     SvgDots.Dot#getData()
+	 */
+	public Object getDotData(int index) {
+		return this.dots.get(index).getData();
+	}
+
 	/**
 	 * Replaces the {@link SvgDots.Dot} element at the given index.
 	 * 
@@ -157,7 +282,10 @@ public class SvgDots extends AbstractJavaScriptComponent {
 	 */
 	public void replaceDot(int index, SvgDots.Dot dot) {
 		this.dots.set(index, dot);
-		this.callFunction("replaceDot", index, dot);
+		this.colors[index] = this.colorIndex(dot.getColor());
+		this.titles[index] = dot.getTitle();
+		this.clickables[index] = dot.isClickable();
+		this.callFunction("replaceDot", index, dot.getColor(), dot.getTitle(), dot.isClickable());
 	}
 
 	/**
@@ -167,6 +295,8 @@ public class SvgDots extends AbstractJavaScriptComponent {
 	 * @param color the color of the {@link SvgDots.Dot}.
 	 */
 	public void setDotColor(int index, String color) {
+		this.dots.get(index).setColor(color);
+		this.colors[index] = this.colorIndex(color);
 		this.callFunction("setDotColor", index, color);
 	}
 
@@ -177,9 +307,49 @@ public class SvgDots extends AbstractJavaScriptComponent {
 	 * @param title the color of the {@link SvgDots.Dot}.
 	 */
 	public void setDotTitle(int index, String title) {
+		this.dots.get(index).setTitle(title);
+		this.titles[index] = title;
 		this.callFunction("setDotTitle", index, title);
 	}
 
+	/**
+	 * Changes the clickable state of the {@link SvgDots.Dot} on the given index.
+	 * 
+	 * @param index the index of the {@link SvgDots.Dot}.
+	 * @param clickable a boolean value specifying whether the dot is clickable or not.
+	 */
+	public void setDotClickable(int index, boolean clickable) {
+		this.dots.get(index).setClickable(clickable);
+		this.clickables[index] = clickable;
+		this.callFunction("setDotClickable", index, clickable);
+	}
+
+	/**
+	 * Sets the window in which the client collects the dot events into one
+	 * server call. The listeners are called in the original order of the events.
+	 * 
+	 * @param  batchWindow the batch window in milliseconds, 0 to send every event in its own call.
+	 * @throws IllegalArgumentException if the window is negative.
+	 */
+	public void setEventBatchWindow(int batchWindow) {
+		if (batchWindow < 0) {
+			throw new IllegalArgumentException("Negative batch window: " + batchWindow);
+		}
+		if (batchWindow != this.eventBatchWindow) {
+			this.eventBatchWindow = batchWindow;
+			getState().eventBatchWindow = batchWindow;
+		}
+	}
+
+	/**
+	 * Returns the window in which the client collects the dot events into one server call.
+	 * 
+	 * @return the batch window in milliseconds.
+	 */
+	public int getEventBatchWindow() {
+		return this.eventBatchWindow;
+	}
+
 	/**
 	 * Returns the number of SVG dots drawn into this {@link SvgDots}.
 	 * 
@@ -236,10 +406,11 @@ public class SvgDots extends AbstractJavaScriptComponent {
 	/**
 	 * Dot contains all the required information about a single SVG dot in {@link SvgDots} component.
 	 * 
-	 * <p><strong class="red">Note:</strong> Dot is a JavaBeans Component.</p>
+	 * <p><strong class="red">Note:</strong> Dot is a JavaBeans Component. Dots are
+	 * kept on the server, only their color, title and clickable state are sent to the client.</p>
 	 * 
 	 * @author  <a href="mailto:sami.holck@gmail.com">Sami Holck</a>
-	 * @author  Juha Mkil
+	 * @author  Juha Mäkilä
 	 * @version 1.01
 	 * @since   22.10.2013
 	 */
@@ -260,7 +431,7 @@ public class SvgDots extends AbstractJavaScriptComponent {
 		 */
 		private boolean clickable = true;
 		/**
-		 * Property <code>clickable</code>: the color of the SVG dot
+		 * Property <code>data</code>: the server-only application specific data of the SVG dot
 		 */
 		private Object data;
 
@@ -310,7 +481,7 @@ public class SvgDots extends AbstractJavaScriptComponent {
 
 		/**
 		 * Sets the data object, that can be used for any application specific
-		 * data. The component does not use or modify this data.
+		 * data. The component does not use or modify this data, nor send it to the client.
 		 * 
 		 * @param data the application specific data.
 		 */
@@ -481,7 +652,7 @@ public class SvgDots extends AbstractJavaScriptComponent {
 	 * SvgDotsListener interface for listening to {@link SvgDots.Dot} events fired by an {@link SvgDots} component.
 	 * 
 	 * @author  <a href="mailto:sami.holck@gmail.com">Sami Holck</a>
-	 * @author  Juha Mkil
+	 * @author  Juha Mäkilä
 	 * @version 1.0
 	 * @since   11.10.2013
 	 */
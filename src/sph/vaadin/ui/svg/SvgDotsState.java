@@ -1,5 +1,5 @@
 /**
- * <p><b>Copyright 2013 Juha Mkil and Sami Holck</b></p>
+ * <p><b>Copyright 2013 Juha Mäkilä and Sami Holck</b></p>
  * 
  * <p>Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@
 package sph.vaadin.ui.svg;
 
 import java.util.ArrayList;
+import java.util.List;
 
 import com.vaadin.shared.ui.JavaScriptComponentState;
 
@@ -62,7 +63,7 @@ import com.vaadin.shared.ui.JavaScriptComponentState;
  * <p><strong>copyright &copy; Ville-Video 2013</strong></p>
  *
  * @author  <a href="mailto:sami.holck@gmail.com">Sami Holck</a>
- * @author  Juha Mkil
+ * @author  Juha Mäkilä
  * @version 0.1
  * @since   19.10.2013
  *
@@ -71,6 +72,25 @@ public class SvgDotsState extends JavaScriptComponentState {
 
 	private static final long serialVersionUID = -3111856093333159122L;
 
-	public ArrayList<SvgDots.Dot> dots;
+	/**
+	 * the distinct colors of the dots
+	 */
+	public List<String> palette = new ArrayList<String>();
+	/**
+	 * the color of each dot as an index to the palette
+	 */
+	public int[] colors = new int[0];
+	/**
+	 * the title of each dot
+	 */
+	public String[] titles = new String[0];
+	/**
+	 * the clickable state of each dot
+	 */
+	public boolean[] clickable = new boolean[0];
+	/**
+	 * the window in milliseconds the client collects the dot events into one server call
+	 */
+	public int eventBatchWindow;
 
 }
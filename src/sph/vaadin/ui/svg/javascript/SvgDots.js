@@ -54,6 +54,10 @@
 		console.log("sphSvg.SvgDots(target: " + target + ")");
 		this.target = target;
 		this.circles = [];
+		this.clickHandlers = [];
+		this.batchWindow = 0;
+		this.eventBatch = [];
+		this.batchTimer = null;
 		this.paper = new Raphael(target, 700, 20);
 		this.typeOf = "sphSvg.SvgDots";
 		return this;
@@ -83,6 +87,8 @@
 			console.log("sphSvg.SvgDots.draw(dots: " + dots + ")");
 			this.dots = dots;
 			this.paper.clear();
+			this.circles = [];
+			this.clickHandlers = [];
 			var index = 0, y = 11, x = 0, rows = 1;
 			for (index; index < this.dots.length; index++) {
 				if (index !== 0 && (index % 38) === 0) {
@@ -115,8 +121,10 @@
 		 * @see      {@link external:Raphael Raphael}
 		 */
 		replaceDot: function (index, dot) {
-			console.log("sphSvg.SvgDots.repaintDot(index: " + index + ", dotData: " + dot + ")");
+			console.log("sphSvg.SvgDots.replaceDot(index: " + index + ", dotData: " + dot + ")");
 			this.circles[index].attr({fill: dot.color, title: dot.title});
+			this.setDotClickable(index, dot.clickable);
+			this.dots[index] = dot;
 			return this;
 		},
 
@@ -125,18 +133,23 @@
 		 *
 		 * @public
 		 * @memberOf sphSvg.SvgDots#
+		 * @param    {Number} index the index of the target dot.
 		 * @param    {Boolean} clickable a boolean value specifying whether the dot is clickable or not.
 		 * @returns  {sphSvg.SvgDots} the SvgDots object.
 		 */
 		setDotClickable: function (index, clickable) {
-			var that = this, clicked = function () {
-				that.callback("click", index);
-			};
-			if (clickable) {
-				this.circles[index].click(clicked);
-			} else {
-				this.circles[index].unclick(clicked);
+			var that = this;
+			if (clickable && !this.clickHandlers[index]) {
+				this.clickHandlers[index] = function () {
+					that.sendEvent("click", index);
+				};
+				this.circles[index].click(this.clickHandlers[index]);
+			} else if (!clickable && this.clickHandlers[index]) {
+				this.circles[index].unclick(this.clickHandlers[index]);
+				this.clickHandlers[index] = null;
 			}
+			this.dots[index].clickable = clickable;
+			return this;
 		},
 
 		/**
@@ -151,6 +164,7 @@
 		setDotColor: function (index, color) {
 			console.log("sphSvg.SvgDots.setDotColor(index: " + index + ", color: " + color + ")");
 			this.circles[index].attr({fill: color});
+			this.dots[index].color = color;
 			return this;
 		},
 
@@ -166,9 +180,33 @@
 		setDotTitle: function (index, title) {
 			console.log("sphSvg.SvgDots.setDotTitle(index: " + index + ", title: " + title + ")");
 			this.circles[index].attr({title: title});
+			this.dots[index].title = title;
 			return this;
 		},
 
+		/**
+		 * Indicates whether the given dots equal to the drawn ones.
+		 *
+		 * @public
+		 * @memberOf sphSvg.SvgDots#
+		 * @param    {Array.<DotData>} dots an Array of {@link DotData} objects.
+		 * @returns  {boolean} true if the dots are drawn already.
+		 */
+		isDrawn: function (dots) {
+			var index;
+			if (!this.dots || this.dots.length !== dots.length) {
+				return false;
+			}
+			for (index = 0; index < dots.length; index++) {
+				if (this.dots[index].color !== dots[index].color
+						|| this.dots[index].title !== dots[index].title
+						|| this.dots[index].clickable !== dots[index].clickable) {
+					return false;
+				}
+			}
+			return true;
+		},
+
 		/**
 		 * Callback method for delegating SVG dot events from a {@link sphSvg.SvgDots} object.
 		 *
@@ -178,17 +216,83 @@
 		 */
 
 		/**
-		 * Sets the callback function for even delegation to other systems.
+		 * Callback method for delegating a batch of SVG dot events from a {@link sphSvg.SvgDots} object.
+		 *
+		 * @callback dotEventsCallback
+		 * @param    {Array.<Array>} events the events, each an array of the event name and the dot index.
+		 */
+
+		/**
+		 * Sets the callback functions for even delegation to other systems.
 		 *
 		 * @public
 		 * @memberOf sphSvg.SvgDots#
 		 * @param    {dotEventCallback} callback the event callback function.
+		 * @param    {dotEventsCallback} [batchCallback] the callback function for a batch of events.
 		 * @returns  {sphSvg.SvgDots} the SvgDots object.
 		 */
-		setEventCallback: function (callback) {
+		setEventCallback: function (callback, batchCallback) {
 			console.log("sphSvg.SvgDots.setEventCallback(callback: " + callback + ")");
 			this.callback = callback;
+			this.batchCallback = batchCallback;
+			return this;
+		},
+
+		/**
+		 * Sets the window in milliseconds the dot events are collected into one batch.
+		 *
+		 * @public
+		 * @memberOf sphSvg.SvgDots#
+		 * @param    {Number} batchWindow the batch window in milliseconds, 0 to send every event alone.
+		 * @returns  {sphSvg.SvgDots} the SvgDots object.
+		 */
+		setEventBatchWindow: function (batchWindow) {
+			this.batchWindow = batchWindow || 0;
+			if (this.batchWindow <= 0) {
+				this.flushBatch();
+			}
 			return this;
+		},
+
+		/**
+		 * Delegates a dot event. Inside the batch window the events are collected
+		 * and delegated in one call of the batch callback function.
+		 *
+		 * @private
+		 * @memberOf sphSvg.SvgDots#
+		 * @param    {String} eventName the name of the event.
+		 * @param    {Number} index the index of the SVG dot that triggered the event.
+		 */
+		sendEvent: function (eventName, index) {
+			var that = this;
+			if (this.batchWindow > 0 && this.batchCallback) {
+				this.eventBatch.push([eventName, index]);
+				if (this.batchTimer === null) {
+					this.batchTimer = setTimeout(function () {
+						that.flushBatch();
+					}, this.batchWindow);
+				}
+			} else {
+				this.callback(eventName, index);
+			}
+		},
+
+		/**
+		 * Delegates the collected dot events.
+		 *
+		 * @private
+		 * @memberOf sphSvg.SvgDots#
+		 */
+		flushBatch: function () {
+			var batch = this.eventBatch;
+			clearTimeout(this.batchTimer);
+			this.batchTimer = null;
+			this.eventBatch = [];
+			if (batch.length === 1) {
+				this.callback(batch[0][0], batch[0][1]);
+			} else if (batch.length > 1) {
+				this.batchCallback(batch);
+			}
 		}
 	};
 
@@ -213,9 +317,28 @@ window.sph_vaadin_ui_svg_SvgDots = function () {
 	"use strict";
 	console.log("\n---------------------");
 	console.log("sph_vaadin_ui_svg_SvgDots() {");
-	var dotDrawer = new sphSvg.SvgDots(this.getElement()), dots = [];
+	var dotDrawer = new sphSvg.SvgDots(this.getElement());
 
-	dotDrawer.setEventCallback(this.delegateDotEvent);
+	dotDrawer.setEventCallback(this.delegateDotEvent, this.delegateDotEvents);
+
+	/**
+	 * Builds the {@link DotData} objects from the compact wire form of the state.
+	 *
+	 * @function window.sph_vaadin_ui_svg_SvgDots~readDots
+	 * @param    {Object} state the shared state.
+	 * @returns  {Array.<DotData>} the dots.
+	 */
+	function readDots(state) {
+		var index, dots = [];
+		for (index = 0; index < state.colors.length; index++) {
+			dots.push({
+				color: state.palette[state.colors[index]],
+				title: state.titles[index],
+				clickable: state.clickable[index]
+			});
+		}
+		return dots;
+	}
 
 	/**
 	 * Method runs when the Vaadin server attempts to update the client values.
@@ -223,12 +346,12 @@ window.sph_vaadin_ui_svg_SvgDots = function () {
 	 * @function window.sph_vaadin_ui_svg_SvgDots~onStateChange
 	 */
 	this.onStateChange = function () {
+		var dots = readDots(this.getState());
 		console.log("\tonStateChange() {\n");
-		if (!_.isEqual(dots, this.getState().dots)) {
-			console.log(dots);
-			dots = this.getState().dots;
+		if (!dotDrawer.isDrawn(dots)) {
 			dotDrawer.draw(dots);
 		}
+		dotDrawer.setEventBatchWindow(this.getState().eventBatchWindow);
 		console.log("\t}");
 	};
 
@@ -237,10 +360,12 @@ window.sph_vaadin_ui_svg_SvgDots = function () {
 	 *
 	 * @function window.sph_vaadin_ui_svg_SvgDots~replaceDot
 	 * @param    {Number} index the index of the target dot.
-	 * @param    {DotData} dot required dot data.
+	 * @param    {String} color the new color of the dot.
+	 * @param    {String} title the new title of the dot.
+	 * @param    {boolean} clickable a boolean value specifying whether the dot is clickable or not.
 	 */
-	this.replaceDot = function (index, dot) {
-		dotDrawer.replaceDot(index, dot);
+	this.replaceDot = function (index, color, title, clickable) {
+		dotDrawer.replaceDot(index, {color: color, title: title, clickable: clickable});
 	};
 
 	/**
@@ -273,7 +398,7 @@ window.sph_vaadin_ui_svg_SvgDots = function () {
 	 * @param    {boolean} clickable a boolean value specifying whether the dot is clickable or not.
 	 */
 	this.setDotClickable = function (index, clickable) {
-		dotDrawer.setDotTitle(index, clickable);
+		dotDrawer.setDotClickable(index, clickable);
 	};
 	console.log("} sph_vaadin_ui_svg_SvgDots");
 	console.log("---------------------\n");
@@ -285,4 +410,12 @@ window.sph_vaadin_ui_svg_SvgDots = function () {
 	 * @param    {String} eventName the name of the {@link external:Raphael Raphael} event.
 	 * @param    {Number} index the index of the SVG dot that triggered the event.
 	 */
+
+	/**
+	 * Callback method for delegating a batch of SVG dot events from a {@link sphSvg.SvgDots} object to the Vaadin server.
+	 *
+	 * @function window.sph_vaadin_ui_svg_SvgDots~delegateDotEvents
+	 * @type     {dotEventsCallback}
+	 * @param    {Array.<Array>} events the events, each an array of the event name and the dot index.
+	 */
 };
\ No newline at end of file
@@ -0,0 +1,218 @@
+/**
+ * <p><b>Copyright 2013 Juha Mäkilä and Sami Holck</b></p>
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at</p>
+ * 
+ *     <a href="http://www.apache.org/licenses/LICENSE-2.0"
+ *     target="_new">http://www.apache.org/licenses/LICENSE-2.0</a>
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.</p>
+ */
+package sph.vaadin.ui.videojs;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+
+/**
+ * PlaybackClock estimates the playback position of a client side video player
+ * on the server.
+ *
+ * <p>The position is extrapolated from the latest anchor (a play, pause or
+ * seek event) using the monotonic {@link System#nanoTime() server clock} and
+ * the playback rate. Occasional position {@link #sync(double) syncs} during
+ * playback re-anchor the clock and correct the skew between the server clock
+ * and the playback.</p>
+ *
+ * <p>The client holds events back for rate limiting and batching before it
+ * sends them. The age of an event (the time it was held back on the client)
+ * moves the anchor back to the moment the event was fired.</p>
+ *
+ * <p><strong>copyright &copy; Ville-Video 2013</strong></p>
+ *
+ * @version 0.1
+ * @since   17.10.2026
+ */
+public final class PlaybackClock implements Serializable {
+
+	private static final long serialVersionUID = -2630567436413812049L;
+
+	/**
+	 * the minimum time between two syncs used for skew correction (nanoseconds)
+	 */
+	private static final long MIN_SKEW_SAMPLE = 500000000L;
+	/**
+	 * the weight of a new skew sample
+	 */
+	private static final double SKEW_WEIGHT = 0.25;
+	/**
+	 * the maximum correction of the playback rate
+	 */
+	private static final double MAX_SKEW = 0.1;
+	/**
+	 * the maximum accepted age of an event (milliseconds)
+	 */
+	private static final long MAX_AGE = 10000L;
+
+	private double position;
+	private transient long anchorNanos = System.nanoTime();
+	private boolean playing;
+	private double rate = 1.0;
+	private double skew = 1.0;
+	private double duration;
+
+	/**
+	 * Constructs a paused clock at the beginning of the video.
+	 */
+	public PlaybackClock() {
+	}
+
+	/**
+	 * Anchors the clock to a playback position reported by a play, pause or seek.
+	 *
+	 * @param position the playback position in seconds.
+	 * @param playing true if the video is playing from the position.
+	 */
+	public void update(double position, boolean playing) {
+		update(position, playing, 0L);
+	}
+
+	/**
+	 * Anchors the clock to a playback position reported by a play, pause or
+	 * seek that was fired the given time ago.
+	 *
+	 * @param position the playback position in seconds.
+	 * @param playing true if the video is playing from the position.
+	 * @param age the time in milliseconds since the event was fired.
+	 */
+	public synchronized void update(double position, boolean playing, long age) {
+		this.position = position;
+		this.anchorNanos = anchorOf(age);
+		this.playing = playing;
+	}
+
+	/**
+	 * Synchronizes the clock to a playback position reported during the
+	 * playback. The skew between the server clock and the playback is
+	 * corrected gradually when the syncs are far enough apart.
+	 *
+	 * @param position the playback position in seconds.
+	 */
+	public void sync(double position) {
+		sync(position, 0L);
+	}
+
+	/**
+	 * Synchronizes the clock to a playback position reported during the
+	 * playback the given time ago.
+	 *
+	 * @param position the playback position in seconds.
+	 * @param age the time in milliseconds since the position was reported.
+	 * @see   #sync(double)
+	 */
+	public synchronized void sync(double position, long age) {
+		long now = anchorOf(age);
+		long elapsed = now - this.anchorNanos;
+		if (this.playing && elapsed >= MIN_SKEW_SAMPLE && this.rate > 0) {
+			double observed = (position - this.position) / (elapsed / 1e9) / this.rate;
+			if (observed > 1.0 - MAX_SKEW && observed < 1.0 + MAX_SKEW) {
+				this.skew += (observed - this.skew) * SKEW_WEIGHT;
+			}
+		}
+		this.position = position;
+		this.anchorNanos = now;
+	}
+
+	/**
+	 * Returns the server clock time of an event fired the given time ago.
+	 * Ages that are negative or larger than {@value #MAX_AGE} milliseconds are ignored.
+	 */
+	private static long anchorOf(long age) {
+		long now = System.nanoTime();
+		return (age > 0 && age <= MAX_AGE) ? now - age * 1000000L : now;
+	}
+
+	/**
+	 * Returns the estimated playback position.
+	 *
+	 * @return the estimated playback position in seconds.
+	 */
+	public synchronized double getPosition() {
+		if (!this.playing) {
+			return this.position;
+		}
+		double estimate = this.position + (System.nanoTime() - this.anchorNanos) / 1e9 * this.rate * this.skew;
+		if (this.duration > 0 && estimate > this.duration) {
+			return this.duration;
+		}
+		return estimate;
+	}
+
+	/**
+	 * Indicates whether the clock is running.
+	 *
+	 * @return true if the video is playing.
+	 */
+	public synchronized boolean isPlaying() {
+		return this.playing;
+	}
+
+	/**
+	 * Sets the playback rate. The clock is re-anchored to the current estimate.
+	 *
+	 * @param rate the playback rate, 1.0 being the normal speed.
+	 */
+	public synchronized void setRate(double rate) {
+		this.position = this.getPosition();
+		this.anchorNanos = System.nanoTime();
+		this.rate = rate;
+	}
+
+	/**
+	 * Returns the playback rate.
+	 *
+	 * @return the playback rate, 1.0 being the normal speed.
+	 */
+	public synchronized double getRate() {
+		return this.rate;
+	}
+
+	/**
+	 * Sets the duration of the video. The estimated position never exceeds a positive duration.
+	 *
+	 * @param duration the duration of the video in seconds.
+	 */
+	public synchronized void setDuration(double duration) {
+		this.duration = duration;
+	}
+
+	/**
+	 * Returns a string representation of this clock.
+	 *
+	 * @return a string representation of this clock.
+	 * @see    java.lang.Object#toString()
+	 */
+	@Override
+	public synchronized String toString() {
+		return "PlaybackClock [position=" + getPosition() + ", playing=" + playing + ", rate=" + rate + ", skew=" + skew + "]";
+	}
+
+	/**
+	 * Reconstitutes the clock. The server clock does not survive the
+	 * serialization, so the clock is re-anchored to the latest position.
+	 *
+	 * @param  in the stream to read from.
+	 * @throws IOException if an I/O error occurs.
+	 * @throws ClassNotFoundException if the class of a serialized object cannot be found.
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		this.anchorNanos = System.nanoTime();
+	}
+}
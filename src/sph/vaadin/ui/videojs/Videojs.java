@@ -1,5 +1,5 @@
 /**
- * <p><b>Copyright 2013 Juha Mkil and Sami Holck</b></p>
+ * <p><b>Copyright 2013 Juha Mäkilä and Sami Holck</b></p>
  * 
  * <p>Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,17 +16,23 @@
  */
 package sph.vaadin.ui.videojs;
 
+import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
 import org.json.JSONArray;
 import org.json.JSONException;
 
-import sph.event.BasicEventManager;
+import sph.event.CopyOnWriteEventManager;
 import sph.event.EventListener;
 
+import com.vaadin.server.ClassResource;
 import com.vaadin.ui.AbstractJavaScriptComponent;
 import com.vaadin.ui.JavaScript;
 import com.vaadin.ui.JavaScriptFunction;
@@ -43,7 +49,7 @@ import edu.vserver.exercises.videoMcq.QuestionWindow;
  *   <li><span class="sph red bold">vimeo</span></li>
  *   <li><span>Native support from <code>HTML&lt;video&gt;</code> and <strong>Videojs</strong>:</span></li>
  *  <ul>
- *  <li><span class="sph red bold">video/ogg</span><span class="summary">= Ogg files with Theora video codec and Vorbis audio codec</span></li>
+ *  <li><span class="sph red bold">video/ogg</span><span class="summary"> = Ogg files with Theora video codec and Vorbis audio codec</span></li>
  *  <ul>
  *    <li class="Red">*.ogg</li>
  *    <li class="Red">*.ogv</li>
@@ -73,19 +79,14 @@ import edu.vserver.exercises.videoMcq.QuestionWindow;
  * <p><strong>copyright &copy; Ville-Video 2013</strong></p>
  * 
  * @author  <a href="mailto:sami.holck@gmail.com">Sami Holck</a>
- * @author  Juha Mkil
+ * @author  Juha Mäkilä
  * @version 2.1
  * @since   11.09.2013
  * 
  */
 @com.vaadin.annotations.JavaScript({
 	"javascript/jquery-1.10.2.min.js",
-	"javascript/underscore-min.js",
-	"javascript/video.js",
-	"javascript/vjs.youtube.js",
-	"javascript/vjs.vimeo.js",
-	/*"javascript/vjs.dailymotion.js",*/
-	"javascript/jquery.loadmask.min.js",
+	/* video.js, jquery.loadmask and the tech plugins are loaded on demand (see registerScripts()) */
 "javascript/Videojs.js" })
 public class Videojs extends AbstractJavaScriptComponent {
 
@@ -115,6 +116,54 @@ public class Videojs extends AbstractJavaScriptComponent {
 	 * MIME type for *.webm video sources (WebM files with VP8 video codec and Vorbis audio codec)
 	 */
 	public static final String WEBM_MIME = "video/webm";
+	/**
+	 * the default interval of the playback clock syncs in milliseconds
+	 */
+	public static final int DEFAULT_CLOCK_SYNC_INTERVAL = 5000;
+	/**
+	 * the default window of the client side event batches in milliseconds
+	 */
+	public static final int DEFAULT_EVENT_BATCH_WINDOW = 25;
+	/**
+	 * the Video.js events the client can forward to the server
+	 */
+	private static final String[] VIDEOJS_EVENTS = {
+		VjsListener.LOADSTART_EVENT,
+		VjsListener.LOADEDMETADATA_EVENT,
+		VjsListener.LOADEDDATA_EVENT,
+		VjsListener.LOADEDALLDATA_EVENT,
+		VjsListener.PLAY_EVENT,
+		VjsListener.PAUSE_EVENT,
+		VjsListener.TIMEUPDATE,
+		VjsListener.ENDED_EVENT,
+		VjsListener.DURATIONCHANGE_EVENT,
+		VjsListener.PROGRESS_EVENT,
+		VjsListener.RESIZE_EVENT,
+		VjsListener.VOLUMECHANGE_EVENT,
+		VjsListener.ERROR_EVENT,
+		VjsListener.FULLSCREENCHANGE_EVENT,
+		VjsListener.SEEKED_EVENT,
+		VjsListener.RATECHANGE_EVENT
+	};
+	/**
+	 * the Video.js events always forwarded to the server, because they keep
+	 * {@link #isPaused()}, {@link #getDuration()} and {@link #getCurrentTime()} up to date
+	 */
+	private static final List<String> REQUIRED_EVENTS = Arrays.asList(
+			VjsListener.PLAY_EVENT,
+			VjsListener.PAUSE_EVENT,
+			VjsListener.DURATIONCHANGE_EVENT,
+			VjsListener.SEEKED_EVENT,
+			VjsListener.RATECHANGE_EVENT,
+			VjsListener.ENDED_EVENT);
+	/**
+	 * the continuously fired Video.js events that can be rate limited
+	 */
+	private static final List<String> CONTINUOUS_EVENTS = Arrays.asList(
+			VjsListener.TIMEUPDATE,
+			VjsListener.PROGRESS_EVENT,
+			VjsListener.VOLUMECHANGE_EVENT,
+			VjsListener.RESIZE_EVENT);
 	/**
 	 * the source path of the video file
 	 */
@@ -128,7 +177,11 @@ public class Videojs extends AbstractJavaScriptComponent {
 	 */
 	private final String videoJsId;
 
-	private double currentTime = 0.0;
+	private final PlaybackClock clock = new PlaybackClock();
+
+	private int clockSyncInterval;
+
+	private int eventBatchWindow;
 
 	private double duration = 0.0;
 
@@ -138,11 +191,34 @@ public class Videojs extends AbstractJavaScriptComponent {
 
 	private boolean isPaused = true;
 
+	private boolean cuePausing;
+	private boolean deferredInit;
+
+	/**
+	 * the names of the events the client forwards to the server
+	 */
+	private List<String> subscribedEvents;
+
+	/**
+	 * the minimum intervals in milliseconds between the forwarded events
+	 */
+	private final Map<String, Integer> eventRateLimits = new HashMap<String, Integer>();
+
+	/**
+	 * the rate limits sent to the client
+	 */
+	private Map<String, Integer> sentRateLimits;
+
+
+	/**
+	 * a prompt EventManager
+	 */
+	private final CopyOnWriteEventManager<String, Videojs, PromptAnswer, PromptListener> promptEventManager = new CopyOnWriteEventManager<String, Videojs, PromptAnswer, PromptListener>();
 
 	/**
 	 * a Videojs EventManager
 	 */
-	private final BasicEventManager<String, Videojs, Double, VjsListener> videojsEventManager = new BasicEventManager<String, Videojs, Double, VjsListener>();
+	private final CopyOnWriteEventManager<String, Videojs, Double, VjsListener> videojsEventManager = new CopyOnWriteEventManager<String, Videojs, Double, VjsListener>();
 
 	/**
 	 * Constructs an empty video player.
@@ -160,14 +236,30 @@ public class Videojs extends AbstractJavaScriptComponent {
 	 */
 	public Videojs(final String videoSrc, String mimeType) {
 		this.setSource(videoSrc, mimeType);
+		this.updateSubscribedEvents();
+		this.registerScripts();
 		this.init();
 		this.setDefaults();
 		this.videoJsId = "VideoJS_" + this.hashCode();
 		getState().videoJsId = this.videoJsId;
 	}
 
+	/**
+	 * Registers the scripts the client loads on demand as connector resources.
+	 * The client loads <em>video.js</em> and <em>jquery.loadmask</em> once per
+	 * page, and a tech plugin only for a video stream of its MIME type.
+	 */
+	private void registerScripts() {
+		this.setResource("videojs", new ClassResource(Videojs.class, "javascript/video.js"));
+		this.setResource("loadmask", new ClassResource(Videojs.class, "javascript/jquery.loadmask.min.js"));
+		this.setResource(YOUTUBE_MIME, new ClassResource(Videojs.class, "javascript/vjs.youtube.js"));
+		this.setResource(VIMEO_MIME, new ClassResource(Videojs.class, "javascript/vjs.vimeo.js"));
+	}
+
 	protected void setDefaults() {
 		this.setDimensions(768, 432);
+		this.setClockSyncInterval(DEFAULT_CLOCK_SYNC_INTERVAL);
+		this.setEventBatchWindow(DEFAULT_EVENT_BATCH_WINDOW);
 		getState().seekingEnabled = true;
 	}
 
@@ -181,30 +273,50 @@ public class Videojs extends AbstractJavaScriptComponent {
 
 			@Override
 			public void call(JSONArray arguments) throws JSONException {
-				try {
-					if (arguments.length() > 1) {
-						currentTime = arguments.getDouble(1);
-						String eventName = arguments.getString(0);
-						double triggerTime = arguments.getDouble(1);
-						//System.out.println(eventName + ":" + triggerTime);
-						if (eventName.equals(VjsListener.DURATIONCHANGE_EVENT) && arguments.length() > 2) {
-							duration = arguments.getDouble(2);
-							//System.out.println("duration: " + duration);
-						}
-						if (eventName.equals(VjsListener.PLAY_EVENT)) {
-							isPaused = false;
-						}
-						if (eventName.equals(VjsListener.PAUSE_EVENT)) {
-							isPaused = true;
-						}
-						videojsEventManager.callListeners(VjsListener.ANY_EVENT, Videojs.this, triggerTime);
-						videojsEventManager.callListeners(eventName, Videojs.this, triggerTime);
+				fireVideoEvent(arguments);
+			}
+		});
+		this.addFunction("videoEventsFired", new JavaScriptFunction() {
+
+			private static final long serialVersionUID = 2093155960826745394L;
+
+			@Override
+			public void call(JSONArray arguments) throws JSONException {
+				if (arguments.length() > 0) {
+					JSONArray events = arguments.getJSONArray(0);
+					for (int i = 0; i < events.length(); i++) {
+						fireVideoEvent(events.getJSONArray(i));
 					}
-				} catch (JSONException e) {
-					// We'll log in the console, you might not want to
-					JavaScript.getCurrent().execute(
-							"console.error('" + e.getMessage() + "')");
-					System.out.println(e.getMessage());
+				}
+			}
+		});
+		this.addFunction("promptAnswered", new JavaScriptFunction() {
+
+			private static final long serialVersionUID = -1736950412577426213L;
+
+			@Override
+			public void call(JSONArray arguments) throws JSONException {
+				if (arguments.length() > 2) {
+					long answerTime = (arguments.length() > 3) ? arguments.getLong(3) : -1L;
+					JSONArray selected = arguments.getJSONArray(2);
+					int[] options = new int[selected.length()];
+					for (int i = 0; i < options.length; i++) {
+						options[i] = selected.getInt(i);
+					}
+					PromptAnswer answer = new PromptAnswer(arguments.getDouble(0), arguments.getString(1), options, answerTime);
+					promptEventManager.callListeners(PromptListener.PROMPT_ANSWERED_EVENT, Videojs.this, answer);
+				}
+			}
+		});
+		this.addFunction("promptsFinished", new JavaScriptFunction() {
+
+			private static final long serialVersionUID = 4207795131780052646L;
+
+			@Override
+			public void call(JSONArray arguments) throws JSONException {
+				if (arguments.length() > 0) {
+					PromptAnswer answer = new PromptAnswer(arguments.getDouble(0), null, new int[0], -1L);
+					promptEventManager.callListeners(PromptListener.PROMPTS_FINISHED_EVENT, Videojs.this, answer);
 				}
 			}
 		});
@@ -214,25 +326,108 @@ public class Videojs extends AbstractJavaScriptComponent {
 
 			@Override
 			public void detach(DetachEvent event) {
+				promptEventManager.clear();
 				videojsEventManager.clear();
-				JavaScript.getCurrent().execute("videojs('" + videoJsId +"').dispose();");
+				updateSubscribedEvents();
+				JavaScript.getCurrent().execute("if (window.videojs && document.getElementById('" + videoJsId + "')) { videojs('" + videoJsId +"').dispose(); }");
 			}
 		});
 	}
 
+	/**
+	 * Updates the player state from a client side event and calls the listeners.
+	 * 
+	 * @param event the event name, the playback time, an optional extra value
+	 *        and the optional age of the event in milliseconds.
+	 */
+	private void fireVideoEvent(JSONArray event) {
+		try {
+			if (event.length() > 1) {
+				String eventName = event.getString(0);
+				double triggerTime = event.getDouble(1);
+				// the time the client held the event back before sending it
+				long age = (event.length() > 3 && !event.isNull(3)) ? event.getLong(3) : 0L;
+				//System.out.println(eventName + ":" + triggerTime);
+				if (eventName.equals(VjsListener.DURATIONCHANGE_EVENT) && event.length() > 2 && !event.isNull(2)) {
+					this.duration = event.getDouble(2);
+					this.clock.setDuration(this.duration);
+					//System.out.println("duration: " + duration);
+				}
+				if (eventName.equals(VjsListener.RATECHANGE_EVENT) && event.length() > 2 && !event.isNull(2)) {
+					this.clock.setRate(event.getDouble(2));
+				}
+				if (eventName.equals(VjsListener.PLAY_EVENT)) {
+					this.isPaused = false;
+					this.clock.update(triggerTime, true, age);
+				} else if (eventName.equals(VjsListener.PAUSE_EVENT) || eventName.equals(VjsListener.ENDED_EVENT)) {
+					this.isPaused = true;
+					this.clock.update(triggerTime, false, age);
+				} else if (eventName.equals(VjsListener.SEEKED_EVENT)) {
+					this.clock.update(triggerTime, !this.isPaused, age);
+				} else {
+					this.clock.sync(triggerTime, age);
+				}
+				this.videojsEventManager.callListeners(VjsListener.ANY_EVENT, this, triggerTime);
+				this.videojsEventManager.callListeners(eventName, this, triggerTime);
+			}
+		} catch (JSONException e) {
+			// We'll log in the console, you might not want to
+			JavaScript.getCurrent().execute(
+					"console.error('" + e.getMessage() + "')");
+			System.out.println(e.getMessage());
+		}
+	}
+
+	/**
+	 * Sets the window in which the client collects the forwarded events into
+	 * one server call.
+	 * 
+	 * <p>The client sends the events fired inside the window in one call
+	 * carrying an array of events. The server fires them to the listeners in
+	 * the original order.</p>
+	 * 
+	 * @param  batchWindow the batch window in milliseconds, 0 to send every event in its own call.
+	 * @throws IllegalArgumentException if the window is negative.
+	 */
+	public void setEventBatchWindow(int batchWindow) {
+		if (batchWindow < 0) {
+			throw new IllegalArgumentException("Negative batch window: " + batchWindow);
+		}
+		if (batchWindow != this.eventBatchWindow) {
+			this.eventBatchWindow = batchWindow;
+			getState().eventBatchWindow = batchWindow;
+		}
+	}
+
+	/**
+	 * Returns the window in which the client collects the forwarded events into one server call.
+	 * 
+	 * @return the batch window in milliseconds.
+	 * @see    #setEventBatchWindow(int)
+	 */
+	public int getEventBatchWindow() {
+		return this.eventBatchWindow;
+	}
+
 	@Override
 	protected VideojsState getState() {
 		return (VideojsState) super.getState();
 	}
 
+
 	/**
 	 * Adds a new {@link VjsListener} listener into the {@link QuestionWindow} component.
 	 * 
+	 * <p>The client forwards only the events that have listeners (and the
+	 * events keeping the state of this player up to date) to the server.
+	 * Listening to {@link VjsListener#ANY_EVENT} forwards all the events.</p>
+	 * 
 	 * @param eventName The {@link VjsListener} event the listener will listen to.
 	 * @param listener The event listener object itself.
 	 */
 	public void addVideojsListener(String eventName, VjsListener listener) {
 		this.videojsEventManager.addListener(eventName, listener);
+		this.updateSubscribedEvents();
 	}
 
 	/**
@@ -243,6 +438,7 @@ public class Videojs extends AbstractJavaScriptComponent {
 	 */
 	public void removeVideojsListener(String eventName, VjsListener listener) {
 		this.videojsEventManager.removeListener(eventName, listener);
+		this.updateSubscribedEvents();
 	}
 
 	/**
@@ -253,6 +449,122 @@ public class Videojs extends AbstractJavaScriptComponent {
 	 */
 	public void removeVideojsListener(VjsListener listener) {
 		this.videojsEventManager.removeListener(listener);
+		this.updateSubscribedEvents();
+	}
+
+	/**
+	 * Sends the names of the events the client forwards to the server. The
+	 * state is marked dirty only if the subscribed events have changed.
+	 */
+	private void updateSubscribedEvents() {
+		List<String> events = new ArrayList<String>(REQUIRED_EVENTS);
+		boolean any = this.videojsEventManager.hasListeners(VjsListener.ANY_EVENT);
+		for (String event : VIDEOJS_EVENTS) {
+			if (!events.contains(event) && (any || this.videojsEventManager.hasListeners(event)
+					|| (this.clockSyncInterval > 0 && event.equals(VjsListener.TIMEUPDATE)))) {
+				events.add(event);
+			}
+		}
+		if (!events.equals(this.subscribedEvents)) {
+			this.subscribedEvents = events;
+			getState().subscribedEvents = events;
+		}
+		this.updateEventRateLimits();
+	}
+
+	/**
+	 * Sends the event rate limits to the client. The timeupdate events
+	 * forwarded only for the clock sync are limited to the clock sync interval.
+	 * The state is marked dirty only if the limits have changed.
+	 */
+	private void updateEventRateLimits() {
+		Map<String, Integer> limits = new HashMap<String, Integer>(this.eventRateLimits);
+		if (this.clockSyncInterval > 0 && !limits.containsKey(VjsListener.TIMEUPDATE)
+				&& !this.videojsEventManager.hasListeners(VjsListener.ANY_EVENT)
+				&& !this.videojsEventManager.hasListeners(VjsListener.TIMEUPDATE)) {
+			limits.put(VjsListener.TIMEUPDATE, this.clockSyncInterval);
+		}
+		if (!limits.equals(this.sentRateLimits)) {
+			this.sentRateLimits = limits;
+			getState().eventRateLimits = limits;
+		}
+	}
+
+	/**
+	 * Sets the interval of the position syncs that correct the estimated
+	 * {@link #getCurrentTime() current time} during the playback.
+	 * 
+	 * <p>The syncs are timeupdate events forwarded at most once in the
+	 * interval, unless timeupdate listeners with a shorter
+	 * {@link #setEventRateLimit(String, int) rate limit} are registered.
+	 * Without syncs the current time is extrapolated from the latest play,
+	 * pause or seek.</p>
+	 * 
+	 * @param  interval the sync interval in milliseconds, 0 to disable the syncs.
+	 * @throws IllegalArgumentException if the interval is negative.
+	 */
+	public void setClockSyncInterval(int interval) {
+		if (interval < 0) {
+			throw new IllegalArgumentException("Negative interval: " + interval);
+		}
+		this.clockSyncInterval = interval;
+		this.updateSubscribedEvents();
+	}
+
+	/**
+	 * Returns the interval of the position syncs.
+	 * 
+	 * @return the sync interval in milliseconds, 0 if the syncs are disabled.
+	 * @see    #setClockSyncInterval(int)
+	 */
+	public int getClockSyncInterval() {
+		return this.clockSyncInterval;
+	}
+
+	/**
+	 * Limits the rate the client forwards the given event to the server.
+	 * 
+	 * <p>The client forwards at most one event in the given interval. The
+	 * events fired in between are coalesced into the latest one, which is
+	 * forwarded when the interval has passed or right before any other event.
+	 * Other events are always forwarded right away.</p>
+	 * 
+	 * @param  eventName the name of a continuously fired {@link VjsListener} event:
+	 *         {@link VjsListener#TIMEUPDATE}, {@link VjsListener#PROGRESS_EVENT},
+	 *         {@link VjsListener#VOLUMECHANGE_EVENT} or {@link VjsListener#RESIZE_EVENT}.
+	 * @param  minInterval the minimum interval in milliseconds between the
+	 *         forwarded events, 0 to forward every event.
+	 * @throws IllegalArgumentException if the event is not continuously fired
+	 *         or the interval is negative.
+	 */
+	public void setEventRateLimit(String eventName, int minInterval) {
+		if (!CONTINUOUS_EVENTS.contains(eventName)) {
+			throw new IllegalArgumentException("Event '" + eventName + "' cannot be rate limited");
+		}
+		if (minInterval < 0) {
+			throw new IllegalArgumentException("Negative interval: " + minInterval);
+		}
+		if (minInterval == this.getEventRateLimit(eventName)) {
+			return;
+		}
+		if (minInterval == 0) {
+			this.eventRateLimits.remove(eventName);
+		} else {
+			this.eventRateLimits.put(eventName, minInterval);
+		}
+		this.updateEventRateLimits();
+	}
+
+	/**
+	 * Returns the minimum interval between the forwarded events of the given type.
+	 * 
+	 * @param  eventName the name of the {@link VjsListener} event.
+	 * @return the minimum interval in milliseconds, 0 if the event is not rate limited.
+	 * @see    #setEventRateLimit(String, int)
+	 */
+	public int getEventRateLimit(String eventName) {
+		Integer minInterval = this.eventRateLimits.get(eventName);
+		return (minInterval != null) ? minInterval : 0;
 	}
 
 	/**
@@ -264,7 +576,7 @@ public class Videojs extends AbstractJavaScriptComponent {
 	 *   <li><span class="sph red bold">vimeo</span></li>
 	 *   <li><span>Native support from <code>HTML&lt;video&gt;</code> and <strong>Videojs</strong>:</span></li>
 	 *   <ul>
-	 *     <li><span class="sph red bold">video/ogg</span><span class="summary">= Ogg files with Theora video codec and Vorbis audio codec</span></li>
+	 *     <li><span class="sph red bold">video/ogg</span><span class="summary"> = Ogg files with Theora video codec and Vorbis audio codec</span></li>
 	 *    <ul>
 	 *      <li class="Red">*.ogg</li>
 	 *     <li class="Red">*.ogv</li>
@@ -372,31 +684,118 @@ public class Videojs extends AbstractJavaScriptComponent {
 	}
 
 	/**
-	 * Removes an predefined pause time from the player.
+	 * Adds a pause time to the player. Only the added time is sent to the client.
+	 * 
+	 * @param time added pausing time.
+	 */
+	public <T extends Number> void addPauseAtTime(T time) {
+		if (this.pauseAts.add(time.doubleValue())) {
+			callFunction("addPauseAt", time.doubleValue());
+		}
+	}
+
+	/**
+	 * Removes an predefined pause time from the player. Only the removed
+	 * time is sent to the client.
 	 * 
 	 * @param time removed pausing time.
 	 */
 	public <T extends Number> void removePauseAtTime(T time) {
 		if (this.pauseAts.remove(time.doubleValue())) {
-			callFunction("pauseAt", this.pauseAts);
+			callFunction("removePauseAt", time.doubleValue());
+		}
+	}
+
+	/**
+	 * Specifies whether the pause times are enforced by the cues of a metadata
+	 * text track built on the client.
+	 * 
+	 * <p>The browser pauses the playback exactly at the end of a cue, so the
+	 * pause accuracy does not depend on the rate of the timeupdate events.
+	 * Playback technologies without native text tracks (Flash, YouTube,
+	 * Vimeo) keep pausing on timeupdate events.</p>
+	 * 
+	 * @param enabled true to pause on text track cues, false to pause on timeupdate events.
+	 */
+	public void setCuePausingEnabled(boolean enabled) {
+		if (this.cuePausing != enabled) {
+			this.cuePausing = enabled;
+			getState().cuePausing = enabled;
 		}
 	}
 
+	/**
+	 * Indicates whether the pause times are enforced by text track cues.
+	 * 
+	 * @return true if the pauses are triggered by text track cues.
+	 * @see    #setCuePausingEnabled(boolean)
+	 */
+	public boolean isCuePausingEnabled() {
+		return this.cuePausing;
+	}
+
+	/**
+	 * Specifies whether the creation of the Video.js player is deferred until
+	 * the player is {@link #initPlayer() started}.
+	 * 
+	 * <p>A deferred player shows only a lightweight placeholder and loads
+	 * neither the scripts nor the video. When the pointer enters the
+	 * placeholder (or a client side control calls <code>videoMcq.prewarm()</code>),
+	 * the player is created with only the metadata of the video preloaded. The
+	 * calls made to the player before it is created are queued on the client.
+	 * Must be set before the component is attached.</p>
+	 * 
+	 * @param enabled true to defer the creation of the player.
+	 */
+	public void setDeferredInitEnabled(boolean enabled) {
+		if (this.deferredInit != enabled) {
+			this.deferredInit = enabled;
+			getState().deferredInit = enabled;
+		}
+	}
+
+	/**
+	 * Indicates whether the creation of the Video.js player is deferred.
+	 * 
+	 * @return true if the player has not been created yet because of the deferred initialization.
+	 * @see    #setDeferredInitEnabled(boolean)
+	 */
+	public boolean isDeferredInitEnabled() {
+		return this.deferredInit;
+	}
+
+	/**
+	 * Creates a {@link #setDeferredInitEnabled(boolean) deferred} Video.js
+	 * player and starts loading the video. Does nothing if the player has
+	 * already been created.
+	 */
+	public void initPlayer() {
+		this.setDeferredInitEnabled(false);
+	}
+
 	/**
 	 * Clears all predefined pause times from the player.
 	 */
 	public void clearPauseAtList() {
-		this.pauseAts.clear();
-		callFunction("pauseAt", this.pauseAts);
+		if (!this.pauseAts.isEmpty()) {
+			this.pauseAts.clear();
+			callFunction("pauseAt", this.pauseAts);
+		}
 	}
 
 	/**
 	 * Returns the current time of the video in seconds.
 	 * 
+	 * <p>
+	 * <b>NOTE:</b> The time is estimated on the server by a {@link PlaybackClock}
+	 * anchored to the latest play, pause or seek and corrected by the
+	 * occasional position syncs (see {@link #setClockSyncInterval(int)}).
+	 * </p>
+	 * 
 	 * @return The current time of the video in seconds.
 	 */
 	public double getCurrentTime() {
-		return this.currentTime;
+		return this.clock.getPosition();
 	}
 
 	/**
@@ -468,6 +867,91 @@ public class Videojs extends AbstractJavaScriptComponent {
 		this.callFunction("minimalUserControlsEnabled", minimalUserControls);
 	}
 
+	/**
+	 * Sends a prompt to the client ahead of time. When the playback pauses at
+	 * the given time, the client shows the prompts of the time one by one
+	 * over the player without a server round trip. The selected options are
+	 * reported to the {@link PromptListener} listeners.
+	 * 
+	 * @param time the pause time in seconds the prompt is shown at.
+	 * @param promptId the identifier of the prompt reported with the answer.
+	 * @param caption the caption of the prompt.
+	 * @param text the prompt text (HTML).
+	 * @param options the selectable options in the shown order.
+	 * @param multiple whether more than one option can be selected.
+	 */
+	public void preparePrompt(double time, String promptId, String caption, String text, List<String> options, boolean multiple) {
+		this.preparePrompt(time, promptId, caption, text, options, multiple, false);
+	}
+
+	/**
+	 * Sends a prompt to the client ahead of time, optionally with feedback.
+	 * 
+	 * <p>The client knows nothing of the correct options. With feedback, the
+	 * client keeps the answered prompt shown after reporting the answer and
+	 * shows the feedback the server sends back in the response with
+	 * {@link #showPromptFeedback(String, boolean, String)}.</p>
+	 * 
+	 * @param time the pause time in seconds the prompt is shown at.
+	 * @param promptId the identifier of the prompt reported with the answer.
+	 * @param caption the caption of the prompt.
+	 * @param text the prompt text (HTML).
+	 * @param options the selectable options in the shown order.
+	 * @param multiple whether more than one option can be selected.
+	 * @param feedback whether the client waits for feedback on the answer.
+	 */
+	public void preparePrompt(double time, String promptId, String caption, String text, List<String> options,
+			boolean multiple, boolean feedback) {
+		this.callFunction("preparePrompt", time, promptId, caption, text, options, multiple, feedback);
+	}
+
+	/**
+	 * Shows whether the answer to a prompt prepared with feedback was
+	 * correct. Ignored by the client if the prompt is no longer shown.
+	 * 
+	 * @param promptId the identifier of the answered prompt.
+	 * @param correct whether the answer was correct.
+	 * @param description the description shown with the feedback, or null.
+	 */
+	public void showPromptFeedback(String promptId, boolean correct, String description) {
+		this.callFunction("showPromptFeedback", promptId, correct, description);
+	}
+
+	/**
+	 * Removes the prompts of the given pause time from the client.
+	 * 
+	 * @param time the pause time in seconds.
+	 */
+	public void removePrompts(double time) {
+		this.callFunction("removePrompts", time);
+	}
+
+	/**
+	 * Removes all the prompts from the client.
+	 */
+	public void clearPrompts() {
+		this.callFunction("clearPrompts");
+	}
+
+	/**
+	 * Adds a new {@link PromptListener} listener into this {@link Videojs} component.
+	 * 
+	 * @param eventName The {@link PromptListener} event the listener will listen to.
+	 * @param listener The event listener object itself.
+	 */
+	public void addPromptListener(String eventName, PromptListener listener) {
+		this.promptEventManager.addListener(eventName, listener);
+	}
+
+	/**
+	 * Remove listener from all {@link PromptListener} events it is registered by.
+	 * 
+	 * @param listener {@link PromptListener} Event listener to remove.
+	 */
+	public void removePromptListener(PromptListener listener) {
+		this.promptEventManager.removeListener(listener);
+	}
+
 	/**
 	 * Displays a mask over this {@link Videojs} player element. Only the mask will be displayed without a label
 	 */
@@ -524,7 +1008,7 @@ public class Videojs extends AbstractJavaScriptComponent {
 	 * delegated to and fired by a {@link Videojs} player component.
 	 * 
 	 * @author  <a href="mailto:sami.holck@gmail.com">Sami Holck</a>
-	 * @author  Juha Mkil
+	 * @author  Juha Mäkilä
 	 * @version 2.01
 	 * @since   11.10.2013
 	 */
@@ -588,6 +1072,14 @@ public class Videojs extends AbstractJavaScriptComponent {
 		 * fullscreenchange event (Fired when the player switches in or out of fullscreen mode)
 		 */
 		public static final String FULLSCREENCHANGE_EVENT = "fullscreenchange";
+		/**
+		 * seeked event (Fired when a seek operation has completed)
+		 */
+		public static final String SEEKED_EVENT = "seeked";
+		/**
+		 * ratechange event (Fired when the playback rate changes)
+		 */
+		public static final String RATECHANGE_EVENT = "ratechange";
 		/**
 		 * loadstart event (Fired when the user agent begins looking for media data)
 		 */
@@ -605,4 +1097,97 @@ public class Videojs extends AbstractJavaScriptComponent {
 
 	}
 
+	/**
+	 * {@link sph.event.EventListener} interface for listening to the answers of
+	 * the prompts {@link Videojs#preparePrompt(double, String, String, String, List) prepared}
+	 * to a {@link Videojs} player component.
+	 * 
+	 * <p><strong>copyright &copy; Ville-Video 2013</strong></p>
+	 *
+	 * @version 0.1
+	 * @since   17.10.2026
+	 */
+	public interface PromptListener extends EventListener<String, Videojs, PromptAnswer> {
+
+		/**
+		 * promptAnswered event (Fired when an option of a prompt has been selected)
+		 */
+		public static final String PROMPT_ANSWERED_EVENT = "promptAnswered";
+		/**
+		 * promptsFinished event (Fired when all the prompts of a pause time have been answered)
+		 */
+		public static final String PROMPTS_FINISHED_EVENT = "promptsFinished";
+
+		/**
+		 * {@link Videojs} Component has triggered a prompt event.
+		 * 
+		 * @param eventName name of the {@link Videojs.PromptListener PromptListener} event.
+		 * @param source the source component of the event.
+		 * @param answer the answer of the prompt.
+		 */
+		@Override
+		public void on(String eventName, Videojs source, PromptAnswer answer);
+	}
+
+	/**
+	 * The answer of a prompt shown by a {@link Videojs} player component.
+	 * 
+	 * <p><strong>copyright &copy; Ville-Video 2013</strong></p>
+	 *
+	 * @version 0.1
+	 * @since   17.10.2026
+	 */
+	public static final class PromptAnswer implements Serializable {
+
+		private static final long serialVersionUID = -5014381316734497745L;
+
+		private final double time;
+		private final String promptId;
+		private final int[] options;
+		private final long answerTime;
+
+		private PromptAnswer(double time, String promptId, int[] options, long answerTime) {
+			this.time = time;
+			this.promptId = promptId;
+			this.options = options;
+			this.answerTime = answerTime;
+		}
+
+		/**
+		 * Returns the pause time the prompt was shown at.
+		 * 
+		 * @return the pause time in seconds.
+		 */
+		public double getTime() {
+			return this.time;
+		}
+
+		/**
+		 * Returns the identifier of the answered prompt.
+		 * 
+		 * @return the prompt identifier, null for a {@link PromptListener#PROMPTS_FINISHED_EVENT}.
+		 */
+		public String getPromptId() {
+			return this.promptId;
+		}
+
+		/**
+		 * Returns the positions of the selected options in the shown order.
+		 * 
+		 * @return the positions of the selected options, empty for a {@link PromptListener#PROMPTS_FINISHED_EVENT}.
+		 */
+		public int[] getOptions() {
+			return this.options.clone();
+		}
+
+		/**
+		 * Returns the time the prompt was shown before the option was selected,
+		 * measured on the client.
+		 * 
+		 * @return the answer time in milliseconds, -1 if not known.
+		 */
+		public long getAnswerTime() {
+			return this.answerTime;
+		}
+	}
 }
\ No newline at end of file
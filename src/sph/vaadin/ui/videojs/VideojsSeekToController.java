@@ -1,5 +1,5 @@
 /**
- * <p><b>Copyright 2013 Juha Mkil and Sami Holck</b></p>
+ * <p><b>Copyright 2013 Juha Mäkilä and Sami Holck</b></p>
  * 
  * <p>Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -37,7 +37,7 @@ import com.vaadin.ui.TextField;
  * <p><strong>copyright &copy; Ville-Video 2013</strong></p>
  *
  * @author  <a href="mailto:sami.holck@gmail.com">Sami Holck</a>
- * @author  Juha Mkil
+ * @author  Juha Mäkilä
  * @version 1.1
  * @since   15.10.2013
  *
@@ -48,6 +48,11 @@ public class VideojsSeekToController extends VideojsController {
 	 * 
 	 */
 	private static final long serialVersionUID = 6189291102728553412L;
+	/**
+	 * the distance in seconds within which the seek time is the current time;
+	 * the current time is estimated on the server and never exact
+	 */
+	private static final double SEEK_TOLERANCE = 0.5;
 	/**
 	 * text field for hours
 	 */
@@ -128,7 +133,7 @@ public class VideojsSeekToController extends VideojsController {
 			} else {
 				t.setSeconds(Integer.parseInt(secondsField.getValue()));
 			}
-			if (t.getTime() == this.getPlayer().getCurrentTime() || t.getTime() > this.getPlayer().getDuration()) {
+			if (Math.abs(t.getTime() - this.getPlayer().getCurrentTime()) < SEEK_TOLERANCE || t.getTime() > this.getPlayer().getDuration()) {
 				return null;
 			}
 			return t;
@@ -1,5 +1,5 @@
 /**
- * <p><b>Copyright 2013 Juha Mkil and Sami Holck</b></p>
+ * <p><b>Copyright 2013 Juha Mäkilä and Sami Holck</b></p>
  * 
  * <p>Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,11 @@
  */
 package sph.vaadin.ui.videojs;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import com.vaadin.shared.ui.JavaScriptComponentState;
 
 /**
@@ -57,7 +62,7 @@ import com.vaadin.shared.ui.JavaScriptComponentState;
  * <p><strong>copyright &copy; Ville-Video 2013</strong></p>
  *
  * @author  <a href="mailto:sami.holck@gmail.com">Sami Holck</a>
- * @author  Juha Mkil
+ * @author  Juha Mäkilä
  * @version 2.1
  * @since   11.09.2013
  */
@@ -112,4 +117,26 @@ public class VideojsState extends JavaScriptComponentState {
 	 * enabled, false: seeking disabled)
 	 */
 	public boolean seekingEnabled;
+	/**
+	 * the names of the Video.js events the client forwards to the server
+	 */
+	public List<String> subscribedEvents = new ArrayList<String>();
+	/**
+	 * the minimum intervals in milliseconds between the forwarded events by event name
+	 */
+	public Map<String, Integer> eventRateLimits = new HashMap<String, Integer>();
+	/**
+	 * Videojs component flag for pausing on metadata text track cues (true: pause
+	 * times are enforced by cues, false: pause times are checked on timeupdate events)
+	 */
+	public boolean cuePausing;
+	/**
+	 * the window in milliseconds the client collects the forwarded events into one server call
+	 */
+	public int eventBatchWindow;
+	/**
+	 * Videojs component flag for deferred initialization (true: only a placeholder
+	 * is shown until the player is started, false: the player is created at once)
+	 */
+	public boolean deferredInit;
 }
\ No newline at end of file
@@ -3,8 +3,7 @@
  *
  * @author Sami Petteri Holck <sami.holck@gmail.com>
  * @requires jQuery 1.10.2
- * @requires Video.js 4.1.0
- * @requires Underscore.js 1.5.1
+ * @requires Video.js 4.1.0 (loaded on demand)
  * @version 2.0.3
  */
 
@@ -61,13 +60,6 @@
  * @see {@link http://learn.jquery.com/plugins/ The jQuery Plugin Guide}
  */
 
-/**
- * Underscore JavaScript Library which provides functions for various tasks.
- * @external _
- * @version 1.5.2
- * @see {@link http://underscorejs.org|Underscore.js}
- */
-
 /**
  * Contains all videoMcq functionality.
  *
@@ -88,24 +80,50 @@
 	 * @param {String} vjsId the video id
 	 * @param {String} src the source of the video
 	 * @param {String} mime the MIME type of the video
+	 * @param {String} [preload=auto] the preload mode of the video (auto, metadata or none)
 	 * @returns {videoMcq.VideoPlayer} the player object.
 	 */
-	videoMcq.VideoPlayer = function (vjsId, src, mime) {
+	var PauseTimeArray = window.Float64Array || Array,
+		PauseCue = window.VTTCue || window.TextTrackCue,
+		/**
+		 * The length of a pause cue in seconds. The playback pauses when the cue is exited.
+		 */
+		PAUSE_CUE_LENGTH = 0.1;
+
+	videoMcq.VideoPlayer = function (vjsId, src, mime, preload) {
 		console.log("videoMcq.VideoPlayer(vjsId: " + vjsId + ", src: " + src + ", mime: " + mime + ")");
 		var that = this;
 		this.vjsId = vjsId;
 		this.src = src;
 		this.mime = mime;
+		this.preload = preload || "auto";
 		this.initVideojs();
 		this.typeOf = "videoMcq.VideoPlayer";
-		this.pauseTimes = [];
-		this.nextPause = Number.MAX_VALUE;
+		this.pauseTimes = new PauseTimeArray(16);
+		this.pauseCount = 0;
+		this.pauseCursor = 0;
+		this.cuePausing = false;
+		this.pauseTrack = null;
+		this.pauseCues = {};
 		this.masked = false;
 		this.supportsFullScreen = true;
+		this.subscribedEvents = {};
+		this.rateLimits = {};
+		this.pendingEvents = {};
+		this.lastForwarded = {};
+		this.flushTimers = {};
+		this.batchWindow = 0;
+		this.eventBatch = [];
+		this.batchTimer = null;
+		this.prompts = {};
+		this.promptOverlay = null;
+		this.promptFeedback = null;
 		this.player.ready(function () {
 			that.player.on("play", $.proxy(that.onPlayOrPause, that));
 			that.player.on("pause", $.proxy(that.onPlayOrPause, that));
+			that.player.on("seeked", $.proxy(that.onPlayOrPause, that));
 			that.player.on("timeupdate", $.proxy(that.onTimeupdate, that));
+			that.player.on("pause", $.proxy(that.showPrompts, that));
 		});
 		return this;
 	};
@@ -132,7 +150,7 @@
 						'src' : this.src,
 						'loop' : false,
 						'autoplay' : false,
-						'preload': 'auto'
+						'preload': this.preload
 					});
 				} else {
 					this.player = videojs(this.vjsId, {}).src({
@@ -140,7 +158,7 @@
 						'src' : this.src,
 						'loop' : false,
 						'autoplay' : false,
-						'preload': 'auto'
+						'preload': this.preload
 					});
 				}
 			} else {
@@ -153,53 +171,366 @@
 		},
 
 		/**
-		 * Sets the next pause time.
+		 * Sets the preload mode of the video, for example from metadata to auto
+		 * when a pre-warmed player is started.
+		 *
+		 * @public
+		 * @memberOf videoMcq.VideoPlayer#
+		 * @param    {String} preload the preload mode (auto, metadata or none).
+		 * @returns  {videoMcq.VideoPlayer} the player object.
+		 */
+		setPreload : function (preload) {
+			this.preload = preload;
+			if (typeof this.player.preload === "function") {
+				this.player.preload(preload);
+			}
+			return this;
+		},
+
+		/**
+		 * Returns the index of the first pause time after the given time.
+		 *
+		 * @private
+		 * @memberOf videoMcq.VideoPlayer#
+		 * @param    {Number} time the time in seconds.
+		 * @returns  {Number} the index of the first pause time greater than the time.
+		 */
+		pauseIndexAfter : function (time) {
+			var low = 0, high = this.pauseCount, mid;
+			while (low < high) {
+				mid = (low + high) >>> 1;
+				if (this.pauseTimes[mid] <= time) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+			return low;
+		},
+
+		/**
+		 * Moves the pause cursor to the first pause time after the current playback time.
 		 *
 		 * @private
 		 * @memberOf videoMcq.VideoPlayer#
 		 * @returns  {videoMcq.VideoPlayer} the player object.
 		 */
 		setNextPause : function () {
-			var that = this;
-			//console.log("\t\tVideoPlayer.setNextPause()");
-			this.nextPause = _.find(this.pauseTimes, function (num) {
-				return num > that.player.currentTime();
-			});
-			if (isNaN(this.nextPause)) {
-				this.nextPause = Number.MAX_VALUE;
-				//console.log("\t\t\tisNaN(this.nextPause) => this.nextPause = " + this.nextPause);
-			}
-			//console.log("\t\t\tthis.nextPause = " + this.nextPause + ", pauseAts = " + this.pauseTimes);
+			this.pauseCursor = this.pauseIndexAfter(this.player.currentTime());
 			return this;
 		},
+
 		/**
-		 * VideoPlayer's common functionality for {@link external:videojs#event:play play}
-		 * and {@link external:videojs#event:pause pause} events.
+		 * VideoPlayer's common functionality for {@link external:videojs#event:play play},
+		 * {@link external:videojs#event:pause pause} and seeked events.
 		 *
 		 * @private
 		 * @memberOf videoMcq.VideoPlayer#
 		 */
 		onPlayOrPause : function () {
-			//console.log("VideoPlayer.onPlayOrPause()");
 			this.setNextPause();
 		},
 
 		/**
 		 * VideoPlayer's {@link external:videojs#event:timeupdate | timeupdate event} event functionality.
+		 * Checks only the pause time under the cursor.
 		 *
 		 * @private
 		 * @memberOf videoMcq.VideoPlayer#
 		 */
 		onTimeupdate : function () {
-			//console.log("\t\tVideoPlayer.onTimeupdate()");
-			if (this.player.currentTime() >= this.nextPause) {
-				//console.log("\t\tVideoPlayer.onTimeupdate()");
-				//console.log("\t\t\tpauseAt happened:");
-				//console.log("\t\t\t\tthis.player.currentTime() = " + this.player.currentTime());
-				//console.log("\t\t\t\tthis.nextPause = " + this.nextPause);
-				this.player.pause();
+			var time;
+			if (this.pauseTrack === null && this.pauseCursor < this.pauseCount) {
+				time = this.player.currentTime();
+				if (time >= this.pauseTimes[this.pauseCursor]) {
+					this.player.pause();
+					while (this.pauseCursor < this.pauseCount && this.pauseTimes[this.pauseCursor] <= time) {
+						this.pauseCursor += 1;
+					}
+				}
+			}
+		},
+
+		/**
+		 * Specifies whether the pauses are triggered by the cues of a metadata text track instead of
+		 * {@link external:videojs#event:timeupdate | timeupdate} events. The browser pauses the playback
+		 * exactly at the end of a cue, so the accuracy does not depend on the timeupdate rate.
+		 * Technologies without native text tracks (e.g. Flash, YouTube) keep using timeupdate events.
+		 *
+		 * @public
+		 * @memberOf videoMcq.VideoPlayer#
+		 * @param    {boolean} enabled whether the pauses are triggered by text track cues.
+		 * @returns  {videoMcq.VideoPlayer} the player object.
+		 */
+		setCuePausing : function (enabled) {
+			if (this.cuePausing !== !!enabled) {
+				this.cuePausing = !!enabled;
+				this.player.ready($.proxy(this.buildPauseCues, this));
+			}
+			return this;
+		},
+
+		/**
+		 * Returns the native media element of the player, or null if the playback technology has none.
+		 *
+		 * @private
+		 * @memberOf videoMcq.VideoPlayer#
+		 * @returns  {external:DOMElement} the media element or null.
+		 */
+		getMediaElement : function () {
+			if (this.player.techName === "Html5" && this.player.tech && this.player.tech.el) {
+				return this.player.tech.el();
+			}
+			return null;
+		},
+
+		/**
+		 * Builds the pause cues of the metadata text track from the pause schedule, or removes the
+		 * text track if the cue pausing is disabled or not supported.
+		 *
+		 * @private
+		 * @memberOf videoMcq.VideoPlayer#
+		 */
+		buildPauseCues : function () {
+			var media = this.getMediaElement(), time, i;
+			if (this.pauseTrack !== null) {
+				for (time in this.pauseCues) {
+					if (this.pauseCues.hasOwnProperty(time)) {
+						this.pauseTrack.removeCue(this.pauseCues[time]);
+					}
+				}
+				this.pauseCues = {};
+			}
+			if (!this.cuePausing || !PauseCue || !media || !media.addTextTrack) {
+				if (this.pauseTrack !== null) {
+					this.pauseTrack.mode = "disabled";
+				}
+				this.pauseTrack = null;
 				this.setNextPause();
+				return;
+			}
+			if (this.pauseTrack === null) {
+				this.pauseTrack = media.pauseTrack || media.addTextTrack("metadata", "pauses");
+				media.pauseTrack = this.pauseTrack;
+			}
+			this.pauseTrack.mode = "hidden";
+			for (i = 0; i < this.pauseCount; i++) {
+				this.addPauseCue(this.pauseTimes[i]);
+			}
+		},
+
+		/**
+		 * Adds a cue ending at the given pause time to the metadata text track.
+		 *
+		 * @private
+		 * @memberOf videoMcq.VideoPlayer#
+		 * @param    {Number} time the pause time in seconds.
+		 */
+		addPauseCue : function (time) {
+			var cue;
+			if (this.pauseTrack === null || time <= 0 || this.pauseCues.hasOwnProperty(time)) {
+				return;
+			}
+			cue = new PauseCue(Math.max(0, time - PAUSE_CUE_LENGTH), time, "pause");
+			cue.pauseOnExit = true;
+			this.pauseTrack.addCue(cue);
+			this.pauseCues[time] = cue;
+		},
+
+		/**
+		 * Removes the cue ending at the given pause time from the metadata text track.
+		 *
+		 * @private
+		 * @memberOf videoMcq.VideoPlayer#
+		 * @param    {Number} time the pause time in seconds.
+		 */
+		removePauseCue : function (time) {
+			if (this.pauseTrack !== null && this.pauseCues.hasOwnProperty(time)) {
+				this.pauseTrack.removeCue(this.pauseCues[time]);
+				delete this.pauseCues[time];
+			}
+		},
+
+		/**
+		 * @typedef  PromptData
+		 * @type     {Object}
+		 * @property {String} id - the identifier of the prompt.
+		 * @property {String} caption - the caption of the prompt.
+		 * @property {String} text - the prompt text (HTML).
+		 * @property {Array.<String>} options - the selectable options.
+		 * @property {Boolean} multiple - whether more than one option can be selected.
+		 * @property {Boolean} feedback - whether the answered prompt waits for the feedback of the server.
+		 */
+
+		/**
+		 * Stores a prompt shown when the playback pauses at the given time.
+		 *
+		 * @public
+		 * @memberOf videoMcq.VideoPlayer#
+		 * @param    {Number} time the pause time in seconds.
+		 * @param    {PromptData} prompt the prompt.
+		 * @returns  {videoMcq.VideoPlayer} the player object.
+		 */
+		preparePrompt : function (time, prompt) {
+			var i, prompts = this.prompts[time] || (this.prompts[time] = []);
+			for (i = 0; i < prompts.length; i++) {
+				if (prompts[i].id === prompt.id) {
+					prompts[i] = prompt;
+					return this;
+				}
+			}
+			prompts.push(prompt);
+			return this;
+		},
+
+		/**
+		 * Removes the prompts of the given pause time, or all the prompts.
+		 *
+		 * @public
+		 * @memberOf videoMcq.VideoPlayer#
+		 * @param    {Number} [time] the pause time in seconds.
+		 * @returns  {videoMcq.VideoPlayer} the player object.
+		 */
+		removePrompts : function (time) {
+			if (time === undefined) {
+				this.prompts = {};
+			} else {
+				delete this.prompts[time];
+			}
+			return this;
+		},
+
+		/**
+		 * Sets the callback functions of the prompt answers.
+		 *
+		 * @public
+		 * @memberOf videoMcq.VideoPlayer#
+		 * @param    {Function} answerCallback called with the time, the prompt id, the selected option positions and the answer time.
+		 * @param    {Function} finishCallback called with the time when all the prompts of the time are answered.
+		 * @returns  {videoMcq.VideoPlayer} the player object.
+		 */
+		setPromptCallbacks : function (answerCallback, finishCallback) {
+			this.promptAnswerCallback = answerCallback;
+			this.promptFinishCallback = finishCallback;
+			return this;
+		},
+
+		/**
+		 * Shows the prompts prepared for the current pause time, if any.
+		 *
+		 * @private
+		 * @memberOf videoMcq.VideoPlayer#
+		 */
+		showPrompts : function () {
+			var time, current = this.player.currentTime();
+			if (this.promptOverlay !== null) {
+				return;
+			}
+			for (time in this.prompts) {
+				if (this.prompts.hasOwnProperty(time) && Math.abs(current - time) < 0.5 && this.prompts[time].length > 0) {
+					this.showPrompt(Number(time), this.prompts[time], 0);
+					return;
+				}
+			}
+		},
+
+		/**
+		 * Shows a prompt over the player.
+		 *
+		 * @private
+		 * @memberOf videoMcq.VideoPlayer#
+		 * @param    {Number} time the pause time in seconds.
+		 * @param    {Array.<PromptData>} prompts the prompts of the pause time.
+		 * @param    {Number} index the index of the shown prompt.
+		 */
+		showPrompt : function (time, prompts, index) {
+			var that = this, prompt = prompts[index], shownAt = new Date().getTime(), type = prompt.multiple ? "checkbox" : "radio",
+				overlay, list, submit, i;
+			this.hidePrompt();
+			overlay = $('<div class="v-window questionWindow videoPrompt"/>').css({
+				position: "absolute",
+				top: "10%",
+				left: "15%",
+				right: "15%",
+				'z-index': 1000,
+				background: "white",
+				padding: "12px"
+			});
+			$('<div class="v-window-header"/>').text(prompt.caption).appendTo(overlay);
+			$('<div class="question"/>').html(prompt.text).appendTo(overlay);
+			list = $('<div class="answerOptions"/>').appendTo(overlay);
+			for (i = 0; i < prompt.options.length; i++) {
+				$('<label class="v-select-option"/>')
+					.append($('<input type="' + type + '"/>').attr({name: this.vjsId + "_prompt", value: i}))
+					.append($('<span/>').text(prompt.options[i]))
+					.appendTo(list);
+			}
+			submit = $('<button class="v-button">Submit</button>').prop("disabled", true).appendTo(overlay);
+			list.on("change", "input", function () {
+				submit.prop("disabled", list.find("input:checked").length === 0);
+			});
+			submit.on("click", function () {
+				var options = [], next;
+				list.find("input:checked").each(function () {
+					options.push(Number(this.value));
+				});
+				that.promptAnswerCallback(time, prompt.id, options, new Date().getTime() - shownAt);
+				prompts.splice(index, 1);
+				next = function () {
+					if (index < prompts.length) {
+						that.showPrompt(time, prompts, index);
+					} else {
+						that.hidePrompt();
+						delete that.prompts[time];
+						that.promptFinishCallback(time);
+					}
+				};
+				if (!prompt.feedback) {
+					next();
+					return;
+				}
+				// the server sends the feedback in the response to the answer
+				list.find("input").prop("disabled", true);
+				that.promptFeedback = {id: prompt.id, element: $('<div class="promptFeedback"/>').insertBefore(submit)};
+				submit.off("click").text("Next").on("click", next);
+			});
+			overlay.appendTo(this.vjs);
+			this.promptOverlay = overlay;
+		},
+
+		/**
+		 * Hides the shown prompt.
+		 *
+		 * @private
+		 * @memberOf videoMcq.VideoPlayer#
+		 */
+		hidePrompt : function () {
+			if (this.promptOverlay !== null) {
+				this.promptOverlay.remove();
+				this.promptOverlay = null;
+			}
+			this.promptFeedback = null;
+		},
+
+		/**
+		 * Shows the feedback of the server on the answer to the shown prompt.
+		 * The feedback is ignored if the prompt is no longer shown.
+		 *
+		 * @public
+		 * @memberOf videoMcq.VideoPlayer#
+		 * @param    {String} id the identifier of the answered prompt.
+		 * @param    {Boolean} correct whether the answer was correct.
+		 * @param    {String} [description] the description of the correct answer.
+		 * @returns  {videoMcq.VideoPlayer} the player object.
+		 */
+		showPromptFeedback : function (id, correct, description) {
+			if (this.promptFeedback !== null && this.promptFeedback.id === id) {
+				this.promptFeedback.element.addClass(correct ? "correctAnswer" : "incorrectAnswer")
+					.text(correct ? "CORRECT" : "INCORRECT")
+					.append(description ? $('<p/>').text(description) : null);
+				this.promptFeedback = null;
 			}
+			return this;
 		},
 
 		/**
@@ -209,7 +540,18 @@
 		 * @returns {videoMcq.VideoPlayer} the player object.
 		 */
 		dispose : function () {
+			var eventName;
 			console.log("videoMcq.dispose()");
+			for (eventName in this.flushTimers) {
+				if (this.flushTimers.hasOwnProperty(eventName)) {
+					clearTimeout(this.flushTimers[eventName]);
+				}
+			}
+			this.flushTimers = {};
+			this.pendingEvents = {};
+			clearTimeout(this.batchTimer);
+			this.batchTimer = null;
+			this.eventBatch = [];
 			this.player.dispose();
 			return this;
 		},
@@ -281,17 +623,81 @@
 		},
 
 		/**
-		 * Pauses the video playback at given time(s). Note: Uses the {@link external:_ Undescore.js}.
+		 * Pauses the video playback at given time(s). Replaces all the previous pause times.
 		 *
 		 * @public
 		 * @memberOf videoMcq.VideoPlayer#
-		 * @param    {Array<number>} pauseTimes a collection of times in seconds where the video stream is paused.
+		 * @param    {Array<number>} pauseTimes a sorted collection of times in seconds where the video stream is paused.
 		 * @returns  {videoMcq.VideoPlayer} the player object.
 		 */
 		pauseAt : function (pauseTimes) {
+			var i, capacity = 16;
 			console.log("\t\tVideoPlayer.pauseAt(" + pauseTimes + ")");
-			if (!_.isEqual(pauseTimes, this.pauseTimes)) {
-				this.pauseTimes = pauseTimes;
+			while (capacity < pauseTimes.length) {
+				capacity *= 2;
+			}
+			this.pauseTimes = new PauseTimeArray(capacity);
+			for (i = 0; i < pauseTimes.length; i++) {
+				this.pauseTimes[i] = pauseTimes[i];
+			}
+			this.pauseCount = pauseTimes.length;
+			this.player.ready($.proxy(this.setNextPause, this));
+			this.player.ready($.proxy(this.buildPauseCues, this));
+			return this;
+		},
+
+		/**
+		 * Adds a pause time to the pause schedule.
+		 *
+		 * @public
+		 * @memberOf videoMcq.VideoPlayer#
+		 * @param    {Number} time the time in seconds where the video stream is paused.
+		 * @returns  {videoMcq.VideoPlayer} the player object.
+		 */
+		addPauseAt : function (time) {
+			var index = this.pauseIndexAfter(time), grown, i;
+			if (index > 0 && this.pauseTimes[index - 1] === time) {
+				return this;
+			}
+			if (this.pauseCount === this.pauseTimes.length) {
+				grown = new PauseTimeArray(this.pauseTimes.length * 2);
+				for (i = 0; i < this.pauseCount; i++) {
+					grown[i] = this.pauseTimes[i];
+				}
+				this.pauseTimes = grown;
+			}
+			for (i = this.pauseCount; i > index; i--) {
+				this.pauseTimes[i] = this.pauseTimes[i - 1];
+			}
+			this.pauseTimes[index] = time;
+			this.pauseCount += 1;
+			this.addPauseCue(time);
+			if (index < this.pauseCursor) {
+				this.pauseCursor += 1;
+			}
+			return this;
+		},
+
+		/**
+		 * Removes a pause time from the pause schedule.
+		 *
+		 * @public
+		 * @memberOf videoMcq.VideoPlayer#
+		 * @param    {Number} time the removed time in seconds.
+		 * @returns  {videoMcq.VideoPlayer} the player object.
+		 */
+		removePauseAt : function (time) {
+			var index = this.pauseIndexAfter(time) - 1, i;
+			if (index < 0 || this.pauseTimes[index] !== time) {
+				return this;
+			}
+			for (i = index; i < this.pauseCount - 1; i++) {
+				this.pauseTimes[i] = this.pauseTimes[i + 1];
+			}
+			this.pauseCount -= 1;
+			this.removePauseCue(time);
+			if (index < this.pauseCursor) {
+				this.pauseCursor -= 1;
 			}
 			return this;
 		},
@@ -456,15 +862,196 @@
 		},
 
 		/**
-		 * Sets the {@link external:videojs} event callback function for the client.
+		 * Sets the names of the {@link external:videojs} events forwarded to the event callback function.
+		 * Other events are not sent to the server at all.
 		 *
 		 * @public
 		 * @memberOf videoMcq.VideoPlayer#
-		 * @param   {Function} eventCallback callback function
+		 * @param    {Array<String>} eventNames the names of the forwarded events.
+		 * @returns  {videoMcq.VideoPlayer} the player object.
 		 */
-		setEventCallback: function (eventCallback) {
+		setSubscribedEvents: function (eventNames) {
+			var i, subscribed = {};
+			if (eventNames) {
+				for (i = 0; i < eventNames.length; i += 1) {
+					subscribed[eventNames[i]] = true;
+				}
+			}
+			this.subscribedEvents = subscribed;
+			return this;
+		},
+
+		/**
+		 * Sets the minimum intervals between the forwarded events.
+		 *
+		 * @public
+		 * @memberOf videoMcq.VideoPlayer#
+		 * @param    {Object<String, Number>} rateLimits the minimum intervals in milliseconds by event name.
+		 * @returns  {videoMcq.VideoPlayer} the player object.
+		 */
+		setEventRateLimits: function (rateLimits) {
+			var eventName;
+			this.rateLimits = rateLimits || {};
+			for (eventName in this.flushTimers) {
+				if (this.flushTimers.hasOwnProperty(eventName) && !(this.rateLimits[eventName] > 0)) {
+					this.flushEvent(eventName);
+				}
+			}
+			return this;
+		},
+
+		/**
+		 * Forwards an event to the event callback function. A rate limited event is
+		 * forwarded at most once in its interval, the events fired in between are
+		 * coalesced into the latest one. Other events are forwarded right away,
+		 * after the pending rate limited events.
+		 *
+		 * @private
+		 * @memberOf videoMcq.VideoPlayer#
+		 * @param    {String} eventName the name of the event.
+		 * @param    {Number} time the playback time when the event was fired.
+		 * @param    {Number} [extra] the duration of the video stream or the playback rate.
+		 */
+		forwardEvent: function (eventName, time, extra) {
+			var that = this, limit = this.rateLimits[eventName], now = new Date().getTime(), elapsed,
+				event = [eventName, time, (extra !== undefined) ? extra : null, now];
+			if (limit > 0) {
+				elapsed = now - (this.lastForwarded[eventName] || 0);
+				if (elapsed >= limit && !this.flushTimers[eventName]) {
+					this.lastForwarded[eventName] = now;
+					this.sendEvent(event);
+				} else {
+					this.pendingEvents[eventName] = event;
+					if (!this.flushTimers[eventName]) {
+						this.flushTimers[eventName] = setTimeout(function () {
+							that.flushEvent(eventName);
+						}, limit - elapsed);
+					}
+				}
+			} else {
+				this.flushEvents();
+				this.sendEvent(event);
+			}
+		},
+
+		/**
+		 * Forwards the pending coalesced event of the given name, if any.
+		 *
+		 * @private
+		 * @memberOf videoMcq.VideoPlayer#
+		 * @param    {String} eventName the name of the event.
+		 */
+		flushEvent: function (eventName) {
+			var event;
+			clearTimeout(this.flushTimers[eventName]);
+			delete this.flushTimers[eventName];
+			if (this.pendingEvents.hasOwnProperty(eventName)) {
+				event = this.pendingEvents[eventName];
+				delete this.pendingEvents[eventName];
+				this.lastForwarded[eventName] = new Date().getTime();
+				this.sendEvent(event);
+			}
+		},
+
+		/**
+		 * Forwards all the pending coalesced events.
+		 *
+		 * @private
+		 * @memberOf videoMcq.VideoPlayer#
+		 */
+		flushEvents: function () {
+			var eventName;
+			for (eventName in this.flushTimers) {
+				if (this.flushTimers.hasOwnProperty(eventName)) {
+					this.flushEvent(eventName);
+				}
+			}
+		},
+
+		/**
+		 * Sets the window in milliseconds the forwarded events are collected into one batch.
+		 *
+		 * @public
+		 * @memberOf videoMcq.VideoPlayer#
+		 * @param    {Number} batchWindow the batch window in milliseconds, 0 to send every event alone.
+		 * @returns  {videoMcq.VideoPlayer} the player object.
+		 */
+		setEventBatchWindow: function (batchWindow) {
+			this.batchWindow = batchWindow || 0;
+			if (this.batchWindow <= 0) {
+				this.flushBatch();
+			}
+			return this;
+		},
+
+		/**
+		 * Sends an event to the server. Inside the batch window the events are collected
+		 * and sent in one call of the batch callback function.
+		 *
+		 * @private
+		 * @memberOf videoMcq.VideoPlayer#
+		 * @param    {Array} event the event name, the time, the extra value (or null) and
+		 *           the client time in milliseconds when the event was fired.
+		 */
+		sendEvent: function (event) {
+			if (this.batchWindow > 0 && this.batchCallback) {
+				this.eventBatch.push(event);
+				if (this.batchTimer === null) {
+					this.batchTimer = setTimeout($.proxy(this.flushBatch, this), this.batchWindow);
+				}
+			} else {
+				this.eventCallback.apply(null, this.withAge(event, new Date().getTime()));
+			}
+		},
+
+		/**
+		 * Sends the collected events to the server.
+		 *
+		 * @private
+		 * @memberOf videoMcq.VideoPlayer#
+		 */
+		flushBatch: function () {
+			var batch = this.eventBatch, now = new Date().getTime(), i;
+			clearTimeout(this.batchTimer);
+			this.batchTimer = null;
+			this.eventBatch = [];
+			for (i = 0; i < batch.length; i++) {
+				batch[i] = this.withAge(batch[i], now);
+			}
+			if (batch.length === 1) {
+				this.eventCallback.apply(null, batch[0]);
+			} else if (batch.length > 1) {
+				this.batchCallback(batch);
+			}
+		},
+
+		/**
+		 * Returns the event to send with its firing time replaced by its age: the
+		 * milliseconds it was held back by the rate limit and the batch window. The
+		 * server uses the age to anchor its playback clock to the firing time.
+		 *
+		 * @private
+		 * @memberOf videoMcq.VideoPlayer#
+		 * @param    {Array} event the event name, the time, the extra value and the firing time.
+		 * @param    {Number} now the current client time in milliseconds.
+		 * @returns  {Array} the event name, the time, the extra value and the age.
+		 */
+		withAge: function (event, now) {
+			return [event[0], event[1], event[2], Math.max(0, now - event[3])];
+		},
+
+		/**
+		 * Sets the {@link external:videojs} event callback functions for the client.
+		 *
+		 * @public
+		 * @memberOf videoMcq.VideoPlayer#
+		 * @param   {Function} eventCallback callback function for a single event
+		 * @param   {Function} [batchCallback] callback function for an array of events
+		 */
+		setEventCallback: function (eventCallback, batchCallback) {
 			console.log("\t\tVideoPlayer.setEventCallback(eventCallback: " + eventCallback + ")");
 			this.eventCallback = eventCallback;
+			this.batchCallback = batchCallback;
 			this.setListeners();
 		},
 
@@ -477,25 +1064,32 @@
 		setListeners: function () {
 			console.log("\t\tVideoPlayer.setListeners()");
 			console.log("setListeners()");
-			var eventCallback_ = this.eventCallback, videoDuration = 0;
+			var that = this, videoDuration = 0;
 			this.player.ready(function () {
 				var player = this;
 
 				/**
-				 * Delegates the events to the corresponding callback function
+				 * Delegates the subscribed events to the corresponding callback function
 				 *
 				 * @private
 				 * @memberOf setListeners
 				 * @param    {Event} event delegated event
 				 */
 				function delegate(event) {
-					var eventName = event.type,
-						currentTime = player.currentTime();
+					var eventName = event.type;
 					if (player.duration() > 0 && player.duration() !== videoDuration) {
 						videoDuration = player.duration();
-						eventCallback_("durationchange", currentTime, player.duration());
-					} else {
-						eventCallback_(eventName, currentTime);
+						that.forwardEvent("durationchange", player.currentTime(), player.duration());
+						if (eventName === "durationchange") {
+							return;
+						}
+					}
+					if (that.subscribedEvents[eventName]) {
+						if (eventName === "ratechange") {
+							that.forwardEvent(eventName, player.currentTime(), player.playbackRate ? player.playbackRate() : 1);
+						} else {
+							that.forwardEvent(eventName, player.currentTime());
+						}
 					}
 				}
 				player.on("loadstart", delegate);
@@ -512,10 +1106,104 @@
 				player.on("volumechange", delegate);
 				player.on("error", delegate);
 				player.on("fullscreenchange", delegate);
+				player.on("seeked", delegate);
+				player.on("ratechange", delegate);
 			});
 		}
 	};
 
+	/**
+	 * Constructs a stand-in for a {@link videoMcq.VideoPlayer} whose scripts
+	 * are still loading. The method calls are queued and replayed to the player
+	 * once it has been created.
+	 *
+	 * @memberOf videoMcq
+	 * @class
+	 * @constructor
+	 */
+	videoMcq.PendingPlayer = function () {
+		this.calls = [];
+	};
+
+	(function (proto) {
+		var name;
+		function queue(name) {
+			return function () {
+				this.calls.push([name, Array.prototype.slice.call(arguments)]);
+				return this;
+			};
+		}
+		for (name in videoMcq.VideoPlayer.prototype) {
+			if (videoMcq.VideoPlayer.prototype.hasOwnProperty(name) && typeof videoMcq.VideoPlayer.prototype[name] === "function") {
+				proto[name] = queue(name);
+			}
+		}
+	}(videoMcq.PendingPlayer.prototype));
+
+	/**
+	 * Drops the queued calls.
+	 *
+	 * @memberOf videoMcq.PendingPlayer#
+	 * @returns  {videoMcq.PendingPlayer} the pending player.
+	 */
+	videoMcq.PendingPlayer.prototype.dispose = function () {
+		this.calls = [];
+		return this;
+	};
+
+	/**
+	 * Replays the queued calls to the given player.
+	 *
+	 * @memberOf videoMcq.PendingPlayer#
+	 * @param    {videoMcq.VideoPlayer} player the created player.
+	 * @returns  {videoMcq.VideoPlayer} the player.
+	 */
+	videoMcq.PendingPlayer.prototype.replay = function (player) {
+		var i;
+		for (i = 0; i < this.calls.length; i++) {
+			player[this.calls[i][0]].apply(player, this.calls[i][1]);
+		}
+		this.calls = [];
+		return player;
+	};
+
+	/**
+	 * The loads of the scripts by URL. Each script is loaded only once per page.
+	 *
+	 * @private
+	 * @type {Object.<String, external:jQuery.jqXHR>}
+	 */
+	var scriptLoads = {};
+
+	/**
+	 * Loads the given scripts one after another, each only once per page.
+	 *
+	 * @public
+	 * @static
+	 * @memberOf videoMcq
+	 * @param    {Array.<String>} urls the URLs of the scripts in the load order.
+	 * @param    {Function} callback called when all the scripts have been loaded.
+	 */
+	videoMcq.loadScripts = function (urls, callback) {
+		var index = 0;
+		function next() {
+			var url;
+			if (index === urls.length) {
+				callback();
+				return;
+			}
+			url = urls[index++];
+			if (!scriptLoads[url]) {
+				scriptLoads[url] = $.ajax({url: url, dataType: "script", cache: true});
+				scriptLoads[url].fail(function () {
+					console.error("videoMcq.loadScripts: failed to load " + url);
+				});
+			}
+			scriptLoads[url].done(next);
+		}
+		next();
+	};
+
 	/**
 	 * @typedef  VideojsPlayerData
 	 * @type     {Object}
@@ -535,9 +1223,10 @@
 	 * @memberOf videoMcq
 	 * @param    {external:jQuery} widget the widget component.
 	 * @param    {VideojsPlayerData} serverData state objects content.
+	 * @param    {String} [preload=auto] the preload mode of the video (auto, metadata or none).
 	 * @returns  {videoMcq.VideoPlayer} an instance of VideoPlayer
 	 */
-	videoMcq.init = function (widget, serverData) {
+	videoMcq.init = function (widget, serverData, preload) {
 		var videoJsId, tagAttrs;
 		videojs.options.flash.swf = "http://s.ytimg.com/yts/swfbin/player-vflNa3-a8/ad3.swf";
 		videoJsId = serverData.videoJsId;
@@ -555,7 +1244,44 @@
 			.attr("height", serverData.vjsHeight).appendTo(widget);
 		console.log("\ttag: '" + widget.clone().html() + "' inserted to the widget");
 		console.log("}");
-		return new videoMcq.VideoPlayer(videoJsId, serverData.videoSrc, serverData.mimetype);
+		return new videoMcq.VideoPlayer(videoJsId, serverData.videoSrc, serverData.mimetype, preload);
+	};
+
+	/**
+	 * The pre-warm functions of the deferred players on the page.
+	 *
+	 * @private
+	 * @type {Array.<Function>}
+	 */
+	var prewarmers = [];
+
+	/**
+	 * Registers the pre-warm function of a deferred player.
+	 *
+	 * @public
+	 * @static
+	 * @memberOf videoMcq
+	 * @param    {Function} prewarmer creates the player with metadata preload.
+	 */
+	videoMcq.addPrewarmer = function (prewarmer) {
+		prewarmers.push(prewarmer);
+	};
+
+	/**
+	 * Pre-warms the deferred players on the page: loads the scripts and the
+	 * metadata of the videos without buffering them. Called when the pointer
+	 * approaches a control that starts a player.
+	 *
+	 * @public
+	 * @static
+	 * @memberOf videoMcq
+	 */
+	videoMcq.prewarm = function () {
+		var i, waiting = prewarmers;
+		prewarmers = [];
+		for (i = 0; i < waiting.length; i++) {
+			waiting[i]();
+		}
 	};
 }(window.videoMcq = window.videoMcq || {}, jQuery));
 
@@ -577,13 +1303,109 @@
  */
 window.sph_vaadin_ui_videojs_Videojs = function () {
 	"use strict";
-	var videoPlayer,
+	var connector = this,
+		videoPlayer,
 		videoSrc = this.getState().videoSrc,
-		mimeType = this.getState().mimetype;
+		mimeType = this.getState().mimetype,
+		started = !this.getState().deferredInit,
+		prewarmed = false,
+		placeholder = null;
+
+	/**
+	 * Returns the URL of a script registered as a connector resource.
+	 *
+	 * @private
+	 * @param   {String} key the resource key.
+	 * @returns {String} the URL of the script.
+	 */
+	function scriptUrl(key) {
+		return connector.translateVaadinUri(connector.getState().resources[key].uRL);
+	}
+
+	/**
+	 * Creates the player once video.js and the tech plugin of the MIME type
+	 * have been loaded. The calls made before that are queued.
+	 *
+	 * @private
+	 * @param   {String} preload the preload mode of the video.
+	 */
+	function createPlayer(preload) {
+		var pending = (videoPlayer instanceof videoMcq.PendingPlayer) ? videoPlayer : new videoMcq.PendingPlayer(),
+			urls = [scriptUrl("videojs"), scriptUrl("loadmask")];
+		if (mimeType === "youtube" || mimeType === "vimeo") {
+			urls.push(scriptUrl(mimeType));
+		}
+		videoPlayer = pending;
+		videoMcq.loadScripts(urls, function () {
+			if (videoPlayer === pending) {
+				if (placeholder !== null) {
+					placeholder.remove();
+					placeholder = null;
+				}
+				videoPlayer = pending.replay(videoMcq.init($(connector.getElement()), connector.getState(), preload));
+			}
+		});
+	}
+
+	/**
+	 * Shows a lightweight placeholder instead of the player until the player is started.
+	 * Nothing is loaded before the player is pre-warmed or started.
+	 *
+	 * @private
+	 */
+	function showPlaceholder() {
+		var state = connector.getState();
+		videoPlayer = new videoMcq.PendingPlayer();
+		placeholder = $('<div class="video-js vjs-default-skin vjs-placeholder"/>')
+			.css({
+				width: state.vjsWidth + "px",
+				height: state.vjsHeight + "px",
+				background: state.poster ? "black url(" + state.poster + ") center / contain no-repeat" : "black"
+			})
+			.one("mouseenter", prewarm)
+			.appendTo(connector.getElement());
+		videoMcq.addPrewarmer(prewarm);
+	}
+
+	/**
+	 * Creates a deferred player with metadata preload before it is started.
+	 *
+	 * @private
+	 */
+	function prewarm() {
+		if (!started && !prewarmed) {
+			prewarmed = true;
+			createPlayer("metadata");
+		}
+	}
+
+	/**
+	 * Starts a deferred player: creates it, or lets a pre-warmed player buffer the video.
+	 *
+	 * @private
+	 */
+	function start() {
+		started = true;
+		if (prewarmed) {
+			videoPlayer.setPreload("auto");
+		} else {
+			createPlayer("auto");
+		}
+	}
+
 	console.log("\n---------------------");
 	console.log("sph_vaadin_ui_videojs_Videojs() {");
-	videoPlayer = videoMcq.init($(this.getElement()), this.getState());
-	videoPlayer.setEventCallback(this.videoEventFired);
+	if (started) {
+		createPlayer("auto");
+	} else {
+		showPlaceholder();
+	}
+	videoPlayer.setSubscribedEvents(this.getState().subscribedEvents);
+	videoPlayer.setEventRateLimits(this.getState().eventRateLimits);
+	videoPlayer.setCuePausing(this.getState().cuePausing);
+	videoPlayer.setEventBatchWindow(this.getState().eventBatchWindow);
+	videoPlayer.setEventCallback(this.videoEventFired, this.videoEventsFired);
+	videoPlayer.setPromptCallbacks(this.promptAnswered, this.promptsFinished);
 
 	/**
 	 * Method gets executed when the Vaadin server attempts to update client values.
@@ -601,9 +1423,19 @@ window.sph_vaadin_ui_videojs_Videojs = function () {
 			videoSrc = this.getState().videoSrc;
 			mimeType = this.getState().mimetype;
 			videoPlayer.dispose();
-			videoPlayer = videoMcq.init($(this.getElement()), this.getState());
-			videoPlayer.setEventCallback(this.videoEventFired);
+			if (started || prewarmed) {
+				createPlayer(started ? "auto" : "metadata");
+			}
+			videoPlayer.setEventCallback(this.videoEventFired, this.videoEventsFired);
+			videoPlayer.setPromptCallbacks(this.promptAnswered, this.promptsFinished);
 		}
+		if (!started && !this.getState().deferredInit) {
+			start();
+		}
+		videoPlayer.setSubscribedEvents(this.getState().subscribedEvents);
+		videoPlayer.setEventRateLimits(this.getState().eventRateLimits);
+		videoPlayer.setCuePausing(this.getState().cuePausing);
+		videoPlayer.setEventBatchWindow(this.getState().eventBatchWindow);
 		console.log("\t}");
 	};
 
@@ -651,6 +1483,81 @@ window.sph_vaadin_ui_videojs_Videojs = function () {
 		videoPlayer.pauseAt(times);
 	};
 
+	/**
+	 * Adds a pause time to the video playback.
+	 *
+	 * @function window.sph_vaadin_ui_videojs_Videojs~addPauseAt
+	 * @param    {Number} time the time in seconds where the video stream is paused.
+	 * @see      {@link videoMcq.VideoPlayer#addPauseAt videoMcq.VideoPlayer.addPauseAt(time)}
+	 */
+	this.addPauseAt = function (time) {
+		videoPlayer.addPauseAt(time);
+	};
+
+	/**
+	 * Removes a pause time from the video playback.
+	 *
+	 * @function window.sph_vaadin_ui_videojs_Videojs~removePauseAt
+	 * @param    {Number} time the removed time in seconds.
+	 * @see      {@link videoMcq.VideoPlayer#removePauseAt videoMcq.VideoPlayer.removePauseAt(time)}
+	 */
+	this.removePauseAt = function (time) {
+		videoPlayer.removePauseAt(time);
+	};
+
+	/**
+	 * Stores a prompt shown when the playback pauses at the given time.
+	 *
+	 * @function window.sph_vaadin_ui_videojs_Videojs~preparePrompt
+	 * @param    {Number} time the pause time in seconds.
+	 * @param    {String} id the identifier of the prompt.
+	 * @param    {String} caption the caption of the prompt.
+	 * @param    {String} text the prompt text (HTML).
+	 * @param    {Array.<String>} options the selectable options.
+	 * @param    {Boolean} multiple whether more than one option can be selected.
+	 * @param    {Boolean} feedback whether the answered prompt waits for the feedback of the server.
+	 * @see      {@link videoMcq.VideoPlayer#preparePrompt videoMcq.VideoPlayer.preparePrompt(time, prompt)}
+	 */
+	this.preparePrompt = function (time, id, caption, text, options, multiple, feedback) {
+		videoPlayer.preparePrompt(time, {id: id, caption: caption, text: text, options: options, multiple: multiple,
+			feedback: feedback});
+	};
+
+	/**
+	 * Shows the feedback on the answer to the shown prompt.
+	 *
+	 * @function window.sph_vaadin_ui_videojs_Videojs~showPromptFeedback
+	 * @param    {String} id the identifier of the answered prompt.
+	 * @param    {Boolean} correct whether the answer was correct.
+	 * @param    {String} [description] the description of the correct answer.
+	 * @see      {@link videoMcq.VideoPlayer#showPromptFeedback videoMcq.VideoPlayer.showPromptFeedback(id, correct, description)}
+	 */
+	this.showPromptFeedback = function (id, correct, description) {
+		videoPlayer.showPromptFeedback(id, correct, description);
+	};
+
+	/**
+	 * Removes the prompts of the given pause time.
+	 *
+	 * @function window.sph_vaadin_ui_videojs_Videojs~removePrompts
+	 * @param    {Number} time the pause time in seconds.
+	 * @see      {@link videoMcq.VideoPlayer#removePrompts videoMcq.VideoPlayer.removePrompts(time)}
+	 */
+	this.removePrompts = function (time) {
+		videoPlayer.removePrompts(time);
+	};
+
+	/**
+	 * Removes all the prompts.
+	 *
+	 * @function window.sph_vaadin_ui_videojs_Videojs~clearPrompts
+	 * @see      {@link videoMcq.VideoPlayer#removePrompts videoMcq.VideoPlayer.removePrompts()}
+	 */
+	this.clearPrompts = function () {
+		videoPlayer.hidePrompt();
+		videoPlayer.removePrompts();
+	};
+
 	/**
 	 * Displays a mask over the Video.js player element.
 	 *
@@ -740,4 +1647,28 @@ window.sph_vaadin_ui_videojs_Videojs = function () {
 	 * @param    {Number} time the time when the Video.js event was fired.
 	 * @param    {Number} [duration] the duration of the played video stream.
 	 */
+
+	/**
+	 * Callback method for sending a batch of {@link Videojs Video.js} events to the server.
+	 *
+	 * @function window.sph_vaadin_ui_videojs_Videojs~videoEventsFired
+	 * @param    {Array.<Array>} events the events, each an array of the event name, the time and the optional extra value.
+	 */
+
+	/**
+	 * Callback method for sending the answer of a prompt to the server.
+	 *
+	 * @function window.sph_vaadin_ui_videojs_Videojs~promptAnswered
+	 * @param    {Number} time the pause time of the prompt.
+	 * @param    {String} id the identifier of the prompt.
+	 * @param    {Array.<Number>} options the positions of the selected options.
+	 * @param    {Number} elapsed the time in milliseconds the prompt was shown before the answer.
+	 */
+
+	/**
+	 * Callback method for informing the server that all the prompts of a pause time are answered.
+	 *
+	 * @function window.sph_vaadin_ui_videojs_Videojs~promptsFinished
+	 * @param    {Number} time the pause time of the prompts.
+	 */
 };
\ No newline at end of file
@@ -0,0 +1,144 @@
+/**
+ * <p><b>Copyright 2013 Juha Mäkilä and Sami Holck</b></p>
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at</p>
+ *
+ *     <a href="http://www.apache.org/licenses/LICENSE-2.0"
+ *     target="_new">http://www.apache.org/licenses/LICENSE-2.0</a>
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.</p>
+ */
+package sph.vaadin.ui.svg;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.io.Serializable;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Tests that the shared state of {@link SvgDots} holds only the compact wire
+ * form of the dots.
+ *
+ * <p>The sizes are measured as the length of a JSON encoding following the
+ * conventions of the shared state (see {@link SvgDotsState}): the state as
+ * its fields and a dot bean as its properties.</p>
+ *
+ * <p><strong>copyright &copy; Ville-Video 2013</strong></p>
+ *
+ * @version 0.1
+ * @since   17.10.2026
+ */
+public class SvgDotsStateTest {
+
+	private static final int DOTS = 200;
+	private static final String[] COLORS = { "Silver", "Green", "Red" };
+
+	@Test
+	public void testStateHasNoDotBeans() {
+		for (Field field : SvgDotsState.class.getDeclaredFields()) {
+			assertFalse(field.getName(), SvgDots.Dot.class.isAssignableFrom(field.getType()));
+			assertFalse(field.getName(), SvgDots.Dot[].class.isAssignableFrom(field.getType()));
+			assertFalse(field.getName(), Collection.class.isAssignableFrom(field.getType()) && !field.getName().equals("palette"));
+		}
+	}
+
+	@Test
+	public void testPaletteHoldsDistinctColors() {
+		SvgDotsState state = new SvgDots(createDots(null)).getState();
+		assertEquals(COLORS.length, state.palette.size());
+		assertEquals(DOTS, state.colors.length);
+		assertEquals(DOTS, state.titles.length);
+		assertEquals(DOTS, state.clickable.length);
+	}
+
+	@Test
+	public void testDotDataIsNotInState() throws Exception {
+		String withoutData = toJson(new SvgDots(createDots(null)).getState());
+		String withData = toJson(new SvgDots(createDots("data of the dot")).getState());
+		assertEquals(withoutData, withData);
+	}
+
+	@Test
+	public void testStateIsSmallerThanDotBeans() throws Exception {
+		List<SvgDots.Dot> dots = createDots(null);
+		int state = toJson(new SvgDots(dots).getState()).length();
+		int beans = toJson(dots).length();
+		assertTrue("state " + state + " chars, dots " + beans + " chars", 2 * state < beans);
+	}
+
+	/**
+	 * Creates dots with the given data, colored with the colors in turn.
+	 */
+	private static List<SvgDots.Dot> createDots(Serializable data) {
+		List<SvgDots.Dot> dots = new ArrayList<SvgDots.Dot>(DOTS);
+		for (int i = 0; i < DOTS; i++) {
+			SvgDots.Dot dot = new SvgDots.Dot(COLORS[i % COLORS.length], "Question " + (i + 1), i % 2 == 0);
+			dot.setData(data);
+			dots.add(dot);
+		}
+		return dots;
+	}
+
+	/**
+	 * Encodes the given value as JSON: the state by the fields it declares
+	 * and other objects by their bean properties.
+	 */
+	private static String toJson(Object value) throws Exception {
+		StringBuilder json = new StringBuilder();
+		appendJson(json, value);
+		return json.toString();
+	}
+
+	private static void appendJson(StringBuilder json, Object value) throws Exception {
+		if (value == null || value instanceof Number || value instanceof Boolean) {
+			json.append(value);
+		} else if (value instanceof String) {
+			json.append('"').append(value).append('"');
+		} else if (value.getClass().isArray()) {
+			json.append('[');
+			for (int i = 0; i < Array.getLength(value); i++) {
+				json.append((i > 0) ? "," : "");
+				appendJson(json, Array.get(value, i));
+			}
+			json.append(']');
+		} else if (value instanceof Collection) {
+			appendJson(json, ((Collection<?>) value).toArray());
+		} else if (value instanceof SvgDotsState) {
+			json.append('{');
+			for (Field field : SvgDotsState.class.getDeclaredFields()) {
+				if (Modifier.isPublic(field.getModifiers()) && !Modifier.isStatic(field.getModifiers())) {
+					json.append((json.length() > 1) ? "," : "").append('"').append(field.getName()).append("\":");
+					appendJson(json, field.get(value));
+				}
+			}
+			json.append('}');
+		} else {
+			json.append('{');
+			int start = json.length();
+			for (PropertyDescriptor property : Introspector.getBeanInfo(value.getClass(), Object.class).getPropertyDescriptors()) {
+				if (property.getReadMethod() != null) {
+					json.append((json.length() > start) ? "," : "").append('"').append(property.getName()).append("\":");
+					appendJson(json, property.getReadMethod().invoke(value));
+				}
+			}
+			json.append('}');
+		}
+	}
+}